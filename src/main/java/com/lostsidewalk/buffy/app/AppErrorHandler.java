@@ -215,6 +215,19 @@ public class AppErrorHandler {
         return badRequestResponse("Registration failed", e.getMessage());
     }
 
+    //
+    // service unavailable conditions:
+    //
+    // password hashing capacity exceeded (load shedding)
+    //
+    @SuppressWarnings("NestedMethodCall")
+    @ExceptionHandler(PasswordHashingRejectedException.class) // runtime exception
+    public final ResponseEntity<ErrorDetails> handlePasswordHashingRejectedException(PasswordHashingRejectedException e, Authentication authentication) {
+        ErrorLogService.logPasswordHashingRejectedException(ofNullable(authentication).map(Authentication::getName).orElse(null), new Date(), e);
+        updateErrorCount(e);
+        return serviceUnavailableResponse();
+    }
+
     //
     // utility methods
     //
@@ -233,6 +246,11 @@ public class AppErrorHandler {
         return new ResponseEntity<>(errorDetails, FORBIDDEN);
     }
 
+    private static ResponseEntity<ErrorDetails> serviceUnavailableResponse() {
+        ErrorDetails errorDetails = getErrorDetails("Service busy, please try again later.", EMPTY);
+        return new ResponseEntity<>(errorDetails, SERVICE_UNAVAILABLE);
+    }
+
     private static ResponseEntity<ErrorDetails> badRequestResponse(String message, String messageDetails) {
         ErrorDetails errorDetails = getErrorDetails(message, messageDetails);
         return new ResponseEntity<>(errorDetails, BAD_REQUEST);
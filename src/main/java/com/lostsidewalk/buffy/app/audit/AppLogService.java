@@ -43,6 +43,10 @@ public class AppLogService {
         auditLog("queue-status-update", "id={}, queueStatusUpdateRequest={}", username, stopWatch, id, queueStatusUpdateRequest);
     }
 
+    public static void logDeployJobFetch(String username, StopWatch stopWatch, long id, Long deployJobId, String status) {
+        auditLog("deploy-job-fetch", "id={}, deployJobId={}, status={}", username, stopWatch, id, deployJobId, status);
+    }
+
     // HERE
     public static void logQueueAttributeUpdate(String username, StopWatch updateTimer, StopWatch finalizeTimer, Long id, String attrName, Map<String, PubResult> pubResults) {
         auditLog("queue-attribute-update", "id={}, attrName={}, pubResults={}", username, updateTimer, finalizeTimer, id, attrName, pubResults);
@@ -93,6 +97,10 @@ public class AppLogService {
         auditLog("staging-post-create", "queueIdCt={}, postConfigRequestCt={}, stagingPostCt={}", username, stopWatch, postConfigRequestCt, stagingPostCt);
     }
 
+    public static void logStagingPostImport(String username, StopWatch stopWatch, long rowCt, long importedCt, long errorCt) {
+        auditLog("staging-post-import", "rowCt={}, importedCt={}, errorCt={}", username, stopWatch, rowCt, importedCt, errorCt);
+    }
+
     public static void logStagingPostUpdate(String username, StopWatch stopWatch, Long id) {
         auditLog("staging-post-update", "id={}", username, stopWatch, id);
     }
@@ -105,6 +105,11 @@ public class ErrorLogService {
         auditError("client-abort-exception", username, timestamp, message);
     }
 
+    public static void logPasswordHashingRejectedException(String username, Date timestamp, PasswordHashingRejectedException e) {
+        String message = e.getMessage();
+        auditError("password-hashing-rejected-exception", username, timestamp, message);
+    }
+
     //
     private static void auditError(String logTag, String username, Date timestamp, Object... args) {
         String fullFormatStr = "eventType={}, username={}, timestamp={}";
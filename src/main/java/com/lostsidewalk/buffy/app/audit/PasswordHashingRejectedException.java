@@ -0,0 +1,14 @@
+package com.lostsidewalk.buffy.app.audit;
+
+
+import java.io.Serial;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 7234123467723412344L;
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.lostsidewalk.buffy.app.audit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class PayloadTooLargeException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 4132867012349856712L;
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -2,11 +2,9 @@ package com.lostsidewalk.buffy.app.auth;
 
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.app.audit.ApiKeyException;
-import com.lostsidewalk.buffy.auth.ApiKey;
-import com.lostsidewalk.buffy.auth.User;
+import com.lostsidewalk.buffy.app.auth.ApiUserService.UnknownApiKeyException;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -23,26 +21,44 @@ import static org.springframework.security.core.context.SecurityContextHolder.ge
 class ApiAuthHandler {
 
     @Autowired
-    AuthService authService;
+    ApiUserService userService;
 
     @Autowired
-    ApiUserService userService;
+    ApiPrincipalCache apiPrincipalCache;
+
+    @Autowired
+    InvalidApiKeyCache invalidApiKeyCache;
 
     final void processApiRequest(String apiKey, String apiSecret, String requestUrl, String requestMethod, @SuppressWarnings("unused") HttpServletResponse response)
             throws DataAccessException, ApiKeyException {
         if (isAnyBlank(apiKey, apiSecret)) {
             throw new ApiKeyException("Unable to locate API key or API secret headers");
         }
-        User user = authService.findUserByApiKey(apiKey);
-        if (user == null) {
-            throw new ApiKeyException("Unable to locate API key by UUID");
+        UserDetails userDetails = apiPrincipalCache.get(apiKey, apiSecret);
+        if (userDetails == null) {
+            // keys that were recently not found, and credentials that recently failed, are turned away before
+            // touching the database
+            invalidApiKeyCache.checkBackoff(apiKey, null);
+            invalidApiKeyCache.checkBackoff(apiKey, apiSecret);
+            try {
+                userDetails = userService.loadApiPrincipal(apiKey, apiSecret);
+                if (userDetails == null) {
+                    throw new ApiKeyException("Unable to load API user by key");
+                }
+            } catch (UnknownApiKeyException e) {
+                // backed off whatever the secret, as on the signed path, so varying the secret doesn't get past it
+                invalidApiKeyCache.recordFailure(apiKey, null);
+                throw e;
+            } catch (ApiKeyException e) {
+                invalidApiKeyCache.recordFailure(apiKey, apiSecret);
+                throw e;
+            }
+            invalidApiKeyCache.recordSuccess(apiKey, apiSecret);
+            apiPrincipalCache.put(apiKey, apiSecret, userDetails);
         }
-        String username = user.getUsername();
-        ApiKey apiKeyObj = authService.requireApiKey(username);
-        validateApiKey(apiKeyObj, apiKey, apiSecret);
-        UserDetails userDetails = userService.loadUserByUsername(username);
+        String username = userDetails.getUsername();
         Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
-        WebAuthenticationToken authToken = new WebAuthenticationToken(userDetails, apiKey, authorities);
+        WebAuthenticationToken authToken = new WebAuthenticationToken(userDetails, apiKey, authorities, TrafficClass.API);
         authToken.setDetails(userDetails);
         //
         // !! ACHTUNG !! POINT OF NO RETURN !!
@@ -55,24 +71,12 @@ class ApiAuthHandler {
         log.debug("Logged in username={} via API header auth for requestUrl={}, requestMethod={}", username, requestUrl, requestMethod);
     }
 
-    private static void validateApiKey(ApiKey apiKeyObj, String expectedKey, String expectedSecret) throws ApiKeyException {
-        // ensure that the key UUIDs match
-        String actual = apiKeyObj.getApiKey();
-        if (!StringUtils.equals(expectedKey, actual)) {
-            throw new ApiKeyException("API key mismatch");
-        }
-        // ensure that the secret values match
-        String actualSecret = apiKeyObj.getApiSecret();
-        if (!StringUtils.equals(expectedSecret, actualSecret)) {
-            throw new ApiKeyException("API secret mismatch");
-        }
-    }
-
     @Override
     public final String toString() {
         return "ApiAuthHandler{" +
-                "authService=" + authService +
-                ", userService=" + userService +
+                "userService=" + userService +
+                ", apiPrincipalCache=" + apiPrincipalCache +
+                ", invalidApiKeyCache=" + invalidApiKeyCache +
                 '}';
     }
 }
@@ -0,0 +1,98 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.Charset;
+import java.util.Collection;
+
+import static com.lostsidewalk.buffy.app.auth.HashingUtils.sha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Bounded, TTL-based cache of fully-built API principals, keyed by a digest of the API key and secret.
+ * <p>
+ * A hit allows ApiAuthHandler to establish the security context without touching the database; entries
+ * are dropped when the owning user's API key, registration, or verification state changes on this node.  Other
+ * nodes are not told, so a change made elsewhere (e.g., a rotated key) is seen here only once the entry expires:
+ * a cached principal may be served for up to ttlSeconds (60 by default) after it stops being valid.
+ */
+@Slf4j
+@Component
+public class ApiPrincipalCache implements MeterBinder {
+
+    private static final Charset CHARSET = UTF_8;
+
+    @Value("${comprss.apiPrincipalCache.maxSize:10000}")
+    long maxSize;
+
+    @Value("${comprss.apiPrincipalCache.ttlSeconds:60}")
+    long ttlSeconds;
+
+    private Cache<String, UserDetails> cache;
+
+    @PostConstruct
+    void postConstruct() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, SECONDS)
+                .recordStats()
+                .build();
+        log.info("API principal cache initialized, maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    final UserDetails get(String apiKey, String apiSecret) {
+        String cacheKey = cacheKey(apiKey, apiSecret);
+        return cache.getIfPresent(cacheKey);
+    }
+
+    final void put(String apiKey, String apiSecret, UserDetails userDetails) {
+        String cacheKey = cacheKey(apiKey, apiSecret);
+        cache.put(cacheKey, userDetails);
+    }
+
+    /**
+     * Drop all cached principals for the given user, e.g., on API key rotation, de-registration, or verification.
+     *
+     * @param username the name of the user whose principals should be evicted
+     */
+    public final void invalidateUser(String username) {
+        Collection<UserDetails> values = cache.asMap().values();
+        boolean removed = values.removeIf(u -> StringUtils.equals(u.getUsername(), username));
+        if (removed) {
+            log.debug("Evicted cached API principal(s) for username={}", username);
+        }
+    }
+
+    public final void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String cacheKey(String apiKey, String apiSecret) {
+        return sha256(apiKey + ':' + apiSecret, CHARSET);
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, "apiPrincipalCache");
+    }
+
+    @Override
+    public final String toString() {
+        return "ApiPrincipalCache{" +
+                "maxSize=" + maxSize +
+                ", ttlSeconds=" + ttlSeconds +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.app.audit.ApiKeyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.Charset;
+import java.util.Collection;
+
+import static com.lostsidewalk.buffy.app.auth.HashingUtils.hmacSha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * In-memory ring of request signing keys, keyed by API key.
+ * <p>
+ * A signing key is derived from the API secret as HMAC-SHA256(secret, "comprss-request-signing-v1"), so the secret
+ * itself never needs to be sent once a client switches to signed requests.  Each entry also holds the principal for
+ * the key, so steady-state verification of a signed request requires no database access.  Entries for a user are
+ * dropped whenever that user's API key, registration, or verification state changes on this node; a change made on
+ * another node is seen here once the entry expires, i.e., within ttlSeconds (60 by default).
+ */
+@Slf4j
+@Component
+public class ApiSigningKeyRing implements MeterBinder {
+
+    private static final Charset CHARSET = UTF_8;
+
+    private static final String KEY_DERIVATION_LABEL = "comprss-request-signing-v1";
+
+    static final class ApiSigningKey {
+
+        final UserDetails principal;
+
+        final byte[] key;
+
+        private ApiSigningKey(UserDetails principal, byte[] key) {
+            this.principal = principal;
+            this.key = key;
+        }
+
+        static ApiSigningKey from(UserDetails principal, String apiSecret) {
+            byte[] key = hmacSha256(apiSecret.getBytes(CHARSET), KEY_DERIVATION_LABEL, CHARSET);
+            return new ApiSigningKey(principal, key);
+        }
+    }
+
+    @Autowired
+    ApiUserService userService;
+
+    @Value("${comprss.apiSigningKeyRing.maxSize:10000}")
+    long maxSize;
+
+    @Value("${comprss.apiSigningKeyRing.ttlSeconds:60}")
+    long ttlSeconds;
+
+    private Cache<String, ApiSigningKey> cache;
+
+    @PostConstruct
+    void postConstruct() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, SECONDS)
+                .recordStats()
+                .build();
+        log.info("API signing key ring initialized, maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    final ApiSigningKey get(String apiKey) throws DataAccessException, ApiKeyException {
+        ApiSigningKey signingKey = cache.getIfPresent(apiKey);
+        if (signingKey == null) {
+            signingKey = userService.loadSigningKey(apiKey);
+            cache.put(apiKey, signingKey);
+        }
+        return signingKey;
+    }
+
+    /**
+     * Drop all signing keys for the given user, e.g., on API key rotation, de-registration, or verification.
+     *
+     * @param username the name of the user whose keys should be evicted
+     */
+    public final void invalidateUser(String username) {
+        Collection<ApiSigningKey> values = cache.asMap().values();
+        boolean removed = values.removeIf(k -> StringUtils.equals(k.principal.getUsername(), username));
+        if (removed) {
+            log.debug("Evicted API signing key(s) for username={}", username);
+        }
+    }
+
+    public final void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, "apiSigningKeyRing");
+    }
+
+    @Override
+    public final String toString() {
+        return "ApiSigningKeyRing{" +
+                "maxSize=" + maxSize +
+                ", ttlSeconds=" + ttlSeconds +
+                '}';
+    }
+}
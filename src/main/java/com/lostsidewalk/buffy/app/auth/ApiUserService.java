@@ -1,39 +1,42 @@
 package com.lostsidewalk.buffy.app.auth;
 
 import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.app.audit.ApiKeyException;
 import com.lostsidewalk.buffy.app.audit.ErrorLogService;
-import com.lostsidewalk.buffy.auth.User;
-import com.lostsidewalk.buffy.auth.UserDao;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.io.Serial;
-import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
 import static com.lostsidewalk.buffy.app.auth.UserRoles.*;
-import static java.util.Set.copyOf;
 
 
 @Service
 @Slf4j
 public class ApiUserService implements UserDetailsService {
 
-    @Autowired
-    UserDao userDao;
+    static class UnknownApiKeyException extends ApiKeyException {
+
+        @Serial
+        private static final long serialVersionUID = 6723412347723123462L;
+
+        UnknownApiKeyException() {
+            super("Unable to locate API key by UUID");
+        }
+    }
 
     @Autowired
-    PasswordEncoder passwordEncoder;
+    AuthSnapshotDao authSnapshotDao;
 
     @Value("${comprss.development:false}")
     boolean isDevelopment;
@@ -47,15 +50,13 @@ public class ApiUserService implements UserDetailsService {
             throw new UsernameNotFoundException(username);
         }
 
-        User user;
+        AuthSnapshot authSnapshot;
         try {
-            user = userDao.findByName(username);
-            if (user == null) {
+            authSnapshot = authSnapshotDao.findByUsername(username);
+            if (authSnapshot == null) {
                 throw new UsernameNotFoundException(username);
             }
-            Set<SimpleGrantedAuthority> implicitAuthorities = gatherImplicitAuthorities(user);
-            Set<SimpleGrantedAuthority> grantedAuthorities = copyOf(implicitAuthorities);
-            return toUserDetails(user, grantedAuthorities, passwordEncoder);
+            return toUserDetails(authSnapshot);
         } catch (DataAccessException e) {
             log.error("Unable to load user due to data access exception");
             ErrorLogService.logDataAccessException(username, new Date(), e);
@@ -63,14 +64,58 @@ public class ApiUserService implements UserDetailsService {
         }
     }
 
-    private Set<SimpleGrantedAuthority> gatherImplicitAuthorities(User user) {
+    /**
+     * Resolve the API user that owns the given key, validating the supplied secret, using a single lookup.
+     */
+    public final UserDetails loadApiPrincipal(String apiKey, String apiSecret) throws DataAccessException, ApiKeyException {
+        AuthSnapshot authSnapshot = authSnapshotDao.findByApiKey(apiKey);
+        if (authSnapshot == null) {
+            throw new UnknownApiKeyException();
+        }
+        validateApiKey(authSnapshot, apiKey, apiSecret);
+        return toUserDetails(authSnapshot);
+    }
+
+    /**
+     * Resolve the API user that owns the given key, along with the key used to verify that user's signed requests.
+     */
+    final ApiSigningKeyRing.ApiSigningKey loadSigningKey(String apiKey) throws DataAccessException, ApiKeyException {
+        AuthSnapshot authSnapshot = authSnapshotDao.findByApiKey(apiKey);
+        if (authSnapshot == null) {
+            throw new UnknownApiKeyException();
+        }
+        UserDetails userDetails = toUserDetails(authSnapshot);
+        String apiSecret = authSnapshot.getApiSecret();
+        return ApiSigningKeyRing.ApiSigningKey.from(userDetails, apiSecret);
+    }
+
+    private static void validateApiKey(AuthSnapshot authSnapshot, String expectedKey, String expectedSecret) throws ApiKeyException {
+        // ensure that the key UUIDs match
+        String actual = authSnapshot.getApiKey();
+        if (!StringUtils.equals(expectedKey, actual)) {
+            throw new ApiKeyException("API key mismatch");
+        }
+        // ensure that the secret values match
+        String actualSecret = authSnapshot.getApiSecret();
+        if (!StringUtils.equals(expectedSecret, actualSecret)) {
+            throw new ApiKeyException("API secret mismatch");
+        }
+    }
+
+    private UserDetails toUserDetails(AuthSnapshot authSnapshot) {
+        String username = authSnapshot.getUsername();
+        Set<SimpleGrantedAuthority> implicitAuthorities = gatherImplicitAuthorities(authSnapshot);
+        return AuthPrincipal.from(username, implicitAuthorities);
+    }
+
+    private Set<SimpleGrantedAuthority> gatherImplicitAuthorities(AuthSnapshot authSnapshot) {
         Set<SimpleGrantedAuthority> implicitFeatures = new HashSet<>(3);
 
         // all API users get the 'api_unverified' role
         implicitFeatures.add(API_UNVERIFIED_AUTHORITY);
 
         // verified API users get the 'api_verified' role
-        if (user.isVerified()) {
+        if (authSnapshot.isVerified()) {
             implicitFeatures.add(API_VERIFIED_AUTHORITY);
         }
 
@@ -82,57 +127,10 @@ public class ApiUserService implements UserDetailsService {
         return implicitFeatures;
     }
 
-    //
-    // utility methods
-    //
-    private static UserDetails toUserDetails(User user, Collection<SimpleGrantedAuthority> grantedAuthorities, PasswordEncoder passwordEncoder) {
-        return new UserDetails() {
-            @Serial
-            private static final long serialVersionUID = 3413823442343242298L;
-
-            @Override
-            public Collection<? extends GrantedAuthority> getAuthorities() {
-                return grantedAuthorities;
-            }
-
-            @Override
-            public String getPassword() {
-                String password = user.getPassword();
-                return passwordEncoder.encode(password);
-            }
-
-            @Override
-            public String getUsername() {
-                return user.getUsername();
-            }
-
-            @Override
-            public boolean isAccountNonExpired() {
-                return true;
-            }
-
-            @Override
-            public boolean isAccountNonLocked() {
-                return true;
-            }
-
-            @Override
-            public boolean isCredentialsNonExpired() {
-                return true;
-            }
-
-            @Override
-            public boolean isEnabled() {
-                return true;
-            }
-        };
-    }
-
     @Override
     public final String toString() {
         return "ApiUserService{" +
-                "userDao=" + userDao +
-                ", passwordEncoder=" + passwordEncoder +
+                "authSnapshotDao=" + authSnapshotDao +
                 ", isDevelopment=" + isDevelopment +
                 '}';
     }
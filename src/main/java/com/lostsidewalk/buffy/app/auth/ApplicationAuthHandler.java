@@ -3,14 +3,18 @@ package com.lostsidewalk.buffy.app.auth;
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.app.audit.AuthClaimException;
 import com.lostsidewalk.buffy.app.audit.TokenValidationException;
+import com.lostsidewalk.buffy.app.auth.VerifiedTokenCache.VerifiedToken;
 import com.lostsidewalk.buffy.app.token.TokenService;
 import com.lostsidewalk.buffy.app.token.TokenService.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import static com.lostsidewalk.buffy.app.auth.JwtProcessor.establishSession;
+import static com.lostsidewalk.buffy.app.auth.JwtProcessor.newAuthToken;
 import static com.lostsidewalk.buffy.app.model.TokenType.APP_AUTH;
 import static org.springframework.util.StringUtils.hasText;
 
@@ -27,15 +31,27 @@ class ApplicationAuthHandler {
     @Autowired
     JwtProcessor jwtProcessor;
 
+    @Autowired
+    VerifiedTokenCache verifiedTokenCache;
+
     final void processAllOthers(HttpServletRequest request, @SuppressWarnings("unused") HttpServletResponse response) throws AuthClaimException, TokenValidationException, DataAccessException {
         String headerAuth = request.getHeader("Authorization");
         if (hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
             String jwt = headerAuth.substring(7);
-            JwtUtil jwtUtil = tokenService.instanceFor(APP_AUTH, jwt);
-            jwtUtil.requireNonExpired();
-            String username = jwtUtil.extractUsername();
-            String userValidationClaim = authService.requireAuthClaim(username);
-            jwtProcessor.processJwt(jwtUtil, username, userValidationClaim, jwt);
+            String username;
+            VerifiedToken verifiedToken = verifiedTokenCache.get(APP_AUTH, jwt, authService::requireAuthClaim);
+            if (verifiedToken == null) {
+                JwtUtil jwtUtil = tokenService.instanceFor(APP_AUTH, jwt);
+                jwtUtil.requireNonExpired();
+                username = jwtUtil.extractUsername();
+                String userValidationClaim = authService.requireAuthClaim(username);
+                WebAuthenticationToken authToken = jwtProcessor.verifyJwt(jwtUtil, username, userValidationClaim, jwt);
+                verifiedTokenCache.put(APP_AUTH, jwt, jwtUtil.extractExpiration(), username, userValidationClaim, (UserDetails) authToken.getPrincipal());
+                establishSession(authToken);
+            } else {
+                username = verifiedToken.username;
+                establishSession(newAuthToken(verifiedToken.principal, jwt));
+            }
             StringBuffer requestURL = request.getRequestURL();
             String method = request.getMethod();
             log.debug("Logged in username={} via JWT header auth for requestUrl={}, requestMethod={}", username, requestURL, method);
@@ -50,6 +66,7 @@ class ApplicationAuthHandler {
                 "authService=" + authService +
                 ", tokenService=" + tokenService +
                 ", jwtProcessor=" + jwtProcessor +
+                ", verifiedTokenCache=" + verifiedTokenCache +
                 '}';
     }
 }
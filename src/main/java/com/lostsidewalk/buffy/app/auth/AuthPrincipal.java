@@ -0,0 +1,79 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.collect.ImmutableSet;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * An immutable principal for requests authenticated by API key or JWT.
+ * <p>
+ * Unlike the UserDetails handed to DaoAuthenticationProvider during login, this principal never carries a password
+ * (hashed or otherwise), so building and using it costs nothing beyond the username and authorities it holds.
+ */
+public final class AuthPrincipal implements UserDetails {
+
+    @Serial
+    private static final long serialVersionUID = 8723461234223471239L;
+
+    private final String username;
+
+    private final ImmutableSet<GrantedAuthority> authorities;
+
+    private AuthPrincipal(String username, ImmutableSet<GrantedAuthority> authorities) {
+        this.username = username;
+        this.authorities = authorities;
+    }
+
+    public static AuthPrincipal from(String username, Collection<? extends GrantedAuthority> authorities) {
+        return new AuthPrincipal(username, ImmutableSet.copyOf(authorities));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * @return always null; this principal does not carry credentials
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthPrincipal{" +
+                "username='" + username + '\'' +
+                ", authorities=" + authorities +
+                '}';
+    }
+}
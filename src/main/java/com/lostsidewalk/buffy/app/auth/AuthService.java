@@ -31,6 +31,7 @@ import java.util.stream.Stream;
 
 import static com.lostsidewalk.buffy.app.auth.HashingUtils.sha256;
 import static com.lostsidewalk.buffy.app.model.TokenType.*;
+import static com.lostsidewalk.buffy.app.pwencoder.PasswordEncoderConfig.withoutEncoderId;
 import static com.lostsidewalk.buffy.app.utils.RandomUtils.generateRandomString;
 import static java.nio.charset.Charset.defaultCharset;
 import static java.util.Optional.of;
@@ -55,6 +56,15 @@ public class AuthService {
     @Autowired
     TokenService tokenService;
 
+    @Autowired
+    ApiPrincipalCache apiPrincipalCache;
+
+    @Autowired
+    ApiSigningKeyRing apiSigningKeyRing;
+
+    @Autowired
+    VerifiedTokenCache verifiedTokenCache;
+
     @Value("${comprss.development:false}")
     boolean isDevelopment;
 
@@ -141,6 +151,8 @@ public class AuthService {
         String newAuthClaim = randomClaimValue();
         user.setAuthClaim(newAuthClaim);
         userDao.updateAuthClaim(user);
+        // tokens verified against the old claim must not outlive it
+        verifiedTokenCache.invalidateUser(username);
     }
 
     public final void finalizePwResetClaim(String username) throws DataAccessException, DataUpdateException {
@@ -263,10 +275,14 @@ public class AuthService {
         }
         String uuid = UUID.randomUUID().toString();
         String rawApiSecret = generateRandomString(32);
-        String secret = passwordEncoder.encode(rawApiSecret);
+        String secret = withoutEncoderId(passwordEncoder.encode(rawApiSecret));
         Long id = user.getId();
         ApiKey apiKey = ApiKey.from(id, uuid, secret);
-        return apiKeyDao.add(apiKey);
+        ApiKey added = apiKeyDao.add(apiKey);
+        // drop any principals cached against the previous key (on this node; other nodes' entries expire within their TTL)
+        apiPrincipalCache.invalidateUser(username);
+        apiSigningKeyRing.invalidateUser(username);
+        return added;
     }
 
     public final void updatePassword(String username, String newPassword) throws DataAccessException, DataUpdateException {
@@ -274,7 +290,8 @@ public class AuthService {
         if (user == null) {
             throw new UsernameNotFoundException(username);
         }
-        user.setPassword(newPassword);
+        String encodedPassword = passwordEncoder.encode(newPassword);
+        user.setPassword(encodedPassword);
         userDao.updatePassword(user);
     }
 
@@ -312,6 +329,9 @@ public class AuthService {
                 ", userDao=" + userDao +
                 ", apiKeyDao=" + apiKeyDao +
                 ", tokenService=" + tokenService +
+                ", apiPrincipalCache=" + apiPrincipalCache +
+                ", apiSigningKeyRing=" + apiSigningKeyRing +
+                ", verifiedTokenCache=" + verifiedTokenCache +
                 ", isDevelopment=" + isDevelopment +
                 '}';
     }
@@ -0,0 +1,88 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import java.util.Set;
+
+import static java.util.Set.copyOf;
+
+/**
+ * An immutable view of everything the authentication filter chain needs to know about a user: the user record,
+ * the user's API key (if any), and the names of the roles granted to the user.
+ */
+public final class AuthSnapshot {
+
+    private final Long userId;
+
+    private final String username;
+
+    private final String password;
+
+    private final String authClaim;
+
+    private final boolean verified;
+
+    private final String apiKey;
+
+    private final String apiSecret;
+
+    private final Set<String> roleNames;
+
+    private AuthSnapshot(Long userId, String username, String password, String authClaim, boolean verified,
+                         String apiKey, String apiSecret, Set<String> roleNames) {
+        this.userId = userId;
+        this.username = username;
+        this.password = password;
+        this.authClaim = authClaim;
+        this.verified = verified;
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.roleNames = copyOf(roleNames);
+    }
+
+    public static AuthSnapshot from(Long userId, String username, String password, String authClaim, boolean verified,
+                                    String apiKey, String apiSecret, Set<String> roleNames) {
+        return new AuthSnapshot(userId, username, password, authClaim, verified, apiKey, apiSecret, roleNames);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getAuthClaim() {
+        return authClaim;
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getApiSecret() {
+        return apiSecret;
+    }
+
+    public Set<String> getRoleNames() {
+        return roleNames;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthSnapshot{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                ", verified=" + verified +
+                ", apiKey='" + apiKey + '\'' +
+                ", roleNames=" + roleNames +
+                '}';
+    }
+}
@@ -1,10 +1,10 @@
 package com.lostsidewalk.buffy.app.auth;
 
-import com.google.common.collect.ImmutableSet;
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.app.audit.ApiKeyException;
 import com.lostsidewalk.buffy.app.audit.AuthClaimException;
 import com.lostsidewalk.buffy.app.audit.TokenValidationException;
+import com.lostsidewalk.buffy.app.auth.InvalidApiKeyCache.ApiKeyBackoffException;
 import com.lostsidewalk.buffy.app.auth.OptionsAuthHandler.MissingOptionsHeaderException;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
@@ -22,7 +22,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Date;
-import java.util.stream.Stream;
 
 import static com.lostsidewalk.buffy.app.audit.ErrorLogService.logDataAccessException;
 import static org.apache.commons.lang3.StringUtils.*;
@@ -50,6 +49,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     ApiAuthHandler apiAuthHandler;
 
+    @Autowired
+    SignedRequestAuthHandler signedRequestAuthHandler;
+
+    @Value("${comprss.signedRequest.maxBodyBytes:1048576}")
+    int signedRequestMaxBodyBytes;
+
     @Autowired
     ApplicationAuthHandler applicationAuthHandler;
 
@@ -61,6 +66,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Override
     protected final void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
+        HttpServletRequest filteredRequest = request;
         String requestPath = getPath(request);
         if (shouldApplyFilter(requestPath)) {
             //
@@ -94,7 +100,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                     passwordUpdateAuthHandler.processPasswordUpdate(request);
                 } else {
                     String apiKey = request.getHeader(API_KEY_HEADER_NAME);
-                    if (isNotBlank(apiKey) && !singleUserMode) {
+                    String apiSignature = request.getHeader(API_SIGNATURE_HEADER_NAME);
+                    if (isNotBlank(apiKey) && isNotBlank(apiSignature) && !singleUserMode) {
+                        // signed request mode: the body is buffered (up to a limit) so that its digest can be verified, then
+                        // replayed downstream; requests that fail the cheap header checks are turned away before any of it is read
+                        String apiTimestamp = request.getHeader(API_TIMESTAMP_HEADER_NAME);
+                        signedRequestAuthHandler.checkHeaders(apiKey, apiTimestamp, apiSignature);
+                        CachedBodyHttpServletRequest cachedBodyRequest = new CachedBodyHttpServletRequest(request, signedRequestMaxBodyBytes);
+                        filteredRequest = cachedBodyRequest;
+                        signedRequestAuthHandler.processSignedRequest(apiKey, apiTimestamp, apiSignature, cachedBodyRequest);
+                    } else if (isNotBlank(apiKey) && !singleUserMode) {
                         String apiSecret = request.getHeader(API_SECRET_HEADER_NAME);
                         String r = requestURL.toString();
                         apiAuthHandler.processApiRequest(apiKey, apiSecret, r, method, response);
@@ -110,6 +125,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 log.error("Invalid OPTIONS call for requestUrl={}, request header names: {}", requestURL, e.headerNames);
             } catch (TokenValidationException | UsernameNotFoundException ignored) {
                 // ignore
+            } catch (ApiKeyBackoffException e) {
+                log.debug("Rejected backed-off API key for requestUrl={}, requestMethod={}", requestURL, method);
             } catch (AuthClaimException | ApiKeyException e) {
                 String rootCauseMessage = getRootCauseMessage(e);
                 log.error("Cannot set user authentication for requestUrl={}, requestMethod={}, due to: {}", requestURL, method, rootCauseMessage);
@@ -118,7 +135,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             }
         }
 
-        filterChain.doFilter(request, response);
+        filterChain.doFilter(filteredRequest, response);
     }
 
     private static boolean shouldApplyFilter(String requestPath) {
@@ -129,22 +146,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         return request.getServletPath();
     }
 
-    private static final ImmutableSet<String> OPEN_PATHS = ImmutableSet.of(
-            "/authenticate",
-            "/v3/api-docs"
-    );
-
-    private static final ImmutableSet<String> OPEN_PATH_PREFIXES = ImmutableSet.of(
-            "/pw_reset",
-            "/register",
-            "/verify",
-            "/stripe",
-            "/proxy/unsecured"
-    );
-
     private static boolean isOpenServletPath(String servletPath) {
-        Stream<String> stream = OPEN_PATH_PREFIXES.stream();
-        return OPEN_PATHS.contains(servletPath) || stream.anyMatch(servletPath::startsWith);
+        return OpenRoute.isAuthFilterBypassed(servletPath);
     }
 
     //
@@ -155,6 +158,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     public static final String API_SECRET_HEADER_NAME = "X-ComposableRSS-API-Secret";
 
+    public static final String API_TIMESTAMP_HEADER_NAME = "X-ComposableRSS-API-Timestamp";
+
+    public static final String API_SIGNATURE_HEADER_NAME = "X-ComposableRSS-API-Signature";
+
     @Override
     public final String toString() {
         return "AuthTokenFilter{" +
@@ -162,6 +169,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 ", currentUserAuthHandler=" + currentUserAuthHandler +
                 ", passwordUpdateAuthHandler=" + passwordUpdateAuthHandler +
                 ", apiAuthHandler=" + apiAuthHandler +
+                ", signedRequestAuthHandler=" + signedRequestAuthHandler +
+                ", signedRequestMaxBodyBytes=" + signedRequestMaxBodyBytes +
                 ", applicationAuthHandler=" + applicationAuthHandler +
                 '}';
     }
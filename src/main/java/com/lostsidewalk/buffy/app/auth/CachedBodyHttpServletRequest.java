@@ -0,0 +1,102 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.lostsidewalk.buffy.app.audit.ApiKeyException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A request wrapper that reads the request body once, up front, so that it can be digested during authentication
+ * and then re-read by the handler.
+ * <p>
+ * At most maxBodyBytes are buffered, whatever the declared content length (a chunked body declares none); a longer
+ * body is rejected as soon as the first byte past the limit is read.
+ */
+class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    CachedBodyHttpServletRequest(HttpServletRequest request, int maxBodyBytes) throws IOException, ApiKeyException {
+        super(request);
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            throw new ApiKeyException("Signed request body exceeds the maximum size");
+        }
+        byte[] b;
+        try (InputStream inputStream = request.getInputStream()) {
+            b = inputStream.readNBytes(maxBodyBytes);
+            if (inputStream.read() != -1) {
+                throw new ApiKeyException("Signed request body exceeds the maximum size");
+            }
+        }
+        this.body = b;
+    }
+
+    final byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public final ServletInputStream getInputStream() {
+        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return byteArrayInputStream.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            // the whole body is already in memory, so it is always available, and can be read in one go
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return byteArrayInputStream.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return byteArrayInputStream.read(b, off, len);
+            }
+
+            @Override
+            public byte[] readAllBytes() {
+                return byteArrayInputStream.readAllBytes();
+            }
+
+            @Override
+            public long skip(long n) {
+                return byteArrayInputStream.skip(n);
+            }
+
+            @Override
+            public int available() {
+                return byteArrayInputStream.available();
+            }
+        };
+    }
+
+    @Override
+    public final BufferedReader getReader() {
+        String characterEncoding = getCharacterEncoding();
+        Charset charset = characterEncoding == null ? UTF_8 : Charset.forName(characterEncoding);
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
@@ -3,15 +3,18 @@ package com.lostsidewalk.buffy.app.auth;
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.app.audit.AuthClaimException;
 import com.lostsidewalk.buffy.app.audit.TokenValidationException;
+import com.lostsidewalk.buffy.app.auth.VerifiedTokenCache.VerifiedToken;
 import com.lostsidewalk.buffy.app.token.TokenService;
 import com.lostsidewalk.buffy.app.token.TokenService.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-
+import static com.lostsidewalk.buffy.app.auth.JwtProcessor.establishSession;
+import static com.lostsidewalk.buffy.app.auth.JwtProcessor.newAuthToken;
 import static com.lostsidewalk.buffy.app.model.TokenType.APP_AUTH_REFRESH;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -28,18 +31,29 @@ class CurrentUserAuthHandler {
     @Autowired
     JwtProcessor jwtProcessor;
 
+    @Autowired
+    VerifiedTokenCache verifiedTokenCache;
+
     final void processCurrentUser(HttpServletRequest request, HttpServletResponse response) throws AuthClaimException, TokenValidationException, DataAccessException {
         String cValue = authService.getTokenCookieFromRequest(APP_AUTH_REFRESH, request);
         if (isNotBlank(cValue)) {
-            JwtUtil jwtUtil = tokenService.instanceFor(APP_AUTH_REFRESH, cValue);
-            jwtUtil.requireNonExpired();
-            String username = jwtUtil.extractUsername();
-            if (isNotBlank(username)) {
-                String authClaim = authService.requireAuthClaim(username);
-                jwtProcessor.processJwt(jwtUtil, username, authClaim, cValue);
-                authService.addTokenCookieToResponse(APP_AUTH_REFRESH, username, authClaim, response);
+            VerifiedToken verifiedToken = verifiedTokenCache.get(APP_AUTH_REFRESH, cValue, authService::requireAuthClaim);
+            if (verifiedToken != null) {
+                establishSession(newAuthToken(verifiedToken.principal, cValue));
+                authService.addTokenCookieToResponse(APP_AUTH_REFRESH, verifiedToken.username, verifiedToken.userValidationClaim, response);
             } else {
-                throw new TokenValidationException("Username is missing from token");
+                JwtUtil jwtUtil = tokenService.instanceFor(APP_AUTH_REFRESH, cValue);
+                jwtUtil.requireNonExpired();
+                String username = jwtUtil.extractUsername();
+                if (isNotBlank(username)) {
+                    String authClaim = authService.requireAuthClaim(username);
+                    WebAuthenticationToken authToken = jwtProcessor.verifyJwt(jwtUtil, username, authClaim, cValue);
+                    verifiedTokenCache.put(APP_AUTH_REFRESH, cValue, jwtUtil.extractExpiration(), username, authClaim, (UserDetails) authToken.getPrincipal());
+                    establishSession(authToken);
+                    authService.addTokenCookieToResponse(APP_AUTH_REFRESH, username, authClaim, response);
+                } else {
+                    throw new TokenValidationException("Username is missing from token");
+                }
             }
         } else {
             throw new TokenValidationException("Unable to validate authentication token");
@@ -52,6 +66,7 @@ class CurrentUserAuthHandler {
                 "authService=" + authService +
                 ", tokenService=" + tokenService +
                 ", jwtProcessor=" + jwtProcessor +
+                ", verifiedTokenCache=" + verifiedTokenCache +
                 '}';
     }
 }
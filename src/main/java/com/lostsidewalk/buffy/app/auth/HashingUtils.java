@@ -15,4 +15,16 @@ class HashingUtils {
         HashCode hashCode = hashFunction.hashString(str, charset);
         return hashCode.toString();
     }
+
+    static String sha256(byte[] bytes) {
+        HashFunction hashFunction = Hashing.sha256();
+        HashCode hashCode = hashFunction.hashBytes(bytes);
+        return hashCode.toString();
+    }
+
+    static byte[] hmacSha256(byte[] key, String str, Charset charset) {
+        HashFunction hashFunction = Hashing.hmacSha256(key);
+        HashCode hashCode = hashFunction.hashString(str, charset);
+        return hashCode.asBytes();
+    }
 }
@@ -0,0 +1,146 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.lostsidewalk.buffy.app.audit.ApiKeyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Serial;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.lostsidewalk.buffy.app.auth.HashingUtils.sha256;
+import static java.lang.Math.min;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Bounded negative cache of API credentials that recently failed authentication, keyed by a digest of the key and
+ * secret together.
+ * <p>
+ * Each failure doubles the period during which further requests bearing the same credentials are rejected outright,
+ * up to a configured maximum, so that a flood of bad credentials is turned away before it reaches the database.  The
+ * API key alone is an identifier, not a secret, so failures never back off the key itself: anyone could otherwise
+ * lock its owner out by sending bad secrets.  The one exception is a key that doesn't exist at all (i.e., when the
+ * secret is null), which has no owner to lock out.
+ */
+@Slf4j
+@Component
+public class InvalidApiKeyCache implements MeterBinder {
+
+    private static final Charset CHARSET = UTF_8;
+
+    static class ApiKeyBackoffException extends ApiKeyException {
+
+        @Serial
+        private static final long serialVersionUID = 5723412347723123461L;
+
+        ApiKeyBackoffException() {
+            super("API key rejected due to recent authentication failures");
+        }
+    }
+
+    @Value("${comprss.invalidApiKeyCache.maxSize:100000}")
+    long maxSize;
+
+    @Value("${comprss.invalidApiKeyCache.initialBackoffMs:1000}")
+    long initialBackoffMs;
+
+    @Value("${comprss.invalidApiKeyCache.maxBackoffMs:60000}")
+    long maxBackoffMs;
+
+    private Cache<String, FailureRecord> cache;
+
+    private final AtomicLong rejectedByCache = new AtomicLong();
+
+    private final AtomicLong rejectedByDb = new AtomicLong();
+
+    @PostConstruct
+    void postConstruct() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxBackoffMs * 2L, MILLISECONDS) // forget the failure streak once it goes quiet
+                .recordStats()
+                .build();
+        log.info("Invalid API key cache initialized, maxSize={}, initialBackoffMs={}, maxBackoffMs={}", maxSize, initialBackoffMs, maxBackoffMs);
+    }
+
+    private static final class FailureRecord {
+
+        private final int failureCount;
+
+        private final long blockedUntil;
+
+        private FailureRecord(int failureCount, long blockedUntil) {
+            this.failureCount = failureCount;
+            this.blockedUntil = blockedUntil;
+        }
+    }
+
+    /**
+     * @param apiSecret the API secret presented with the key, or null to check a key that was not found
+     */
+    final void checkBackoff(String apiKey, String apiSecret) throws ApiKeyBackoffException {
+        FailureRecord failureRecord = cache.getIfPresent(cacheKey(apiKey, apiSecret));
+        if (failureRecord != null && failureRecord.blockedUntil > currentTimeMillis()) {
+            rejectedByCache.incrementAndGet();
+            throw new ApiKeyBackoffException();
+        }
+    }
+
+    /**
+     * @param apiSecret the API secret that failed with the key, or null if the key itself was not found
+     */
+    final void recordFailure(String apiKey, String apiSecret) {
+        rejectedByDb.incrementAndGet();
+        cache.asMap().compute(cacheKey(apiKey, apiSecret), (k, prev) -> {
+            int failureCount = prev == null ? 1 : prev.failureCount + 1;
+            // initialBackoffMs * 2^(failureCount - 1), capped at maxBackoffMs
+            long backoffMs = min(maxBackoffMs, initialBackoffMs << min(failureCount - 1, 30));
+            return new FailureRecord(failureCount, currentTimeMillis() + backoffMs);
+        });
+    }
+
+    final void recordSuccess(String apiKey, String apiSecret) {
+        cache.invalidate(cacheKey(apiKey, apiSecret));
+    }
+
+    public final void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String cacheKey(String apiKey, String apiSecret) {
+        return sha256(apiSecret == null ? apiKey : apiKey + ':' + apiSecret, CHARSET);
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, "invalidApiKeyCache");
+        FunctionCounter.builder("comprss.auth.apiKey.rejected", rejectedByCache, AtomicLong::get)
+                .tag("source", "cache")
+                .description("API key auth attempts rejected by the negative cache, without a database lookup")
+                .register(registry);
+        FunctionCounter.builder("comprss.auth.apiKey.rejected", rejectedByDb, AtomicLong::get)
+                .tag("source", "db")
+                .description("API key auth attempts rejected after a database lookup")
+                .register(registry);
+    }
+
+    @Override
+    public final String toString() {
+        return "InvalidApiKeyCache{" +
+                "maxSize=" + maxSize +
+                ", initialBackoffMs=" + initialBackoffMs +
+                ", maxBackoffMs=" + maxBackoffMs +
+                '}';
+    }
+}
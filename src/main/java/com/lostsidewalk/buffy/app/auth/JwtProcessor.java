@@ -26,23 +26,18 @@ class JwtProcessor {
     LocalUserService userService;
 
     final void processJwt(JwtUtil jwtUtil, String username, String userValidationClaim, String jwt) throws TokenValidationException {
+        WebAuthenticationToken authToken = verifyJwt(jwtUtil, username, userValidationClaim, jwt);
+        establishSession(authToken);
+    }
+
+    final WebAuthenticationToken verifyJwt(JwtUtil jwtUtil, String username, String userValidationClaim, String jwt) throws TokenValidationException {
         String validationClaimHash = jwtUtil.extractValidationClaim();
         if (isNotBlank(validationClaimHash)) {
             Charset charset = defaultCharset();
             String userValidationClaimHash = sha256(userValidationClaim, charset);
             if (equalsIgnoreCase(userValidationClaimHash, validationClaimHash)) {
-                UserDetails userDetails = userService.loadUserByUsername(username);
-                Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
-                WebAuthenticationToken authToken = new WebAuthenticationToken(userDetails, jwt, authorities);
-                authToken.setDetails(userDetails);
-                //
-                // !! ACHTUNG !! POINT OF NO RETURN !!
-                //
-                SecurityContext context = getContext();
-                context.setAuthentication(authToken);
-                //
-                // !! YOU'VE DONE IT NOW !!
-                //
+                UserDetails userDetails = userService.loadPrincipal(username);
+                return newAuthToken(userDetails, jwt);
             } else {
                 throw new TokenValidationException("Token validation claim is outdated");
             }
@@ -53,6 +48,28 @@ class JwtProcessor {
         }
     }
 
+    /**
+     * Build a new authentication token for the given (verified) principal; tokens are mutable (e.g., eraseCredentials),
+     * so each request gets its own.
+     */
+    static WebAuthenticationToken newAuthToken(UserDetails userDetails, String jwt) {
+        Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
+        WebAuthenticationToken authToken = new WebAuthenticationToken(userDetails, jwt, authorities, TrafficClass.APP);
+        authToken.setDetails(userDetails);
+        return authToken;
+    }
+
+    static void establishSession(WebAuthenticationToken authToken) {
+        //
+        // !! ACHTUNG !! POINT OF NO RETURN !!
+        //
+        SecurityContext context = getContext();
+        context.setAuthentication(authToken);
+        //
+        // !! YOU'VE DONE IT NOW !!
+        //
+    }
+
     @Override
     public final String toString() {
         return "JwtProcessor{" +
@@ -0,0 +1,111 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+
+/**
+ * A node-local view of a user's distributed bucket.
+ * <p>
+ * Tokens are leased from the distributed bucket in batches and handed out locally with a CAS on an AtomicLong, so
+ * only one request in every leaseSize needs a round trip to Redis.  Leased tokens have already been consumed from the
+ * distributed bucket, so the cluster-wide limit can never be exceeded; whatever is still held when the lease is
+ * released is given back.
+ * <p>
+ * The state of the distributed bucket observed at the most recent lease is kept, so that callers can report an
+ * approximate remaining balance and reset time without a round trip.
+ */
+class LeasedBucket {
+
+    private final Bucket remote;
+
+    private final long leaseSize;
+
+    private final AtomicLong available = new AtomicLong();
+
+    private volatile long remoteRemaining;
+
+    private volatile long remoteResetAtNanos;
+
+    private volatile long remoteRetryAtNanos;
+
+    LeasedBucket(Bucket remote, long leaseSize) {
+        this.remote = remote;
+        this.leaseSize = leaseSize;
+    }
+
+    /**
+     * Consume from tokens already leased to this node, without touching the distributed bucket.
+     *
+     * @return true if enough leased tokens were available
+     */
+    final boolean tryConsumeLocally(long tokens) {
+        long current = available.get();
+        while (current >= tokens) {
+            if (available.compareAndSet(current, current - tokens)) {
+                return true;
+            }
+            current = available.get();
+        }
+        return false;
+    }
+
+    /**
+     * Lease a new batch from the distributed bucket and consume from it.
+     *
+     * @return true if the lease covered the requested tokens
+     */
+    final boolean lease(long tokens) {
+        long wanted = max(tokens, leaseSize);
+        ConsumptionProbe probe = remote.tryConsumeAndReturnRemaining(wanted);
+        long now = nanoTime();
+        long granted = probe.isConsumed() ? wanted : remote.tryConsumeAsMuchAsPossible(wanted);
+        remoteRemaining = probe.isConsumed() ? probe.getRemainingTokens() : 0L;
+        remoteResetAtNanos = now + probe.getNanosToWaitForReset();
+        remoteRetryAtNanos = now + probe.getNanosToWaitForRefill();
+        if (granted >= tokens) {
+            available.addAndGet(granted - tokens);
+            return true;
+        }
+        // hold on to a partial grant; it has already been taken from the distributed bucket
+        available.addAndGet(granted);
+        return false;
+    }
+
+    /**
+     * @return the tokens held by this node plus the distributed balance observed at the last lease
+     */
+    final long getRemaining() {
+        return available.get() + remoteRemaining;
+    }
+
+    final long getNanosToReset() {
+        return max(0L, remoteResetAtNanos - nanoTime());
+    }
+
+    final long getNanosToRetry() {
+        return max(0L, remoteRetryAtNanos - nanoTime());
+    }
+
+    /**
+     * Return any unused leased tokens to the distributed bucket.
+     */
+    final void release() {
+        long unused = available.getAndSet(0L);
+        if (unused > 0L) {
+            remote.addTokens(unused);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "LeasedBucket{" +
+                "leaseSize=" + leaseSize +
+                ", available=" + available +
+                '}';
+    }
+}
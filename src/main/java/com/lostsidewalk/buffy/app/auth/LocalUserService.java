@@ -1,7 +1,6 @@
 package com.lostsidewalk.buffy.app.auth;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.DataConflictException;
 import com.lostsidewalk.buffy.DataUpdateException;
@@ -14,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,57 +21,75 @@ import org.springframework.stereotype.Service;
 
 import java.io.Serial;
 import java.util.*;
-import java.util.stream.Collector;
 
-import static com.google.common.collect.Sets.union;
 import static com.lostsidewalk.buffy.app.auth.UserRoles.*;
 import static java.lang.String.join;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
-import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 @Service
 @Slf4j
-public class LocalUserService implements UserDetailsService {
+public class LocalUserService implements UserDetailsService, UserDetailsPasswordService {
+
+    // all users get the 'unverified' role; verified users get the 'verified' role; all users get the 'development'
+    // role when that property is enabled
+    private static final ImmutableSet<SimpleGrantedAuthority> UNVERIFIED_AUTHORITIES = ImmutableSet.of(UNVERIFIED_AUTHORITY);
+
+    private static final ImmutableSet<SimpleGrantedAuthority> VERIFIED_AUTHORITIES = ImmutableSet.of(UNVERIFIED_AUTHORITY, VERIFIED_AUTHORITY);
+
+    private static final ImmutableSet<SimpleGrantedAuthority> DEV_UNVERIFIED_AUTHORITIES = ImmutableSet.of(UNVERIFIED_AUTHORITY, DEV_AUTHORITY);
+
+    private static final ImmutableSet<SimpleGrantedAuthority> DEV_VERIFIED_AUTHORITIES = ImmutableSet.of(UNVERIFIED_AUTHORITY, VERIFIED_AUTHORITY, DEV_AUTHORITY);
 
     @Autowired
     UserDao userDao;
 
     @Autowired
-    RoleDao roleDao;
+    AuthSnapshotDao authSnapshotDao;
 
     @Autowired
-    FeatureDao featureDao;
+    RoleAuthorityCache roleAuthorityCache;
 
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    ApiPrincipalCache apiPrincipalCache;
+
+    @Autowired
+    ApiSigningKeyRing apiSigningKeyRing;
+
+    @Autowired
+    VerifiedTokenCache verifiedTokenCache;
+
     @Value("${comprss.development:false}")
     boolean isDevelopment;
 
     //
     // user loading
     //
+
+    /**
+     * Load the user for password authentication (i.e., via DaoAuthenticationProvider on /authenticate).  This is the
+     * only path that materializes the user's password.
+     */
     @Override
     public final UserDetails loadUserByUsername(String username) {
         if ("NONE_PROVIDED".equals(username)) {
             throw new UsernameNotFoundException(username);
         }
 
-        User user;
+        AuthSnapshot authSnapshot;
         try {
-            user = userDao.findByName(username);
-            if (user == null) {
+            authSnapshot = authSnapshotDao.findByUsername(username);
+            if (authSnapshot == null) {
                 throw new UsernameNotFoundException(username);
             }
-            Set<SimpleGrantedAuthority> grantedAuthorities = gatherGrantedAuthorities(user);
-            Set<SimpleGrantedAuthority> implicitAuthorities = gatherImplicitAuthorities(user);
-            Sets.SetView<SimpleGrantedAuthority> union = union(grantedAuthorities, implicitAuthorities);
-            ImmutableSet<SimpleGrantedAuthority> copy = union.immutableCopy();
-            return toUserDetails(user, copy, passwordEncoder);
+            ImmutableSet<SimpleGrantedAuthority> authorities = gatherAuthorities(authSnapshot);
+            String password = authSnapshot.getPassword();
+            return toUserDetails(username, password, authorities);
         } catch (DataAccessException e) {
             log.error("Unable to load user due to data access exception");
             ErrorLogService.logDataAccessException(username, new Date(), e);
@@ -79,42 +97,67 @@ public class LocalUserService implements UserDetailsService {
         }
     }
 
-    //
-    // role/feature assignation
-    //
-    private Set<SimpleGrantedAuthority> gatherGrantedAuthorities(User user) throws DataAccessException {
-        Collection<String> grantedFeatures = new HashSet<>(5);
-        String username = user.getUsername();
-        List<Role> roles = roleDao.findByUsername(username);
-        if (isNotEmpty(roles)) {
-            for (Role r : roles) {
-                String name = r.getName();
-                List<String> byRolename = featureDao.findByRolename(name);
-                grantedFeatures.addAll(byRolename);
-            }
+    /**
+     * Load the user for an already-authenticated request (i.e., by JWT).  The result does not carry a password.
+     */
+    public final UserDetails loadPrincipal(String username) {
+        if ("NONE_PROVIDED".equals(username)) {
+            throw new UsernameNotFoundException(username);
         }
 
-        Collector<SimpleGrantedAuthority, ?, Set<SimpleGrantedAuthority>> simpleGrantedAuthoritySetCollector = toSet();
-        return grantedFeatures.stream().map(SimpleGrantedAuthority::new).collect(simpleGrantedAuthoritySetCollector);
+        AuthSnapshot authSnapshot;
+        try {
+            authSnapshot = authSnapshotDao.findByUsername(username);
+            if (authSnapshot == null) {
+                throw new UsernameNotFoundException(username);
+            }
+            ImmutableSet<SimpleGrantedAuthority> authorities = gatherAuthorities(authSnapshot);
+            return AuthPrincipal.from(username, authorities);
+        } catch (DataAccessException e) {
+            log.error("Unable to load user due to data access exception");
+            ErrorLogService.logDataAccessException(username, new Date(), e);
+            return null;
+        }
     }
 
-    private Set<SimpleGrantedAuthority> gatherImplicitAuthorities(User user) {
-        Set<SimpleGrantedAuthority> implicitFeatures = new HashSet<>(5);
-
-        // all users get the 'unverified' role
-        implicitFeatures.add(UNVERIFIED_AUTHORITY);
-
-        // verified users get the 'verified' role
-        if (user.isVerified()) {
-            implicitFeatures.add(VERIFIED_AUTHORITY);
+    /**
+     * Persist a re-encoded password for the given user; called by DaoAuthenticationProvider following a successful
+     * login whenever the stored hash was produced by an outdated encoder or cost setting.
+     */
+    @Override
+    public final UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String username = userDetails.getUsername();
+        try {
+            User user = userDao.findByName(username);
+            if (user != null) {
+                user.setPassword(newPassword);
+                userDao.updatePassword(user);
+                log.info("Upgraded password encoding for username={}", username);
+            }
+        } catch (DataAccessException e) {
+            log.error("Unable to upgrade password encoding due to data access exception");
+            ErrorLogService.logDataAccessException(username, new Date(), e);
+        } catch (DataUpdateException e) {
+            log.error("Unable to upgrade password encoding due to data update exception");
+            ErrorLogService.logDataUpdateException(username, new Date(), e);
         }
+        return toUserDetails(username, newPassword, userDetails.getAuthorities());
+    }
 
-        // all users get the 'development' role when that property is enabled
+    //
+    // role/feature assignation
+    //
+    private ImmutableSet<SimpleGrantedAuthority> gatherAuthorities(AuthSnapshot authSnapshot) throws DataAccessException {
+        Set<String> roleNames = authSnapshot.getRoleNames();
+        Set<SimpleGrantedAuthority> implicitAuthorities = gatherImplicitAuthorities(authSnapshot);
+        return roleAuthorityCache.getAuthorities(roleNames, implicitAuthorities);
+    }
+
+    private Set<SimpleGrantedAuthority> gatherImplicitAuthorities(AuthSnapshot authSnapshot) {
         if (isDevelopment) {
-            implicitFeatures.add(DEV_AUTHORITY);
+            return authSnapshot.isVerified() ? DEV_VERIFIED_AUTHORITIES : DEV_UNVERIFIED_AUTHORITIES;
         }
-
-        return implicitFeatures;
+        return authSnapshot.isVerified() ? VERIFIED_AUTHORITIES : UNVERIFIED_AUTHORITIES;
     }
 
     //
@@ -136,7 +179,8 @@ public class LocalUserService implements UserDetailsService {
         boolean isValid = results.isEmpty();
 
         if (isValid) {
-            User newUser = new User(username, password, email);
+            String encodedPassword = passwordEncoder.encode(password);
+            User newUser = new User(username, encodedPassword, email);
             userDao.add(newUser);
             log.info("Registered user, username={}, email={}", username, email);
         } else {
@@ -183,6 +227,9 @@ public class LocalUserService implements UserDetailsService {
 
     public final void deregisterUser(String username) throws DataAccessException, DataUpdateException {
         userDao.deleteByName(username);
+        apiPrincipalCache.invalidateUser(username);
+        apiSigningKeyRing.invalidateUser(username);
+        verifiedTokenCache.invalidateUser(username);
     }
 
     //
@@ -190,12 +237,16 @@ public class LocalUserService implements UserDetailsService {
     //
     public final void markAsVerified(String username) throws DataAccessException, DataUpdateException {
         userDao.setVerified(username, true);
+        // cached principals carry the pre-verification authorities
+        apiPrincipalCache.invalidateUser(username);
+        apiSigningKeyRing.invalidateUser(username);
+        verifiedTokenCache.invalidateUser(username);
     }
 
     //
     // utility methods
     //
-    private static UserDetails toUserDetails(User user, Collection<SimpleGrantedAuthority> grantedAuthorities, PasswordEncoder passwordEncoder) {
+    private static UserDetails toUserDetails(String username, String password, Collection<? extends GrantedAuthority> grantedAuthorities) {
         return new UserDetails() {
             @Serial
             private static final long serialVersionUID = 23462423412357723L;
@@ -207,13 +258,12 @@ public class LocalUserService implements UserDetailsService {
 
             @Override
             public String getPassword() {
-                String password = user.getPassword();
-                return passwordEncoder.encode(password);
+                return password;
             }
 
             @Override
             public String getUsername() {
-                return user.getUsername();
+                return username;
             }
 
             @Override
@@ -242,9 +292,12 @@ public class LocalUserService implements UserDetailsService {
     public final String toString() {
         return "LocalUserService{" +
                 "userDao=" + userDao +
-                ", roleDao=" + roleDao +
-                ", featureDao=" + featureDao +
+                ", authSnapshotDao=" + authSnapshotDao +
+                ", roleAuthorityCache=" + roleAuthorityCache +
                 ", passwordEncoder=" + passwordEncoder +
+                ", apiPrincipalCache=" + apiPrincipalCache +
+                ", apiSigningKeyRing=" + apiSigningKeyRing +
+                ", verifiedTokenCache=" + verifiedTokenCache +
                 ", isDevelopment=" + isDevelopment +
                 '}';
     }
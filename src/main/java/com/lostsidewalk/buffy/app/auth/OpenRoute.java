@@ -0,0 +1,84 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Registry of routes that are open to unauthenticated callers.
+ * <p>
+ * This is the single source of truth for both the security filter chain (which permits every route listed here) and
+ * AuthTokenFilter (which skips token processing entirely for routes marked as bypassing the auth filter).  Routes
+ * that don't bypass the filter are still permitted, but will pick up an authentication if the caller supplies one.
+ */
+public enum OpenRoute {
+
+    INDEX("/", AuthFilterBypass.NONE, "/"),
+    AUTHENTICATE("/authenticate", AuthFilterBypass.EXACT, "/authenticate"), // user authentication (login)
+    DEAUTHENTICATE("/deauthenticate", AuthFilterBypass.NONE, "/deauthenticate"), // user de-authentication (logout)
+    PW_RESET("/pw_reset", AuthFilterBypass.SUBTREE, "/pw_reset", "/pw_reset/**"), // password reset (init), password reset w/token (get-back)
+    REGISTER("/register", AuthFilterBypass.SUBTREE, "/register"), // user registration (init)
+    VERIFY("/verify", AuthFilterBypass.SUBTREE, "/verify/**"), // verification (i.e., user registration get-back)
+    STRIPE("/stripe", AuthFilterBypass.SUBTREE, "/stripe"), // stripe callback (payment)
+    ACTUATOR("/actuator", AuthFilterBypass.NONE, "/actuator", "/actuator/**"),
+    PROXY_UNSECURED("/proxy/unsecured", AuthFilterBypass.SUBTREE, "/proxy/unsecured/**"), // image proxy calls
+    API_DOCS("/v3/api-docs", AuthFilterBypass.EXACT, "/v3/api-docs", "/v3/api-docs/**"), // API docs V3
+    ;
+
+    /**
+     * How AuthTokenFilter treats a route: not bypassed, bypassed for the path itself only, or bypassed for the path and
+     * anything beneath it on a '/' boundary.
+     */
+    enum AuthFilterBypass {
+        NONE,
+        EXACT,
+        SUBTREE,
+    }
+
+    private final String path;
+
+    private final AuthFilterBypass authFilterBypass;
+
+    private final String[] permitAllPatterns;
+
+    OpenRoute(String path, AuthFilterBypass authFilterBypass, String... permitAllPatterns) {
+        this.path = path;
+        this.authFilterBypass = authFilterBypass;
+        this.permitAllPatterns = permitAllPatterns;
+    }
+
+    private static final RouteMatcher AUTH_FILTER_BYPASS_MATCHER = compileAuthFilterBypassMatcher();
+
+    private static RouteMatcher compileAuthFilterBypassMatcher() {
+        List<String> exactPaths = new ArrayList<>();
+        List<String> subtreePaths = new ArrayList<>();
+        for (OpenRoute r : values()) {
+            if (r.authFilterBypass == AuthFilterBypass.EXACT) {
+                exactPaths.add(r.path);
+            } else if (r.authFilterBypass == AuthFilterBypass.SUBTREE) {
+                subtreePaths.add(r.path);
+            }
+        }
+        return RouteMatcher.compile(exactPaths, subtreePaths);
+    }
+
+    /**
+     * @param servletPath the servlet path of the incoming request
+     * @return true if AuthTokenFilter should not attempt to authenticate the request
+     */
+    public static boolean isAuthFilterBypassed(String servletPath) {
+        return AUTH_FILTER_BYPASS_MATCHER.matches(servletPath);
+    }
+
+    /**
+     * @return request matcher patterns for every open route, suitable for the security filter chain
+     */
+    public static String[] permitAllPatterns() {
+        List<String> patterns = new ArrayList<>();
+        for (OpenRoute r : values()) {
+            patterns.addAll(asList(r.permitAllPatterns));
+        }
+        return patterns.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,99 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limit consumption metrics, tagged by traffic class (lane), weighted route, and access type, and optionally by
+ * user.
+ * <p>
+ * Per-user counters are disabled by default since their cardinality grows with the user base.
+ */
+@Slf4j
+@Component
+public class RateLimitMetrics implements MeterBinder {
+
+    @Value("${comprss.rateLimiter.metrics.perUser:false}")
+    boolean perUser;
+
+    private volatile MeterRegistry registry;
+
+    private final Map<TrafficClass, Map<String, RouteMeters>> routeMeters = newRouteMetersMap();
+
+    private static Map<TrafficClass, Map<String, RouteMeters>> newRouteMetersMap() {
+        Map<TrafficClass, Map<String, RouteMeters>> m = new EnumMap<>(TrafficClass.class);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            m.put(trafficClass, new ConcurrentHashMap<>());
+        }
+        return m;
+    }
+
+    private static final class RouteMeters {
+
+        final Counter admitted;
+
+        final Counter rejected;
+
+        final Counter tokens;
+
+        RouteMeters(MeterRegistry registry, TrafficClass trafficClass, RouteCost routeCost) {
+            String access = routeCost.accessType.name().toLowerCase(Locale.ROOT);
+            this.admitted = Counter.builder("comprss.rateLimiter.requests")
+                    .tags("lane", trafficClass.tag, "route", routeCost.route, "access", access, "outcome", "admitted")
+                    .register(registry);
+            this.rejected = Counter.builder("comprss.rateLimiter.requests")
+                    .tags("lane", trafficClass.tag, "route", routeCost.route, "access", access, "outcome", "rejected")
+                    .register(registry);
+            this.tokens = Counter.builder("comprss.rateLimiter.tokens")
+                    .description("Rate limit tokens consumed by admitted requests")
+                    .tags("lane", trafficClass.tag, "route", routeCost.route, "access", access)
+                    .register(registry);
+        }
+    }
+
+    final void record(TrafficClass trafficClass, String subject, RouteCost routeCost, RateLimitResult result) {
+        MeterRegistry r = registry;
+        if (r == null) {
+            return;
+        }
+        Map<String, RouteMeters> laneMeters = routeMeters.get(trafficClass);
+        RouteMeters meters = laneMeters.get(routeCost.route);
+        if (meters == null) {
+            meters = laneMeters.computeIfAbsent(routeCost.route, k -> new RouteMeters(r, trafficClass, routeCost));
+        }
+        if (result.consumed) {
+            meters.admitted.increment();
+            meters.tokens.increment(routeCost.tokens);
+            if (perUser && trafficClass != TrafficClass.ANONYMOUS) {
+                Counter.builder("comprss.rateLimiter.user.tokens")
+                        .tags("lane", trafficClass.tag, "username", subject)
+                        .register(r)
+                        .increment(routeCost.tokens);
+            }
+        } else {
+            meters.rejected.increment();
+        }
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public final String toString() {
+        return "RateLimitMetrics{" +
+                "perUser=" + perUser +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * The outcome of a rate limit check, along with what is known about the state of the bucket it was made against.
+ * <p>
+ * Results produced without consulting any bucket (i.e., by the ADMIT or REJECT fallback policies, or while rate
+ * limiting is disabled) are unmetered and carry no bucket state.
+ */
+final class RateLimitResult {
+
+    static final RateLimitResult ADMITTED = new RateLimitResult(true, -1L, -1L, 0L, 0L);
+
+    static final RateLimitResult REJECTED = new RateLimitResult(false, -1L, -1L, 0L, 0L);
+
+    final boolean consumed;
+
+    final long limit;
+
+    final long remaining;
+
+    final long nanosToReset;
+
+    final long nanosToRetry;
+
+    private RateLimitResult(boolean consumed, long limit, long remaining, long nanosToReset, long nanosToRetry) {
+        this.consumed = consumed;
+        this.limit = limit;
+        this.remaining = remaining;
+        this.nanosToReset = nanosToReset;
+        this.nanosToRetry = nanosToRetry;
+    }
+
+    static RateLimitResult from(boolean consumed, long limit, long remaining, long nanosToReset, long nanosToRetry) {
+        return new RateLimitResult(consumed, limit, remaining, nanosToReset, nanosToRetry);
+    }
+
+    static RateLimitResult from(ConsumptionProbe probe, long limit) {
+        return new RateLimitResult(probe.isConsumed(), limit, probe.getRemainingTokens(), probe.getNanosToWaitForReset(), probe.getNanosToWaitForRefill());
+    }
+
+    boolean isMetered() {
+        return limit >= 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitResult{" +
+                "consumed=" + consumed +
+                ", limit=" + limit +
+                ", remaining=" + remaining +
+                ", nanosToReset=" + nanosToReset +
+                ", nanosToRetry=" + nanosToRetry +
+                '}';
+    }
+}
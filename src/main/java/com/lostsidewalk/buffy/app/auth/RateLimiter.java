@@ -1,51 +1,427 @@
 package com.lostsidewalk.buffy.app.auth;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalListeners;
+import com.lostsidewalk.buffy.app.auth.RouteCost.AccessType;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
-import io.github.bucket4j.redis.jedis.cas.JedisBasedProxyManager;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
+import static java.lang.Math.min;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
+/**
+ * Rate limiting backed by distributed (Redis) buckets.
+ * <p>
+ * Each TrafficClass is a separate lane, with its own read and write limits and its own family of buckets, so that
+ * (for example) a bursty API integration cannot lock its owner out of the web application.  Within a lane, each
+ * subject (the username, or the remote address for anonymous traffic) has separate read and write buckets, and each
+ * request is charged the number of tokens given by its RouteCost.  Limits are configured per lane and access type as
+ * "capacity/periodSeconds"; a blank limit leaves that traffic unlimited.
+ * <p>
+ * In STRICT mode every request consumes directly from the distributed bucket.  In LEASED mode each node consumes from
+ * a LeasedBucket that borrows tokens from the distributed bucket in batches of leaseSize.
+ * <p>
+ * Bucket proxies (and leases) are kept in a bounded cache per lane, keyed by subject, and share one immutable
+ * configuration per lane and access type, so that a cache hit costs nothing beyond the consume call itself.  Subjects
+ * that go idle are evicted, and any leased tokens they still hold are returned asynchronously.
+ * <p>
+ * Calls to the distributed bucket run on a bounded executor, and the caller waits no longer than latencyBudgetMs for
+ * the result.  If the budget is exceeded, the executor is saturated, or the call fails, the request is handled by the
+ * configured FallbackPolicy instead.  A call that overruns the budget is still allowed to complete; if it charges the
+ * distributed bucket, the charge the LOCAL policy made against the node-local bucket for the same request is refunded,
+ * so that no request is billed twice.
+ */
 @Slf4j
 @Service
-public class RateLimiter {
+public class RateLimiter implements MeterBinder {
+
+    public enum Mode {
+        STRICT,
+        LEASED,
+    }
+
+    public enum FallbackPolicy {
+        ADMIT, // fail open
+        REJECT, // fail closed
+        LOCAL, // enforce the limit against a node-local bucket
+    }
 
     @Autowired
-    public JedisBasedProxyManager buckets;
+    public ProxyManager<byte[]> buckets;
+
+    @Value("${comprss.rateLimiter.mode:STRICT}")
+    Mode mode;
+
+    @Value("${comprss.rateLimiter.api.read:10/60}")
+    String apiReadLimit;
+
+    @Value("${comprss.rateLimiter.api.write:10/60}")
+    String apiWriteLimit;
+
+    @Value("${comprss.rateLimiter.app.read:120/60}")
+    String appReadLimit;
+
+    @Value("${comprss.rateLimiter.app.write:60/60}")
+    String appWriteLimit;
+
+    @Value("${comprss.rateLimiter.singleUser.read:}")
+    String singleUserReadLimit;
+
+    @Value("${comprss.rateLimiter.singleUser.write:}")
+    String singleUserWriteLimit;
+
+    @Value("${comprss.rateLimiter.anonymous.read:}")
+    String anonymousReadLimit;
+
+    @Value("${comprss.rateLimiter.anonymous.write:}")
+    String anonymousWriteLimit;
+
+    @Value("${comprss.rateLimiter.leaseSize:5}")
+    long leaseSize;
+
+    @Value("${comprss.rateLimiter.latencyBudgetMs:50}")
+    long latencyBudgetMs;
+
+    @Value("${comprss.rateLimiter.fallback:LOCAL}")
+    FallbackPolicy fallbackPolicy;
+
+    @Value("${comprss.rateLimiter.remote.poolSize:16}")
+    int remotePoolSize;
+
+    @Value("${comprss.rateLimiter.remote.queueCapacity:256}")
+    int remoteQueueCapacity;
+
+    @Value("${comprss.rateLimiter.cache.maxSize:100000}")
+    long cacheMaxSize;
+
+    @Value("${comprss.rateLimiter.cache.idleMs:10000}")
+    long cacheIdleMs;
+
+    private final Map<TrafficClass, Lane> lanes = new EnumMap<>(TrafficClass.class);
+
+    private RemoteBucketBuilder<byte[]> bucketBuilder;
+
+    private ThreadPoolExecutor remoteExecutor;
+
+    private ExecutorService reconcileExecutor;
 
-    final Bucket resolveBucket(String username) {
-        Supplier<BucketConfiguration> configSupplier = getConfigSupplierForUser();
-        RemoteBucketBuilder<byte[]> builder = buckets.builder();
-        if (builder == null) {
+    private final AtomicLong fallbackCount = new AtomicLong();
+
+    private static final class Lane {
+
+        final String keyPrefix;
+
+        final long readCapacity;
+
+        final long writeCapacity;
+
+        final BucketConfiguration readConfiguration;
+
+        final BucketConfiguration writeConfiguration;
+
+        final Cache<String, SubjectBuckets> cache;
+
+        Lane(String keyPrefix, long[] readLimit, long[] writeLimit, Cache<String, SubjectBuckets> cache) {
+            this.keyPrefix = keyPrefix;
+            this.readCapacity = readLimit == null ? 0L : readLimit[0];
+            this.writeCapacity = writeLimit == null ? 0L : writeLimit[0];
+            this.readConfiguration = readLimit == null ? null : buildConfiguration(readLimit[0], readLimit[1]);
+            this.writeConfiguration = writeLimit == null ? null : buildConfiguration(writeLimit[0], writeLimit[1]);
+            this.cache = cache;
+        }
+    }
+
+    private static final class AccessBuckets {
+
+        final long capacity;
+
+        final Bucket bucket;
+
+        final LeasedBucket leasedBucket;
+
+        final Bucket localBucket;
+
+        AccessBuckets(long capacity, Bucket bucket, LeasedBucket leasedBucket, Bucket localBucket) {
+            this.capacity = capacity;
+            this.bucket = bucket;
+            this.leasedBucket = leasedBucket;
+            this.localBucket = localBucket;
+        }
+    }
+
+    private static final class SubjectBuckets {
+
+        final AccessBuckets read;
+
+        final AccessBuckets write;
+
+        SubjectBuckets(AccessBuckets read, AccessBuckets write) {
+            this.read = read;
+            this.write = write;
+        }
+
+        void release() {
+            if (read != null && read.leasedBucket != null) {
+                read.leasedBucket.release();
+            }
+            if (write != null && write.leasedBucket != null) {
+                write.leasedBucket.release();
+            }
+        }
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        bucketBuilder = buckets.builder();
+        if (bucketBuilder == null) {
+            log.error("Proxy manager did not supply a bucket builder, rate limiting is disabled");
+        }
+        remoteExecutor = new ThreadPoolExecutor(remotePoolSize, remotePoolSize, 0L, MILLISECONDS,
+                new ArrayBlockingQueue<>(remoteQueueCapacity),
+                new CustomizableThreadFactory("rate-limit-remote-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        reconcileExecutor = newSingleThreadExecutor(new CustomizableThreadFactory("rate-limit-reconcile-"));
+        addLane(TrafficClass.API, apiReadLimit, apiWriteLimit);
+        addLane(TrafficClass.APP, appReadLimit, appWriteLimit);
+        addLane(TrafficClass.SINGLE_USER, singleUserReadLimit, singleUserWriteLimit);
+        addLane(TrafficClass.ANONYMOUS, anonymousReadLimit, anonymousWriteLimit);
+        log.info("Rate limiter initialized, mode={}, leaseSize={}, latencyBudgetMs={}, fallbackPolicy={}, cacheMaxSize={}, cacheIdleMs={}",
+                mode, leaseSize, latencyBudgetMs, fallbackPolicy, cacheMaxSize, cacheIdleMs);
+    }
+
+    private void addLane(TrafficClass trafficClass, String readLimitSpec, String writeLimitSpec) {
+        long[] readLimit = parseLimit(readLimitSpec);
+        long[] writeLimit = parseLimit(writeLimitSpec);
+        RemovalListener<String, SubjectBuckets> releaseLeases = notification -> notification.getValue().release();
+        Cache<String, SubjectBuckets> cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterAccess(cacheIdleMs, MILLISECONDS)
+                .removalListener(RemovalListeners.asynchronous(releaseLeases, reconcileExecutor))
+                .recordStats()
+                .build();
+        lanes.put(trafficClass, new Lane(trafficClass.tag + ':', readLimit, writeLimit, cache));
+        log.info("Rate limit lane configured, trafficClass={}, readLimit={}, writeLimit={}", trafficClass,
+                readLimit == null ? "unlimited" : readLimitSpec, writeLimit == null ? "unlimited" : writeLimitSpec);
+    }
+
+    /**
+     * @return {capacity, periodSeconds}, or null if the spec is blank (i.e., unlimited)
+     */
+    private static long[] parseLimit(String limitSpec) {
+        if (isBlank(limitSpec)) {
             return null;
-        } else {
-            byte[] bytes = username.getBytes(UTF_8);
-            return builder.build(bytes, configSupplier);
         }
+        String[] parts = limitSpec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed rate limit (expected capacity/periodSeconds): " + limitSpec);
+        }
+        return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
     }
 
-    private static Supplier<BucketConfiguration> getConfigSupplierForUser() {
-        Duration period = Duration.ofMinutes(1L);
-        Refill refill = Refill.intervally(20L, period);
-        Bandwidth limit = Bandwidth.classic(20L, refill);
-        return () -> (BucketConfiguration.builder()
+    private static BucketConfiguration buildConfiguration(long capacity, long periodSeconds) {
+        Refill refill = Refill.intervally(capacity, Duration.ofSeconds(periodSeconds));
+        Bandwidth limit = Bandwidth.classic(capacity, refill);
+        return BucketConfiguration.builder()
                 .addLimit(limit)
-                .build());
+                .build();
+    }
+
+    @PreDestroy
+    void preDestroy() {
+        // hand back outstanding leases before shutting down
+        for (Lane lane : lanes.values()) {
+            lane.cache.invalidateAll();
+        }
+        remoteExecutor.shutdown();
+        reconcileExecutor.shutdown();
+        try {
+            if (!reconcileExecutor.awaitTermination(5L, SECONDS)) {
+                log.warn("Timed out releasing rate limit leases on shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Evict idle subjects so that any leased tokens they hold are returned to the distributed buckets.
+     */
+    @Scheduled(fixedDelayString = "${comprss.rateLimiter.cache.idleMs:10000}")
+    public final void evictIdle() {
+        for (Lane lane : lanes.values()) {
+            lane.cache.cleanUp();
+        }
+    }
+
+    final RateLimitResult tryConsume(TrafficClass trafficClass, String subject, RouteCost routeCost) {
+        Lane lane = lanes.get(trafficClass);
+        boolean isRead = routeCost.accessType == AccessType.READ;
+        if (bucketBuilder == null || (isRead ? lane.readCapacity : lane.writeCapacity) == 0L) {
+            return RateLimitResult.ADMITTED;
+        }
+        SubjectBuckets subjectBuckets = resolveSubjectBuckets(lane, subject);
+        AccessBuckets accessBuckets = isRead ? subjectBuckets.read : subjectBuckets.write;
+        long capacity = accessBuckets.capacity;
+        // a request that costs more than the bucket can ever hold is charged the full bucket
+        long tokens = min(routeCost.tokens, capacity);
+        if (mode == Mode.LEASED) {
+            LeasedBucket leasedBucket = accessBuckets.leasedBucket;
+            if (leasedBucket.tryConsumeLocally(tokens)) {
+                return leasedResult(true, leasedBucket, capacity);
+            }
+            return consumeWithinBudget(() -> leasedResult(leasedBucket.lease(tokens), leasedBucket, capacity), accessBuckets, tokens);
+        }
+        Bucket bucket = accessBuckets.bucket;
+        return consumeWithinBudget(() -> RateLimitResult.from(bucket.tryConsumeAndReturnRemaining(tokens), capacity), accessBuckets, tokens);
+    }
+
+    private static RateLimitResult leasedResult(boolean consumed, LeasedBucket leasedBucket, long capacity) {
+        return RateLimitResult.from(consumed, capacity, leasedBucket.getRemaining(), leasedBucket.getNanosToReset(), leasedBucket.getNanosToRetry());
+    }
+
+    private RateLimitResult consumeWithinBudget(Supplier<RateLimitResult> remoteConsume, AccessBuckets accessBuckets, long tokens) {
+        CompletableFuture<RateLimitResult> future;
+        try {
+            future = supplyAsync(remoteConsume, remoteExecutor);
+        } catch (RejectedExecutionException e) {
+            log.debug("Rate limit executor is saturated, queueDepth={}", remoteExecutor.getQueue().size());
+            return fallback(accessBuckets, tokens);
+        }
+        try {
+            return future.get(latencyBudgetMs, MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Rate limit check exceeded latency budget of {}ms", latencyBudgetMs);
+            return fallbackWhileInFlight(future, accessBuckets, tokens);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallbackWhileInFlight(future, accessBuckets, tokens);
+        } catch (ExecutionException e) {
+            log.warn("Rate limit check failed due to: {}", e.getCause().getMessage());
+            return fallback(accessBuckets, tokens);
+        }
+    }
+
+    private RateLimitResult fallbackWhileInFlight(CompletableFuture<RateLimitResult> future, AccessBuckets accessBuckets, long tokens) {
+        RateLimitResult result = fallback(accessBuckets, tokens);
+        if (fallbackPolicy == FallbackPolicy.LOCAL && result.consumed) {
+            // the remote call is left to complete on its own (interrupting a socket read would only poison the
+            // connection); if it charges the distributed bucket after all, the local charge is handed back
+            future.thenAccept(remoteResult -> {
+                if (remoteResult.consumed) {
+                    accessBuckets.localBucket.addTokens(tokens);
+                }
+            });
+        }
+        return result;
+    }
+
+    private RateLimitResult fallback(AccessBuckets accessBuckets, long tokens) {
+        fallbackCount.incrementAndGet();
+        return switch (fallbackPolicy) {
+            case ADMIT -> RateLimitResult.ADMITTED;
+            case REJECT -> RateLimitResult.REJECTED;
+            case LOCAL -> RateLimitResult.from(accessBuckets.localBucket.tryConsumeAndReturnRemaining(tokens), accessBuckets.capacity);
+        };
+    }
+
+    private SubjectBuckets resolveSubjectBuckets(Lane lane, String subject) {
+        SubjectBuckets subjectBuckets = lane.cache.getIfPresent(subject);
+        if (subjectBuckets == null) {
+            SubjectBuckets newSubjectBuckets = new SubjectBuckets(
+                    buildAccessBuckets(lane.keyPrefix + subject + ":read", lane.readCapacity, lane.readConfiguration),
+                    buildAccessBuckets(lane.keyPrefix + subject + ":write", lane.writeCapacity, lane.writeConfiguration));
+            subjectBuckets = lane.cache.asMap().putIfAbsent(subject, newSubjectBuckets);
+            if (subjectBuckets == null) {
+                subjectBuckets = newSubjectBuckets;
+            }
+        }
+        return subjectBuckets;
+    }
+
+    private AccessBuckets buildAccessBuckets(String bucketKey, long capacity, BucketConfiguration configuration) {
+        if (configuration == null) {
+            return null;
+        }
+        Bucket bucket = bucketBuilder.build(bucketKey.getBytes(UTF_8), configuration);
+        return new AccessBuckets(capacity, bucket,
+                mode == Mode.LEASED ? new LeasedBucket(bucket, leaseSize) : null,
+                fallbackPolicy == FallbackPolicy.LOCAL ? buildLocalBucket(configuration) : null);
+    }
+
+    private static Bucket buildLocalBucket(BucketConfiguration configuration) {
+        LocalBucketBuilder localBucketBuilder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            localBucketBuilder.addLimit(bandwidth);
+        }
+        return localBucketBuilder.build();
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        for (Map.Entry<TrafficClass, Lane> e : lanes.entrySet()) {
+            GuavaCacheMetrics.monitor(registry, e.getValue().cache, "rateLimiterBuckets", "lane", e.getKey().tag);
+        }
+        new ExecutorServiceMetrics(remoteExecutor, "rateLimiterRemote", emptyList()).bindTo(registry);
+        FunctionCounter.builder("comprss.rateLimiter.fallback", fallbackCount, AtomicLong::get)
+                .description("Rate limit checks handled by the fallback policy because the distributed bucket was slow or unavailable")
+                .tag("policy", fallbackPolicy.name())
+                .register(registry);
     }
 
     @Override
     public final String toString() {
         return "RateLimiter{" +
                 "buckets=" + buckets +
+                ", mode=" + mode +
+                ", apiReadLimit='" + apiReadLimit + '\'' +
+                ", apiWriteLimit='" + apiWriteLimit + '\'' +
+                ", appReadLimit='" + appReadLimit + '\'' +
+                ", appWriteLimit='" + appWriteLimit + '\'' +
+                ", singleUserReadLimit='" + singleUserReadLimit + '\'' +
+                ", singleUserWriteLimit='" + singleUserWriteLimit + '\'' +
+                ", anonymousReadLimit='" + anonymousReadLimit + '\'' +
+                ", anonymousWriteLimit='" + anonymousWriteLimit + '\'' +
+                ", leaseSize=" + leaseSize +
+                ", latencyBudgetMs=" + latencyBudgetMs +
+                ", fallbackPolicy=" + fallbackPolicy +
+                ", remotePoolSize=" + remotePoolSize +
+                ", remoteQueueCapacity=" + remoteQueueCapacity +
+                ", cacheMaxSize=" + cacheMaxSize +
+                ", cacheIdleMs=" + cacheIdleMs +
                 '}';
     }
 }
@@ -1,6 +1,5 @@
 package com.lostsidewalk.buffy.app.auth;
 
-import io.github.bucket4j.Bucket;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,35 +9,63 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.List;
 
-import static jakarta.servlet.http.HttpServletResponse.SC_CONFLICT;
+import static java.lang.Math.max;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 @Slf4j
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
 
+    private static final String RATE_LIMIT_LIMIT_HEADER_NAME = "RateLimit-Limit";
+
+    private static final String RATE_LIMIT_REMAINING_HEADER_NAME = "RateLimit-Remaining";
+
+    private static final String RATE_LIMIT_RESET_HEADER_NAME = "RateLimit-Reset";
+
+    /**
+     * Response headers that must be exposed to cross-origin callers for them to pace themselves.
+     */
+    public static final List<String> RATE_LIMIT_RESPONSE_HEADER_NAMES = List.of(
+            RATE_LIMIT_LIMIT_HEADER_NAME, RATE_LIMIT_REMAINING_HEADER_NAME, RATE_LIMIT_RESET_HEADER_NAME, RETRY_AFTER);
+
     @Autowired
     RateLimiter rateLimiter;
 
+    @Autowired
+    RouteCostResolver routeCostResolver;
+
+    @Autowired
+    RateLimitMetrics rateLimitMetrics;
+
     @Override
     protected final void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         SecurityContext context = SecurityContextHolder.getContext();
         Authentication authentication = context.getAuthentication();
-        if (authentication != null) {
-            UserDetails userDetails = (UserDetails) authentication.getDetails();
-            // TODO: clean this up to apply to only the API paths (no need to rate limit the internal-facing app server)
-            String username = userDetails.getUsername();
-            Bucket bucket = rateLimiter.resolveBucket(username);
+        TrafficClass trafficClass = TrafficClass.of(authentication);
+        // anonymous traffic is limited per remote address; everything else per user
+        String subject = trafficClass == TrafficClass.ANONYMOUS ? request.getRemoteAddr() : authentication.getName();
+        if (subject != null) {
             log.trace("Checking rate limit...");
-            if (bucket != null && !bucket.tryConsume(1L)) {
+            RouteCost routeCost = routeCostResolver.resolve(request);
+            RateLimitResult result = rateLimiter.tryConsume(trafficClass, subject, routeCost);
+            rateLimitMetrics.record(trafficClass, subject, routeCost, result);
+            if (result.isMetered()) {
+                response.setHeader(RATE_LIMIT_LIMIT_HEADER_NAME, Long.toString(result.limit));
+                response.setHeader(RATE_LIMIT_REMAINING_HEADER_NAME, Long.toString(result.remaining));
+                response.setHeader(RATE_LIMIT_RESET_HEADER_NAME, Long.toString(toSeconds(result.nanosToReset)));
+            }
+            if (!result.consumed) {
                 log.debug("Rate limit exceeded");
-                response.setStatus(SC_CONFLICT); // 409
+                response.setStatus(TOO_MANY_REQUESTS.value()); // 429
+                response.setHeader(RETRY_AFTER, Long.toString(max(1L, toSeconds(result.nanosToRetry))));
                 PrintWriter writer = response.getWriter();
                 writer.write("Rate limit exceeded");
                 writer.flush();
@@ -48,10 +75,16 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L; // round up
+    }
+
     @Override
     public final String toString() {
         return "RateLimitingFilter{" +
                 "rateLimiter=" + rateLimiter +
+                ", routeCostResolver=" + routeCostResolver +
+                ", rateLimitMetrics=" + rateLimitMetrics +
                 '}';
     }
 }
@@ -0,0 +1,190 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.auth.FeatureDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+
+/**
+ * Application-wide cache mapping role name to the immutable set of authorities granted by the features in that role.
+ * <p>
+ * Authority instances are interned, so every user holding a given feature shares the same object.  The merged
+ * authorities of each distinct combination of roles and implicit authorities are cached as well, so that users who
+ * hold the same roles share one set, and loading a user allocates none.  The caches are dropped on a fixed schedule,
+ * and may be dropped explicitly whenever role or feature assignments change.
+ */
+@Slf4j
+@Component
+public class RoleAuthorityCache implements MeterBinder {
+
+    @Autowired
+    FeatureDao featureDao;
+
+    @Value("${comprss.roleAuthorityCache.maxSize:1000}")
+    long maxSize;
+
+    private final Interner<SimpleGrantedAuthority> authorityInterner = Interners.newWeakInterner();
+
+    private Cache<String, Set<SimpleGrantedAuthority>> cache;
+
+    private Cache<MergedKey, ImmutableSet<SimpleGrantedAuthority>> mergedCache;
+
+    private static final class MergedKey {
+
+        final Set<String> roleNames;
+
+        final Set<SimpleGrantedAuthority> implicitAuthorities;
+
+        MergedKey(Set<String> roleNames, Set<SimpleGrantedAuthority> implicitAuthorities) {
+            this.roleNames = roleNames;
+            this.implicitAuthorities = implicitAuthorities;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MergedKey that)) {
+                return false;
+            }
+            return roleNames.equals(that.roleNames) && implicitAuthorities.equals(that.implicitAuthorities);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(roleNames, implicitAuthorities);
+        }
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        mergedCache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        log.info("Role authority cache initialized, maxSize={}", maxSize);
+    }
+
+    /**
+     * Resolve the authorities granted by the given role, loading the role's features on a miss.
+     *
+     * @param roleName the name of the role
+     * @return an immutable set of interned authorities
+     * @throws DataAccessException if the role's features could not be loaded
+     */
+    public final Set<SimpleGrantedAuthority> getAuthorities(String roleName) throws DataAccessException {
+        Set<SimpleGrantedAuthority> authorities = cache.getIfPresent(roleName);
+        if (authorities == null) {
+            authorities = loadAuthorities(roleName);
+            cache.put(roleName, authorities);
+        }
+        return authorities;
+    }
+
+    /**
+     * Resolve the union of the authorities granted by the given roles.  When the user holds a single role, the
+     * cached set is returned as-is.
+     *
+     * @param roleNames the names of the roles
+     * @return an immutable set of interned authorities
+     * @throws DataAccessException if the features of any role could not be loaded
+     */
+    public final Set<SimpleGrantedAuthority> getAuthorities(Collection<String> roleNames) throws DataAccessException {
+        if (roleNames.isEmpty()) {
+            return ImmutableSet.of();
+        }
+        if (roleNames.size() == 1) {
+            return getAuthorities(roleNames.iterator().next());
+        }
+        ImmutableSet.Builder<SimpleGrantedAuthority> builder = ImmutableSet.builder();
+        for (String roleName : roleNames) {
+            builder.addAll(getAuthorities(roleName));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Resolve the union of the authorities granted by the given roles and the given implicit authorities (i.e., those
+     * a user holds by virtue of their account state rather than a role), merging them on a miss.
+     *
+     * @param roleNames the names of the roles
+     * @param implicitAuthorities the implicit authorities, which should be one of a small number of constant sets
+     * @return an immutable set of interned authorities, shared with every user holding the same roles
+     * @throws DataAccessException if the features of any role could not be loaded
+     */
+    public final ImmutableSet<SimpleGrantedAuthority> getAuthorities(Set<String> roleNames, Set<SimpleGrantedAuthority> implicitAuthorities) throws DataAccessException {
+        ImmutableSet<SimpleGrantedAuthority> authorities = mergedCache.getIfPresent(new MergedKey(roleNames, implicitAuthorities));
+        if (authorities == null) {
+            authorities = ImmutableSet.<SimpleGrantedAuthority>builder()
+                    .addAll(getAuthorities(roleNames))
+                    .addAll(implicitAuthorities)
+                    .build();
+            // the key is copied, since the caller's sets may be mutable
+            mergedCache.put(new MergedKey(ImmutableSet.copyOf(roleNames), ImmutableSet.copyOf(implicitAuthorities)), authorities);
+        }
+        return authorities;
+    }
+
+    private Set<SimpleGrantedAuthority> loadAuthorities(String roleName) throws DataAccessException {
+        List<String> featureCodes = featureDao.findByRolename(roleName);
+        ImmutableSet.Builder<SimpleGrantedAuthority> builder = ImmutableSet.builder();
+        if (isNotEmpty(featureCodes)) {
+            for (String featureCode : featureCodes) {
+                builder.add(authorityInterner.intern(new SimpleGrantedAuthority(featureCode)));
+            }
+        }
+        return builder.build();
+    }
+
+    public final void invalidate(String roleName) {
+        cache.invalidate(roleName);
+        mergedCache.asMap().keySet().removeIf(k -> k.roleNames.contains(roleName));
+    }
+
+    @Scheduled(fixedDelayString = "${comprss.roleAuthorityCache.refreshIntervalMs:900000}", initialDelayString = "${comprss.roleAuthorityCache.refreshIntervalMs:900000}")
+    public final void invalidateAll() {
+        cache.invalidateAll();
+        mergedCache.invalidateAll();
+        log.trace("Role authority cache cleared");
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, "roleAuthorityCache");
+        GuavaCacheMetrics.monitor(registry, mergedCache, "mergedRoleAuthorityCache");
+    }
+
+    @Override
+    public final String toString() {
+        return "RoleAuthorityCache{" +
+                "featureDao=" + featureDao +
+                ", maxSize=" + maxSize +
+                '}';
+    }
+}
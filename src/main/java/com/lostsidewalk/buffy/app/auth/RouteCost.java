@@ -0,0 +1,44 @@
+package com.lostsidewalk.buffy.app.auth;
+
+/**
+ * The rate limit charge for a single request: which bandwidth it draws from, and how many tokens it takes.
+ */
+final class RouteCost {
+
+    enum AccessType {
+        READ,
+        WRITE,
+    }
+
+    static final RouteCost SINGLE_READ = new RouteCost(AccessType.READ, 1L, "unweighted read");
+
+    static final RouteCost SINGLE_WRITE = new RouteCost(AccessType.WRITE, 1L, "unweighted write");
+
+    final AccessType accessType;
+
+    final long tokens;
+
+    /**
+     * The weighted route this cost was resolved from, e.g., "PUT /v1/queues/{queueIdent}/status" (used as a metric tag)
+     */
+    final String route;
+
+    private RouteCost(AccessType accessType, long tokens, String route) {
+        this.accessType = accessType;
+        this.tokens = tokens;
+        this.route = route;
+    }
+
+    static RouteCost from(AccessType accessType, long tokens, String route) {
+        return new RouteCost(accessType, tokens, route);
+    }
+
+    @Override
+    public String toString() {
+        return "RouteCost{" +
+                "accessType=" + accessType +
+                ", tokens=" + tokens +
+                ", route='" + route + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,172 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.lostsidewalk.buffy.app.auth.RouteCost.AccessType;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.*;
+
+import static java.lang.Math.min;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Resolves the rate limit cost of a request from the route costs declared in configuration.
+ * <p>
+ * Each entry of comprss.rateLimiter.routeCosts has the form "METHOD /path/pattern tokens [sized]", where the path
+ * pattern is written exactly as in the handler's request mapping.  Sized routes are charged an additional token for
+ * every bytesPerToken bytes of request body, so that large batch requests cost in proportion to their size; a body is
+ * sized at no more than maxBodyBytes, and a body of unknown length (i.e., one sent chunked) is charged as though it
+ * were that large, so that leaving out the Content-Length header cannot make a request cheaper.  Every
+ * entry is matched against the registered handler mappings once, at startup; requests to any other route cost a
+ * single read or write token, depending on the request method.
+ */
+@Slf4j
+@Component
+public class RouteCostResolver {
+
+    private static final String SIZED = "sized";
+
+    @Value("${comprss.rateLimiter.routeCosts:}")
+    String[] routeCostSpecs;
+
+    @Value("${comprss.rateLimiter.bytesPerToken:16384}")
+    long bytesPerToken;
+
+    @Value("${comprss.rateLimiter.maxBodyBytes:268435456}")
+    long maxBodyBytes;
+
+    private Map<String, List<WeightedRoute>> weightedRoutesByMethod;
+
+    private List<String> routeKeys;
+
+    private static final class WeightedRoute {
+
+        final PathPattern pathPattern;
+
+        final long tokens;
+
+        final boolean sized;
+
+        final String route;
+
+        final RouteCost unsizedCost;
+
+        WeightedRoute(PathPattern pathPattern, long tokens, boolean sized, String route, AccessType accessType) {
+            this.pathPattern = pathPattern;
+            this.tokens = tokens;
+            this.sized = sized;
+            this.route = route;
+            this.unsizedCost = RouteCost.from(accessType, tokens, route);
+        }
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        List<String> keys = new ArrayList<>();
+        Map<String, List<WeightedRoute>> m = new HashMap<>();
+        for (String spec : routeCostSpecs) {
+            if (isBlank(spec)) {
+                continue;
+            }
+            String[] parts = spec.trim().split("\\s+");
+            if (parts.length < 3 || parts.length > 4 || (parts.length == 4 && !SIZED.equals(parts[3]))) {
+                throw new IllegalArgumentException("Malformed rate limit route cost: " + spec);
+            }
+            String method = parts[0];
+            String path = parts[1];
+            long tokens = Long.parseLong(parts[2]);
+            boolean sized = parts.length == 4;
+            String routeKey = method + ' ' + path;
+            keys.add(routeKey);
+            PathPattern pathPattern = PathPatternParser.defaultInstance.parse(path);
+            AccessType accessType = isReadMethod(method) ? AccessType.READ : AccessType.WRITE;
+            m.computeIfAbsent(method, k -> new ArrayList<>()).add(new WeightedRoute(pathPattern, tokens, sized, routeKey, accessType));
+        }
+        weightedRoutesByMethod = m;
+        routeKeys = keys;
+        log.info("Route cost resolver initialized, weightedRouteCt={}, bytesPerToken={}, maxBodyBytes={}", m.values().stream().mapToInt(List::size).sum(), bytesPerToken, maxBodyBytes);
+    }
+
+    @EventListener
+    void onContextRefreshed(ContextRefreshedEvent event) {
+        ApplicationContext applicationContext = event.getApplicationContext();
+        if (!applicationContext.containsBean("requestMappingHandlerMapping")) {
+            return;
+        }
+        RequestMappingHandlerMapping handlerMapping = applicationContext.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        Set<String> mappedRoutes = collectMappedRoutes(handlerMapping);
+        for (String routeKey : routeKeys) {
+            if (!mappedRoutes.contains(routeKey)) {
+                log.warn("Rate limit route cost does not match any handler mapping, route={}", routeKey);
+            }
+        }
+    }
+
+    private static Set<String> collectMappedRoutes(RequestMappingHandlerMapping handlerMapping) {
+        Set<String> mappedRoutes = new HashSet<>();
+        Map<RequestMappingInfo, HandlerMethod> handlerMethods = handlerMapping.getHandlerMethods();
+        for (RequestMappingInfo info : handlerMethods.keySet()) {
+            for (String pattern : info.getPatternValues()) {
+                for (RequestMethod requestMethod : info.getMethodsCondition().getMethods()) {
+                    mappedRoutes.add(requestMethod.name() + ' ' + pattern);
+                }
+            }
+        }
+        return mappedRoutes;
+    }
+
+    final RouteCost resolve(HttpServletRequest request) {
+        String method = request.getMethod();
+        AccessType accessType = isReadMethod(method) ? AccessType.READ : AccessType.WRITE;
+        List<WeightedRoute> weightedRoutes = weightedRoutesByMethod.get(method);
+        if (weightedRoutes != null) {
+            PathContainer path = PathContainer.parsePath(request.getRequestURI());
+            for (WeightedRoute weightedRoute : weightedRoutes) {
+                if (weightedRoute.pathPattern.matches(path)) {
+                    long bodyBytes = weightedRoute.sized ? sizeBody(request) : 0L;
+                    if (bodyBytes > 0L) {
+                        long tokens = weightedRoute.tokens + (bodyBytes + bytesPerToken - 1L) / bytesPerToken;
+                        return RouteCost.from(accessType, tokens, weightedRoute.route);
+                    }
+                    return weightedRoute.unsizedCost;
+                }
+            }
+        }
+        return accessType == AccessType.READ ? RouteCost.SINGLE_READ : RouteCost.SINGLE_WRITE;
+    }
+
+    private long sizeBody(HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0L) {
+            // without a Content-Length header, there is a body only if it is sent with a transfer coding (i.e., chunked)
+            return request.getHeader("Transfer-Encoding") == null ? 0L : maxBodyBytes;
+        }
+        return min(contentLength, maxBodyBytes);
+    }
+
+    private static boolean isReadMethod(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    @Override
+    public final String toString() {
+        return "RouteCostResolver{" +
+                "routeCostSpecs=" + Arrays.toString(routeCostSpecs) +
+                ", bytesPerToken=" + bytesPerToken +
+                ", maxBodyBytes=" + maxBodyBytes +
+                '}';
+    }
+}
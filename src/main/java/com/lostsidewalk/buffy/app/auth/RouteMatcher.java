@@ -0,0 +1,78 @@
+package com.lostsidewalk.buffy.app.auth;
+
+/**
+ * A character trie of servlet paths, compiled once at startup.
+ * <p>
+ * Each path is registered either as an exact match, or as a subtree match (the path itself, and anything beneath it
+ * on a '/' boundary).  Lookups walk the trie one character at a time, so classification is O(path length) and does
+ * not allocate.  Paths are expected to be ASCII; any other character simply fails to match.
+ */
+public final class RouteMatcher {
+
+    private static final int ALPHABET_SIZE = 128;
+
+    private static final class Node {
+
+        private final Node[] children = new Node[ALPHABET_SIZE];
+
+        private boolean exact;
+
+        private boolean subtree;
+    }
+
+    private final Node root = new Node();
+
+    private RouteMatcher() {
+    }
+
+    public static RouteMatcher compile(Iterable<String> exactPaths, Iterable<String> subtreePaths) {
+        RouteMatcher routeMatcher = new RouteMatcher();
+        for (String p : exactPaths) {
+            routeMatcher.insert(p).exact = true;
+        }
+        for (String p : subtreePaths) {
+            routeMatcher.insert(p).subtree = true;
+        }
+        return routeMatcher;
+    }
+
+    private Node insert(String path) {
+        Node node = root;
+        int len = path.length();
+        for (int i = 0; i < len; i++) {
+            char c = path.charAt(i);
+            if (c >= ALPHABET_SIZE) {
+                throw new IllegalArgumentException("Route paths must be ASCII: " + path);
+            }
+            Node child = node.children[c];
+            if (child == null) {
+                child = new Node();
+                node.children[c] = child;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        Node node = root;
+        int len = path.length();
+        for (int i = 0; i < len; i++) {
+            char c = path.charAt(i);
+            if (c == '/' && node.subtree) {
+                return true;
+            }
+            if (c >= ALPHABET_SIZE) {
+                return false;
+            }
+            node = node.children[c];
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.exact || node.subtree;
+    }
+}
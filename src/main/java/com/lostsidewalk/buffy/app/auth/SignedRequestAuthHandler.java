@@ -0,0 +1,188 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.app.audit.ApiKeyException;
+import com.lostsidewalk.buffy.app.auth.ApiSigningKeyRing.ApiSigningKey;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.SetParams;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Collection;
+
+import static com.lostsidewalk.buffy.app.auth.HashingUtils.hmacSha256;
+import static com.lostsidewalk.buffy.app.auth.HashingUtils.sha256;
+import static java.lang.Math.abs;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.lang3.StringUtils.isAnyBlank;
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+import static org.springframework.security.core.context.SecurityContextHolder.getContext;
+
+/**
+ * Authenticates API requests signed with a key derived from the API secret (see ApiSigningKeyRing).
+ * <p>
+ * The signature is the lower-case hex HMAC-SHA256 of the following lines, joined by '\n':
+ * <pre>
+ *     request method
+ *     request URI, including the query string (if any)
+ *     request timestamp (epoch seconds, as sent in the timestamp header)
+ *     lower-case hex SHA-256 of the request body
+ * </pre>
+ * Requests whose timestamp falls outside the replay window are rejected, as are repeated signatures within it.
+ * Signatures are recorded in Redis (with SET NX, expiring after twice the window), so a request replayed against
+ * another node is rejected too.  Each node also keeps a bounded record of the signatures it has seen, which turns
+ * away replays to the same node without a round trip, and stands in for Redis (with a warning) if Redis fails.
+ */
+@Slf4j
+@Component
+class SignedRequestAuthHandler {
+
+    private static final Charset CHARSET = UTF_8;
+
+    private static final String SEEN_SIGNATURE_KEY_PREFIX = "comprss:signedRequest:";
+
+    @Autowired
+    ApiSigningKeyRing apiSigningKeyRing;
+
+    @Autowired
+    InvalidApiKeyCache invalidApiKeyCache;
+
+    @Autowired
+    JedisPool jedisPool;
+
+    @Value("${comprss.signedRequest.replayWindowSeconds:300}")
+    long replayWindowSeconds;
+
+    @Value("${comprss.signedRequest.maxSeenSignatures:100000}")
+    long maxSeenSignatures;
+
+    private Cache<String, Boolean> seenSignatures;
+
+    @PostConstruct
+    void postConstruct() {
+        // a signature older than twice the window can never be accepted again, so there's no need to remember it
+        seenSignatures = CacheBuilder.newBuilder()
+                .maximumSize(maxSeenSignatures)
+                .expireAfterWrite(replayWindowSeconds * 2L, SECONDS)
+                .build();
+        log.info("Signed request auth handler initialized, replayWindowSeconds={}, maxSeenSignatures={}", replayWindowSeconds, maxSeenSignatures);
+    }
+
+    /**
+     * Make the checks that need only the request headers (presence, replay window, and key backoff), so that a request
+     * that fails them can be turned away before its body is read.  These checks are repeated by processSignedRequest.
+     */
+    final void checkHeaders(String apiKey, String timestamp, String signature) throws ApiKeyException {
+        if (isAnyBlank(apiKey, timestamp, signature)) {
+            throw new ApiKeyException("Unable to locate API key, timestamp, or signature headers");
+        }
+        requireTimestampInWindow(timestamp);
+        // keys that were recently not found are turned away before touching the database
+        invalidApiKeyCache.checkBackoff(apiKey, null);
+    }
+
+    final void processSignedRequest(String apiKey, String timestamp, String signature, CachedBodyHttpServletRequest request)
+            throws DataAccessException, ApiKeyException {
+        checkHeaders(apiKey, timestamp, signature);
+        ApiSigningKey signingKey;
+        try {
+            signingKey = apiSigningKeyRing.get(apiKey);
+        } catch (ApiKeyException e) {
+            invalidApiKeyCache.recordFailure(apiKey, null);
+            throw e;
+        }
+        // a bad signature doesn't back off the key, which anyone can name; the signing key is cached, so verifying
+        // another attempt costs no database lookup
+        verifySignature(signingKey, timestamp, signature, request);
+        if (isReplay(signature)) {
+            throw new ApiKeyException("Request signature has already been used");
+        }
+        UserDetails userDetails = signingKey.principal;
+        String username = userDetails.getUsername();
+        Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
+        WebAuthenticationToken authToken = new WebAuthenticationToken(userDetails, apiKey, authorities, TrafficClass.API);
+        authToken.setDetails(userDetails);
+        //
+        // !! ACHTUNG !! POINT OF NO RETURN !!
+        //
+        SecurityContext context = getContext();
+        context.setAuthentication(authToken);
+        //
+        // !! YOU'VE DONE IT NOW !!
+        //
+        log.debug("Logged in username={} via signed API request for requestUri={}, requestMethod={}", username, request.getRequestURI(), request.getMethod());
+    }
+
+    private boolean isReplay(String signature) {
+        if (seenSignatures.asMap().putIfAbsent(signature, Boolean.TRUE) != null) {
+            return true;
+        }
+        SetParams setParams = SetParams.setParams().nx().px(SECONDS.toMillis(replayWindowSeconds * 2L));
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.set(SEEN_SIGNATURE_KEY_PREFIX + signature, "1", setParams) == null;
+        } catch (JedisException e) {
+            log.warn("Unable to record request signature in Redis, relying on this node's record, due to: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void requireTimestampInWindow(String timestamp) throws ApiKeyException {
+        long requestTimeMs;
+        try {
+            requestTimeMs = SECONDS.toMillis(Long.parseLong(timestamp));
+        } catch (NumberFormatException e) {
+            throw new ApiKeyException("Request timestamp is malformed");
+        }
+        long skewMs = abs(currentTimeMillis() - requestTimeMs);
+        if (skewMs > SECONDS.toMillis(replayWindowSeconds)) {
+            throw new ApiKeyException("Request timestamp is outside of the replay window, skewSeconds=" + MILLISECONDS.toSeconds(skewMs));
+        }
+    }
+
+    private static void verifySignature(ApiSigningKey signingKey, String timestamp, String signature, CachedBodyHttpServletRequest request) throws ApiKeyException {
+        byte[] expected = hmacSha256(signingKey.key, canonicalRequest(timestamp, request), CHARSET);
+        byte[] actual;
+        try {
+            actual = HashCode.fromString(signature).asBytes();
+        } catch (IllegalArgumentException e) {
+            throw new ApiKeyException("Request signature is malformed");
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new ApiKeyException("Request signature mismatch");
+        }
+    }
+
+    static String canonicalRequest(String timestamp, CachedBodyHttpServletRequest request) {
+        String requestUri = request.getRequestURI();
+        String queryString = request.getQueryString();
+        String path = isNotEmpty(queryString) ? requestUri + '?' + queryString : requestUri;
+        String bodyDigest = sha256(request.getBody());
+        return String.join("\n", request.getMethod(), path, timestamp, bodyDigest);
+    }
+
+    @Override
+    public final String toString() {
+        return "SignedRequestAuthHandler{" +
+                "apiSigningKeyRing=" + apiSigningKeyRing +
+                ", invalidApiKeyCache=" + invalidApiKeyCache +
+                ", replayWindowSeconds=" + replayWindowSeconds +
+                ", maxSeenSignatures=" + maxSeenSignatures +
+                '}';
+    }
+}
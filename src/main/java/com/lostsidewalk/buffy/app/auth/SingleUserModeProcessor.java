@@ -23,7 +23,7 @@ class SingleUserModeProcessor {
     String adminUsername;
 
     void setupLocalSession() {
-        UserDetails userDetails = localUserService.loadUserByUsername(adminUsername);
+        UserDetails userDetails = localUserService.loadPrincipal(adminUsername);
         setupSession(userDetails);
     }
 
@@ -33,7 +33,7 @@ class SingleUserModeProcessor {
     }
 
     private void setupSession(UserDetails userDetails) {
-        WebAuthenticationToken authToken = new WebAuthenticationToken(userDetails, randomAlphanumeric(32), userDetails.getAuthorities());
+        WebAuthenticationToken authToken = new WebAuthenticationToken(userDetails, randomAlphanumeric(32), userDetails.getAuthorities(), TrafficClass.SINGLE_USER);
         authToken.setDetails(userDetails);
         //
         // !! ACHTUNG !! POINT OF NO RETURN !!
@@ -0,0 +1,31 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import org.springframework.security.core.Authentication;
+
+/**
+ * How a request was authenticated; each class of traffic is rate limited against its own family of buckets.
+ */
+enum TrafficClass {
+
+    API("api"), // API key/secret or signed API requests
+    APP("app"), // the first-party web application (JWT, OAuth2)
+    SINGLE_USER("single-user"), // single-user mode sessions
+    ANONYMOUS("anonymous"), // unauthenticated requests, limited per remote address
+    ;
+
+    final String tag;
+
+    TrafficClass(String tag) {
+        this.tag = tag;
+    }
+
+    static TrafficClass of(Authentication authentication) {
+        if (authentication == null) {
+            return ANONYMOUS;
+        }
+        if (authentication instanceof WebAuthenticationToken webAuthenticationToken) {
+            return webAuthenticationToken.getTrafficClass();
+        }
+        return APP;
+    }
+}
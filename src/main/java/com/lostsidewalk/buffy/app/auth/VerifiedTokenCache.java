@@ -0,0 +1,155 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.app.audit.AuthClaimException;
+import com.lostsidewalk.buffy.app.model.TokenType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Date;
+
+import static com.lostsidewalk.buffy.app.auth.HashingUtils.sha256;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Short-lived cache of verified JWTs, keyed by a digest of the token type and token value.
+ * <p>
+ * Each entry holds the claims extracted from the token, the auth claim it was verified against, and the resolved
+ * (immutable) principal, and is never served past the expiration of the JWT itself.  Authentication tokens are not
+ * cached; each request builds its own from the cached principal, so mutations (e.g., eraseCredentials) can't leak
+ * between requests.
+ * <p>
+ * An entry is served only if the user's current auth claim (read on every hit) still matches the one it was
+ * verified against, so finalizing the claim on any node invalidates the user's tokens on every node, at once.  For
+ * the same reason, an entry put by a request that raced with the finalization is never served.  Hits therefore save
+ * the signature verification and the principal lookup, but not the claim read.  Entries are also dropped locally
+ * when the claim is finalized on this node, to free their memory early.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    private static final Charset CHARSET = UTF_8;
+
+    @Value("${comprss.verifiedTokenCache.maxSize:10000}")
+    long maxSize;
+
+    @Value("${comprss.verifiedTokenCache.ttlSeconds:60}")
+    long ttlSeconds;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    void postConstruct() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, SECONDS)
+                .recordStats()
+                .build();
+        log.info("Verified token cache initialized, maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    static final class VerifiedToken {
+
+        final String username;
+
+        final String userValidationClaim;
+
+        final long expiration;
+
+        final UserDetails principal;
+
+        private VerifiedToken(String username, String userValidationClaim, long expiration, UserDetails principal) {
+            this.username = username;
+            this.userValidationClaim = userValidationClaim;
+            this.expiration = expiration;
+            this.principal = principal;
+        }
+
+        private boolean isExpired() {
+            return expiration <= currentTimeMillis();
+        }
+    }
+
+    /**
+     * Reads a user's current auth claim.
+     */
+    @FunctionalInterface
+    interface AuthClaimLookup {
+
+        String requireAuthClaim(String username) throws AuthClaimException, DataAccessException;
+    }
+
+    /**
+     * @return the cached token, or null if there is none, it has expired, or the user's auth claim has changed since
+     * it was verified
+     */
+    final VerifiedToken get(TokenType tokenType, String jwt, AuthClaimLookup authClaimLookup) throws AuthClaimException, DataAccessException {
+        String cacheKey = cacheKey(tokenType, jwt);
+        VerifiedToken verifiedToken = cache.getIfPresent(cacheKey);
+        if (verifiedToken == null) {
+            return null;
+        }
+        if (verifiedToken.isExpired() || !StringUtils.equals(verifiedToken.userValidationClaim, authClaimLookup.requireAuthClaim(verifiedToken.username))) {
+            cache.asMap().remove(cacheKey, verifiedToken);
+            return null;
+        }
+        return verifiedToken;
+    }
+
+    final void put(TokenType tokenType, String jwt, Date expiration, String username, String userValidationClaim, UserDetails principal) {
+        if (expiration == null) {
+            return; // can't bound the entry by the token's own lifetime, so don't cache it
+        }
+        String cacheKey = cacheKey(tokenType, jwt);
+        cache.put(cacheKey, new VerifiedToken(username, userValidationClaim, expiration.getTime(), principal));
+    }
+
+    /**
+     * Drop all verified tokens for the given user, e.g., when the user's auth claim is finalized.
+     *
+     * @param username the name of the user whose tokens should be evicted
+     */
+    public final void invalidateUser(String username) {
+        Collection<VerifiedToken> values = cache.asMap().values();
+        boolean removed = values.removeIf(t -> StringUtils.equals(t.username, username));
+        if (removed) {
+            log.debug("Evicted cached verified token(s) for username={}", username);
+        }
+    }
+
+    public final void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String cacheKey(TokenType tokenType, String jwt) {
+        return sha256(tokenType.name() + ':' + jwt, CHARSET);
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, "verifiedTokenCache");
+    }
+
+    @Override
+    public final String toString() {
+        return "VerifiedTokenCache{" +
+                "maxSize=" + maxSize +
+                ", ttlSeconds=" + ttlSeconds +
+                '}';
+    }
+}
@@ -14,10 +14,11 @@ import static org.springframework.security.core.SpringSecurityCoreVersion.SERIAL
 @Slf4j
 class WebAuthenticationToken extends AbstractAuthenticationToken {
 
-    WebAuthenticationToken(Serializable principal, Serializable credentials, Collection<? extends GrantedAuthority> authorities) {
+    WebAuthenticationToken(Serializable principal, Serializable credentials, Collection<? extends GrantedAuthority> authorities, TrafficClass trafficClass) {
         super(authorities);
         this.principal = principal;
         this.credentials = credentials;
+        this.trafficClass = trafficClass;
         super.setAuthenticated(true); // must use super, as we override
     }
 
@@ -28,6 +29,8 @@ class WebAuthenticationToken extends AbstractAuthenticationToken {
 
     private Serializable credentials;
 
+    private final TrafficClass trafficClass;
+
     @Override
     public final Object getCredentials() {
         return credentials;
@@ -38,6 +41,10 @@ class WebAuthenticationToken extends AbstractAuthenticationToken {
         return principal;
     }
 
+    final TrafficClass getTrafficClass() {
+        return trafficClass;
+    }
+
     @Override
     public final void setAuthenticated(boolean isAuthenticated) {
         Assert.isTrue(!isAuthenticated,
@@ -56,6 +63,7 @@ class WebAuthenticationToken extends AbstractAuthenticationToken {
         return "WebAuthenticationToken{" +
                 "principal=" + principal +
                 ", credentials=" + credentials +
+                ", trafficClass=" + trafficClass +
                 '}';
     }
 }
@@ -0,0 +1,39 @@
+package com.lostsidewalk.buffy.app.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Thread configuration for request handling and scheduled jobs.
+ * <p>
+ * When comprss.virtualThreads.enabled is set, Tomcat request processing and @Scheduled jobs run on virtual threads;
+ * otherwise the platform-thread defaults are used.
+ */
+@Slf4j
+@Configuration
+public class ExecutorConfig {
+
+    @SuppressWarnings({"MethodMayBeStatic", "DesignForExtension"})
+    @Bean
+    @ConditionalOnProperty(name = "comprss.virtualThreads.enabled", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Tomcat request processing will run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+    }
+
+    @SuppressWarnings({"MethodMayBeStatic", "DesignForExtension"})
+    @Bean
+    @ConditionalOnProperty(name = "comprss.virtualThreads.enabled", havingValue = "true")
+    public TaskScheduler taskScheduler() {
+        log.info("Scheduled tasks will run on virtual threads");
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setThreadFactory(VirtualThreads.threadFactory("scheduling-vt-"));
+        return taskScheduler;
+    }
+}
@@ -0,0 +1,44 @@
+package com.lostsidewalk.buffy.app.executor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads without a compile-time dependency on the (preview, as of Java 19) virtual thread API, so
+ * that the application builds and runs normally when virtual threads are switched off.  Switching them on requires
+ * the JVM to be started with --enable-preview on Java 19/20 (no flag is needed on Java 21+).
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static ThreadFactory threadFactory(String namePrefix) {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads are not available (is --enable-preview set?)", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by this JVM", e);
+        }
+    }
+
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory threadFactory = threadFactory(namePrefix);
+        try {
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads are not available (is --enable-preview set?)", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by this JVM", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.lostsidewalk.buffy.app.model.v1.response;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Date;
+import java.util.Map;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
+
+/**
+ * A response model for the progress of an asynchronous queue deployment.
+ */
+@Slf4j
+@Data
+@JsonInclude(NON_EMPTY)
+public class DeployJobResponse {
+
+    /**
+     * The Id of the deploy job.
+     */
+    @NotNull(message = "{deploy.job.response.error.id-is-null}")
+    Long id;
+
+    /**
+     * The status of the deploy job (i.e., PENDING, RUNNING, COMPLETED, or FAILED).
+     */
+    @NotBlank(message = "{deploy.job.response.error.status-is-blank}")
+    String status;
+
+    /**
+     * The number of times the deploy job has been attempted.
+     */
+    int attempts;
+
+    /**
+     * The timestamp at which the deploy job was created.
+     */
+    Date created;
+
+    /**
+     * The timestamp at which the most recent attempt started.
+     */
+    Date started;
+
+    /**
+     * The timestamp at which the deploy job completed or finally failed.
+     */
+    Date completed;
+
+    /**
+     * The error from the most recent failed attempt, if any.
+     */
+    String errorMessage;
+
+    /**
+     * The results of deployment on all publishers, once the deploy job has completed.
+     */
+    Map<String, DeployResponse> deployResponses;
+
+    private DeployJobResponse(Long id, String status, int attempts, Date created, Date started, Date completed,
+                              String errorMessage, Map<String, DeployResponse> deployResponses) {
+        this.id = id;
+        this.status = status;
+        this.attempts = attempts;
+        this.created = created;
+        this.started = started;
+        this.completed = completed;
+        this.errorMessage = errorMessage;
+        this.deployResponses = deployResponses;
+    }
+
+    /**
+     * Static factory method to create a DeployJobResponse data transfer object from the supplied parameters.
+     *
+     * @param id              the Id of the deploy job
+     * @param status          the status of the deploy job
+     * @param attempts        the number of times the deploy job has been attempted
+     * @param created         the timestamp at which the deploy job was created
+     * @param started         the timestamp at which the most recent attempt started
+     * @param completed       the timestamp at which the deploy job completed or finally failed
+     * @param errorMessage    the error from the most recent failed attempt, if any
+     * @param deployResponses mapping of publisher identifier to deployment responses, once the deploy job has completed
+     * @return a DeployJobResponse entity encapsulating this information
+     */
+    public static DeployJobResponse from(Long id, String status, int attempts, Date created, Date started, Date completed,
+                                         String errorMessage, Map<String, DeployResponse> deployResponses) {
+        return new DeployJobResponse(id, status, attempts, created, started, completed, errorMessage, deployResponses);
+    }
+}
@@ -38,9 +38,15 @@ public class PostCreateResponse {
     @NotNull(message = "{post.create.response.error.deploy-responses-is-null")
     Map<String, ? extends DeployResponse> deployResponses;
 
-    private PostCreateResponse(List<Long> postIds, Map<String, ? extends DeployResponse> deployResponses) {
+    /**
+     * The Id of the deploy job, if the posts are being deployed asynchronously.
+     */
+    Long deployJobId;
+
+    private PostCreateResponse(List<Long> postIds, Map<String, ? extends DeployResponse> deployResponses, Long deployJobId) {
         this.postIds = postIds;
         this.deployResponses = deployResponses;
+        this.deployJobId = deployJobId;
     }
 
     public static PostCreateResponse from(List<Long> postIds, Map<String, Publisher.PubResult> pubResults) {
@@ -48,6 +54,10 @@ public class PostCreateResponse {
         if (pubResults != null) {
             deployResponses = DeployResponse.from(pubResults);
         }
-        return new PostCreateResponse(new ArrayList<>(postIds), deployResponses == null ? null : new HashMap<>(deployResponses));
+        return new PostCreateResponse(new ArrayList<>(postIds), deployResponses == null ? null : new HashMap<>(deployResponses), null);
+    }
+
+    public static PostCreateResponse from(List<Long> postIds, Long deployJobId) {
+        return new PostCreateResponse(new ArrayList<>(postIds), null, deployJobId);
     }
 }
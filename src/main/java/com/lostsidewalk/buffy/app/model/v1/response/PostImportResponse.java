@@ -0,0 +1,72 @@
+package com.lostsidewalk.buffy.app.model.v1.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.lostsidewalk.buffy.app.post.PostImportResult;
+import com.lostsidewalk.buffy.publisher.Publisher;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
+
+/**
+ * A response model for bulk post import operations.
+ */
+@Slf4j
+@Data
+@JsonInclude(NON_EMPTY)
+public class PostImportResponse {
+
+    /**
+     * The number of rows read from the upload.
+     */
+    long rowCt;
+
+    /**
+     * The number of posts imported.
+     */
+    long importedCt;
+
+    /**
+     * The number of rows rejected.
+     */
+    long errorCt;
+
+    /**
+     * The errors of the rejected rows (up to a limit), by row number.
+     */
+    Map<Long, String> rowErrors;
+
+    /**
+     * The results of deployment on all publishers, if the queue is deployed automatically.
+     */
+    Map<String, ? extends DeployResponse> deployResponses;
+
+    /**
+     * The Id of the deploy job, if the queue is being deployed asynchronously.
+     */
+    Long deployJobId;
+
+    private PostImportResponse(long rowCt, long importedCt, long errorCt, Map<Long, String> rowErrors,
+                               Map<String, ? extends DeployResponse> deployResponses, Long deployJobId) {
+        this.rowCt = rowCt;
+        this.importedCt = importedCt;
+        this.errorCt = errorCt;
+        this.rowErrors = rowErrors;
+        this.deployResponses = deployResponses;
+        this.deployJobId = deployJobId;
+    }
+
+    public static PostImportResponse from(PostImportResult postImportResult, Map<String, Publisher.PubResult> pubResults) {
+        return new PostImportResponse(postImportResult.getRowCt(), postImportResult.getImportedCt(), postImportResult.getErrorCt(),
+                new LinkedHashMap<>(postImportResult.getRowErrors()), pubResults == null ? null : new HashMap<>(DeployResponse.from(pubResults)), null);
+    }
+
+    public static PostImportResponse from(PostImportResult postImportResult, Long deployJobId) {
+        return new PostImportResponse(postImportResult.getRowCt(), postImportResult.getImportedCt(), postImportResult.getErrorCt(),
+                new LinkedHashMap<>(postImportResult.getRowErrors()), null, deployJobId);
+    }
+}
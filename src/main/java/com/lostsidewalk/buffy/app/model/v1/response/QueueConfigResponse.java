@@ -1,6 +1,7 @@
 package com.lostsidewalk.buffy.app.model.v1.response;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.lostsidewalk.buffy.publisher.Publisher;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +9,8 @@ import lombok.extern.slf4j.Slf4j;
 import javax.validation.constraints.NotNull;
 import java.util.Map;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
 /**
  * A response model for queue configuration operations.
  */
@@ -27,9 +30,16 @@ public class QueueConfigResponse {
     @NotNull(message = "{queue.config.error.deploy-responses-is-null}")
     Map<String, DeployResponse> deployResponses;
 
-    private QueueConfigResponse(QueueDTO queueDTO, Map<String, DeployResponse> deployResponses) {
+    /**
+     * The Id of the deploy job, if the queue is being deployed asynchronously.
+     */
+    @JsonInclude(NON_NULL)
+    Long deployJobId;
+
+    private QueueConfigResponse(QueueDTO queueDTO, Map<String, DeployResponse> deployResponses, Long deployJobId) {
         this.queueDTO = queueDTO;
         this.deployResponses = deployResponses;
+        this.deployJobId = deployJobId;
     }
 
     /**
@@ -40,6 +50,18 @@ public class QueueConfigResponse {
      * @return a QueueConfigResponse entity encapsulating this information
      */
     public static QueueConfigResponse from(QueueDTO queueDTO, Map<String, Publisher.PubResult> pubResults) {
-        return new QueueConfigResponse(queueDTO, DeployResponse.from(pubResults));
+        return new QueueConfigResponse(queueDTO, DeployResponse.from(pubResults), null);
+    }
+
+    /**
+     * Static factory method to create a QueueConfigResponse data transfer object for a queue that is being deployed
+     * asynchronously.
+     *
+     * @param queueDTO        the Queue itself
+     * @param deployJobId     the Id of the deploy job
+     * @return a QueueConfigResponse entity encapsulating this information
+     */
+    public static QueueConfigResponse from(QueueDTO queueDTO, Long deployJobId) {
+        return new QueueConfigResponse(queueDTO, null, deployJobId);
     }
 }
@@ -0,0 +1,77 @@
+package com.lostsidewalk.buffy.app.paginator;
+
+import com.lostsidewalk.buffy.app.audit.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Base64;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.removeStart;
+import static org.springframework.http.HttpHeaders.LINK;
+
+/**
+ * Opaque keyset (seek) cursors for paged listings.
+ * <p>
+ * A cursor names the Id of the last item on a page; the next page is everything after it, in Id order.  Unlike an
+ * offset, a cursor costs the same however deep the page, and is not shifted by concurrent inserts or deletes.  When
+ * a page is full, the response carries the cursor of the next page in the Next-Cursor header, and a link to it in
+ * the Link header (rel="next").
+ */
+@Slf4j
+public final class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER_NAME = "Next-Cursor";
+
+    public static final List<String> PAGE_CURSOR_RESPONSE_HEADER_NAMES = List.of(LINK, NEXT_CURSOR_HEADER_NAME);
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private PageCursor() {
+    }
+
+    /**
+     * @return the cursor of the page after the item with the given Id
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + lastId).getBytes(UTF_8));
+    }
+
+    /**
+     * @return the Id of the last item before the page named by the given cursor, or null if the cursor is blank
+     * @throws BadRequestException if the cursor is malformed
+     */
+    public static Long decode(String cursor) {
+        if (isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Long.valueOf(removeStart(decoded, CURSOR_PREFIX));
+            }
+        } catch (IllegalArgumentException e) { // also NumberFormatException
+            log.debug("Unable to decode page cursor={} due to: {}", cursor, e.getMessage());
+        }
+        throw new BadRequestException("Invalid cursor");
+    }
+
+    /**
+     * Compute the headers that lead to the page after the item with the given Id, i.e., the Next-Cursor header and a
+     * Link to the current request with its cursor replaced (and its offset, if any, removed).
+     */
+    public static HttpHeaders nextPageHeaders(long lastId) {
+        String nextCursor = encode(lastId);
+        String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("offset")
+                .replaceQueryParam("cursor", nextCursor)
+                .toUriString();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(NEXT_CURSOR_HEADER_NAME, nextCursor);
+        headers.set(LINK, "<" + nextUri + ">; rel=\"next\"");
+        return headers;
+    }
+}
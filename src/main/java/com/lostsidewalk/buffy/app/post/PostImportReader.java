@@ -0,0 +1,348 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.lostsidewalk.buffy.app.model.v1.request.ContentObjectConfigRequest;
+import com.lostsidewalk.buffy.app.model.v1.request.PostConfigRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.split;
+import static org.apache.commons.lang3.StringUtils.trimToNull;
+
+/**
+ * Reads post configuration requests, one row at a time, from an NDJSON or CSV upload.
+ * <p>
+ * Each row is parsed and validated as it is read, so memory use does not depend on the size of the upload.  Rows
+ * that fail are skipped and recorded (up to maxReportedErrors of them) by row number; a CSV upload that cannot be
+ * parsed past a given row ends there.
+ * <p>
+ * An NDJSON upload has one JSON post configuration request per line; a line longer than maxLineLength characters
+ * is skipped (without being held in memory) and recorded as an error.  A CSV upload has a header row naming its
+ * columns, which may be any of: postTitle, postDesc, postUrl, postComment, postRights, postCategories (separated
+ * by '|'), and expirationTimestamp (ISO-8601); the title and description are imported as text.  A CSV row (quoted
+ * line breaks included) longer than maxLineLength characters ends the upload, as any other CSV parse error does.
+ */
+@Slf4j
+public class PostImportReader {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    private static final int LINE_BUFFER_SIZE = 8192;
+
+    public enum Format {
+        NDJSON,
+        CSV,
+    }
+
+    private final Format format;
+
+    private final Validator validator;
+
+    private final int maxReportedErrors;
+
+    private final int maxLineLength;
+
+    private final Reader lineReader; // NDJSON only
+
+    private final char[] lineBuffer; // NDJSON only
+
+    private int lineBufferPos;
+
+    private int lineBufferLimit;
+
+    private boolean lineTooLong;
+
+    private final ObjectReader jsonReader; // NDJSON only
+
+    private final MappingIterator<Map<String, String>> csvRows; // CSV only
+
+    private long rowCt;
+
+    private long errorCt;
+
+    private final Map<Long, String> rowErrors = new LinkedHashMap<>();
+
+    private boolean done;
+
+    PostImportReader(InputStream inputStream, Format format, ObjectMapper objectMapper, Validator validator, int maxReportedErrors, int maxLineLength) throws IOException {
+        this.format = format;
+        this.validator = validator;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxLineLength = maxLineLength;
+        Reader reader = new InputStreamReader(inputStream, UTF_8);
+        if (format == Format.CSV) {
+            this.lineReader = null;
+            this.lineBuffer = null;
+            this.jsonReader = null;
+            this.csvRows = new CsvMapper()
+                    .readerFor(Map.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(new CsvRowLengthLimiter(new BufferedReader(reader), maxLineLength));
+        } else {
+            this.lineReader = reader;
+            this.lineBuffer = new char[LINE_BUFFER_SIZE];
+            this.jsonReader = objectMapper.readerFor(PostConfigRequest.class);
+            this.csvRows = null;
+        }
+    }
+
+    /**
+     * @return the next valid post configuration request, or null if there are no more
+     */
+    public final PostConfigRequest next() throws IOException {
+        while (!done) {
+            PostConfigRequest postConfigRequest = format == Format.CSV ? nextCsvRow() : nextJsonRow();
+            if (postConfigRequest != null) {
+                Set<ConstraintViolation<PostConfigRequest>> violations = validator.validate(postConfigRequest);
+                if (violations.isEmpty()) {
+                    return postConfigRequest;
+                }
+                reject(violations.stream().map(ConstraintViolation::getMessage).sorted().collect(joining("; ")));
+            }
+        }
+        return null;
+    }
+
+    private PostConfigRequest nextJsonRow() throws IOException {
+        String line = readLine();
+        if (line == null) {
+            done = true;
+            return null;
+        }
+        if (lineTooLong) {
+            rowCt++;
+            reject("Row is longer than " + maxLineLength + " characters");
+            return null;
+        }
+        if (isBlank(line)) {
+            return null;
+        }
+        rowCt++;
+        try {
+            return jsonReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            reject(e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the next line of an NDJSON upload, up to maxLineLength characters of it; the rest of a longer line is read
+     * and discarded, and lineTooLong is set.
+     *
+     * @return the line, without its terminator, or null at the end of the upload
+     */
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        lineTooLong = false;
+        boolean eol = false;
+        while (!eol) {
+            if (lineBufferPos == lineBufferLimit) {
+                lineBufferLimit = lineReader.read(lineBuffer);
+                lineBufferPos = 0;
+                if (lineBufferLimit < 0) {
+                    lineBufferLimit = 0;
+                    return line.isEmpty() && !lineTooLong ? null : stripCr(line);
+                }
+            }
+            int start = lineBufferPos;
+            while (lineBufferPos < lineBufferLimit && lineBuffer[lineBufferPos] != '\n') {
+                lineBufferPos++;
+            }
+            int end = lineBufferPos;
+            if (lineBufferPos < lineBufferLimit) {
+                eol = true;
+                lineBufferPos++; // the terminator
+            }
+            int room = maxLineLength + 1 - line.length(); // one extra, for a trailing CR
+            if (end - start > room) {
+                lineTooLong = true;
+                end = start + room;
+            }
+            line.append(lineBuffer, start, end - start);
+        }
+        return stripCr(line);
+    }
+
+    private String stripCr(StringBuilder line) {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(--length);
+        }
+        if (length > maxLineLength) {
+            lineTooLong = true;
+        }
+        return lineTooLong ? "" : line.toString();
+    }
+
+    private PostConfigRequest nextCsvRow() {
+        Map<String, String> row;
+        try {
+            if (!csvRows.hasNextValue()) {
+                done = true;
+                return null;
+            }
+            rowCt++;
+            row = csvRows.nextValue();
+        } catch (IOException | RuntimeException e) {
+            // the parser can't be resynchronized, so the rest of the upload is abandoned
+            rowCt++;
+            reject("Unable to parse CSV: " + e.getMessage());
+            done = true;
+            return null;
+        }
+        try {
+            return fromCsvRow(row);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            reject(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Fails a CSV upload at the first row longer than maxRowLength characters, so that the parser never has to buffer
+     * more than that.  Quotes are tracked, so that a line break inside a quoted field doesn't end the row.  The chars
+     * of a read that precede the long row are still returned, and the failure is raised by the next read.
+     */
+    private static final class CsvRowLengthLimiter extends FilterReader {
+
+        private final int maxRowLength;
+
+        private int rowLength;
+
+        private boolean quoted;
+
+        private boolean rowTooLong;
+
+        CsvRowLengthLimiter(Reader in, int maxRowLength) {
+            super(in);
+            this.maxRowLength = maxRowLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            char[] c = new char[1];
+            return read(c, 0, 1) < 0 ? -1 : c[0];
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (rowTooLong) {
+                throw new IOException("Row is longer than " + maxRowLength + " characters");
+            }
+            int n = super.read(cbuf, off, len);
+            for (int i = 0; i < n; i++) {
+                char c = cbuf[off + i];
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n' && !quoted) {
+                    rowLength = 0;
+                    continue;
+                } else if (c == '\r') {
+                    continue;
+                }
+                if (++rowLength > maxRowLength) {
+                    rowTooLong = true;
+                    if (i == 0) {
+                        throw new IOException("Row is longer than " + maxRowLength + " characters");
+                    }
+                    return i;
+                }
+            }
+            return n;
+        }
+    }
+
+    private static PostConfigRequest fromCsvRow(Map<String, String> row) {
+        PostConfigRequest postConfigRequest = new PostConfigRequest();
+        for (Map.Entry<String, String> e : row.entrySet()) {
+            String value = trimToNull(e.getValue());
+            if (value == null) {
+                continue;
+            }
+            switch (e.getKey()) {
+                case "postTitle" -> postConfigRequest.setPostTitle(textContent(value));
+                case "postDesc" -> postConfigRequest.setPostDesc(textContent(value));
+                case "postUrl" -> postConfigRequest.setPostUrl(value);
+                case "postComment" -> postConfigRequest.setPostComment(value);
+                case "postRights" -> postConfigRequest.setPostRights(value);
+                case "postCategories" -> postConfigRequest.setPostCategories(List.of(split(value, '|')));
+                case "expirationTimestamp" -> postConfigRequest.setExpirationTimestamp(Date.from(Instant.parse(value)));
+                default -> throw new IllegalArgumentException("Unrecognized column: " + e.getKey());
+            }
+        }
+        return postConfigRequest;
+    }
+
+    private static ContentObjectConfigRequest textContent(String value) {
+        ContentObjectConfigRequest contentObjectConfigRequest = new ContentObjectConfigRequest();
+        contentObjectConfigRequest.setType("text");
+        contentObjectConfigRequest.setValue(value);
+        return contentObjectConfigRequest;
+    }
+
+    private void reject(String message) {
+        errorCt++;
+        if (rowErrors.size() < maxReportedErrors) {
+            rowErrors.put(rowCt, message);
+        }
+        log.debug("Rejected import row={}, due to: {}", rowCt, message);
+    }
+
+    /**
+     * @return the number of rows read so far
+     */
+    public final long getRowCt() {
+        return rowCt;
+    }
+
+    /**
+     * @return the number of rows rejected so far
+     */
+    public final long getErrorCt() {
+        return errorCt;
+    }
+
+    /**
+     * @return the reported row errors, by row number
+     */
+    public final Map<Long, String> getRowErrors() {
+        return rowErrors;
+    }
+
+    @Override
+    public final String toString() {
+        return "PostImportReader{" +
+                "format=" + format +
+                ", maxReportedErrors=" + maxReportedErrors +
+                ", maxLineLength=" + maxLineLength +
+                ", rowCt=" + rowCt +
+                ", errorCt=" + errorCt +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.lostsidewalk.buffy.app.post;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcome of a bulk post import: the rows read, the posts imported, and the rows rejected (with the errors of up
+ * to maxReportedErrors of them, by row number).
+ */
+public final class PostImportResult {
+
+    private final long rowCt;
+
+    private final long importedCt;
+
+    private final long errorCt;
+
+    private final Map<Long, String> rowErrors;
+
+    private PostImportResult(long rowCt, long importedCt, long errorCt, Map<Long, String> rowErrors) {
+        this.rowCt = rowCt;
+        this.importedCt = importedCt;
+        this.errorCt = errorCt;
+        this.rowErrors = rowErrors;
+    }
+
+    public static PostImportResult from(long rowCt, long importedCt, long errorCt, Map<Long, String> rowErrors) {
+        return new PostImportResult(rowCt, importedCt, errorCt, new LinkedHashMap<>(rowErrors));
+    }
+
+    public long getRowCt() {
+        return rowCt;
+    }
+
+    public long getImportedCt() {
+        return importedCt;
+    }
+
+    public long getErrorCt() {
+        return errorCt;
+    }
+
+    public Map<Long, String> getRowErrors() {
+        return rowErrors;
+    }
+
+    @Override
+    public String toString() {
+        return "PostImportResult{" +
+                "rowCt=" + rowCt +
+                ", importedCt=" + importedCt +
+                ", errorCt=" + errorCt +
+                ", rowErrors=" + rowErrors +
+                '}';
+    }
+}
@@ -0,0 +1,166 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.google.gson.Gson;
+import com.lostsidewalk.buffy.DataConflictException;
+import com.lostsidewalk.buffy.DataUpdateException;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.post.StagingPost.PostPubStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.google.common.collect.Lists.partition;
+import static java.sql.Types.INTEGER;
+
+/**
+ * Inserts staging posts in bulk.
+ * <p>
+ * Posts are sent as JDBC batches of up to BATCH_SIZE rows, and their generated Ids are read back from the same
+ * statements (via RETURNING), all on one connection, in one transaction.  Publication status is set by the insert
+ * itself, so posts bound for an auto-deploy queue need no follow-up update.
+ * <p>
+ * INSERT_SQL writes the same columns, with the same types, as newsgears StagingPostDao.add, whose row mapper reads
+ * them back; the two must be kept in sync (e.g., subscription_id is an integer column, bound here as INTEGER and
+ * read there as a long).  StagingPostBatchDaoTest pins this mapping against the schema.
+ */
+@Slf4j
+@Component
+public class StagingPostBatchDao {
+
+    private static final Gson GSON = new Gson();
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "insert into staging_posts (" +
+            "importer_id, queue_id, importer_desc, subscription_id, post_title, post_desc, post_contents, post_media, post_itunes, " +
+            "post_url, post_urls, post_img_url, import_timestamp, post_hash, username, post_comment, post_rights, contributors, " +
+            "authors, post_categories, publish_timestamp, expiration_timestamp, enclosures, post_pub_status" +
+            ") values (?, ?, ?, ?, ?::json, ?::json, ?::json, ?::json, ?::json, ?, ?::json, ?, ?, ?, ?, ?, ?, ?::json, ?::json, ?::json, ?, ?, ?::json, ?)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the given staging posts with the given publication status (which may be null).  On success, each post is
+     * updated in place with its Id and publication status.
+     *
+     * @return the Ids of the new posts, in the order given
+     * @throws DataConflictException if any of the posts would duplicate a unique key, in which case none are added
+     * @throws DataUpdateException   if the posts could not be added for any other reason
+     */
+    public final List<Long> add(List<StagingPost> stagingPosts, PostPubStatus postPubStatus) throws DataUpdateException, DataConflictException {
+        List<Long> ids;
+        try {
+            ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) conn -> {
+                boolean autoCommit = conn.getAutoCommit();
+                if (autoCommit) {
+                    conn.setAutoCommit(false);
+                }
+                try {
+                    List<Long> generatedIds = new ArrayList<>(stagingPosts.size());
+                    for (List<StagingPost> batch : partition(stagingPosts, BATCH_SIZE)) {
+                        generatedIds.addAll(insertBatch(conn.prepareStatement(INSERT_SQL, new String[]{"id"}), batch, postPubStatus));
+                    }
+                    if (autoCommit) {
+                        conn.commit();
+                    }
+                    return generatedIds;
+                } catch (SQLException | RuntimeException e) {
+                    if (autoCommit) {
+                        conn.rollback();
+                    }
+                    throw e;
+                } finally {
+                    if (autoCommit) {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            log.error("Unable to add staging posts due to duplicate key: {}", e.getMessage());
+            throw new DataConflictException(getClass().getSimpleName(), "add", e.getMessage(), stagingPosts.size(), postPubStatus);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to add staging posts due to: {}", e.getMessage());
+            throw new DataUpdateException(getClass().getSimpleName(), "add", e.getMessage(), stagingPosts.size(), postPubStatus);
+        }
+        if (ids == null || ids.size() != stagingPosts.size()) {
+            throw new DataUpdateException(getClass().getSimpleName(), "add", "Unexpected number of generated keys", stagingPosts.size(), postPubStatus);
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            StagingPost stagingPost = stagingPosts.get(i);
+            stagingPost.setId(ids.get(i));
+            stagingPost.setPostPubStatus(postPubStatus);
+        }
+        return ids;
+    }
+
+    private static List<Long> insertBatch(PreparedStatement ps, List<StagingPost> batch, PostPubStatus postPubStatus) throws SQLException {
+        try (ps) {
+            for (StagingPost s : batch) {
+                ps.setString(1, s.getImporterId());
+                ps.setLong(2, s.getQueueId());
+                ps.setString(3, s.getImporterDesc());
+                if (s.getSubscriptionId() == null) {
+                    ps.setNull(4, INTEGER);
+                } else {
+                    ps.setLong(4, s.getSubscriptionId());
+                }
+                ps.setString(5, GSON.toJson(s.getPostTitle()));
+                ps.setString(6, GSON.toJson(s.getPostDesc()));
+                ps.setString(7, toJson(s.getPostContents()));
+                ps.setString(8, toJson(s.getPostMedia()));
+                ps.setString(9, toJson(s.getPostITunes()));
+                ps.setString(10, s.getPostUrl());
+                ps.setString(11, toJson(s.getPostUrls()));
+                ps.setString(12, s.getPostImgUrl());
+                ps.setTimestamp(13, toTimestamp(s.getImportTimestamp()));
+                ps.setString(14, s.getPostHash());
+                ps.setString(15, s.getUsername());
+                ps.setString(16, s.getPostComment());
+                ps.setString(17, s.getPostRights());
+                ps.setString(18, toJson(s.getContributors()));
+                ps.setString(19, toJson(s.getAuthors()));
+                ps.setString(20, toJson(s.getPostCategories()));
+                ps.setTimestamp(21, toTimestamp(s.getPublishTimestamp()));
+                ps.setTimestamp(22, toTimestamp(s.getExpirationTimestamp()));
+                ps.setString(23, toJson(s.getEnclosures()));
+                ps.setString(24, postPubStatus == null ? null : postPubStatus.name());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            List<Long> ids = new ArrayList<>(batch.size());
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+            return ids;
+        }
+    }
+
+    private static String toJson(Object o) {
+        return o == null ? null : GSON.toJson(o);
+    }
+
+    private static Timestamp toTimestamp(Date d) {
+        return d == null ? null : new Timestamp(d.getTime());
+    }
+
+    @Override
+    public final String toString() {
+        return "StagingPostBatchDao{" +
+                "jdbcTemplate=" + jdbcTemplate +
+                '}';
+    }
+}
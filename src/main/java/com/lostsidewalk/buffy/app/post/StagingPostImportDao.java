@@ -0,0 +1,244 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.google.common.io.CountingOutputStream;
+import com.google.gson.Gson;
+import com.lostsidewalk.buffy.DataConflictException;
+import com.lostsidewalk.buffy.DataUpdateException;
+import com.lostsidewalk.buffy.app.audit.PayloadTooLargeException;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.post.StagingPost.PostPubStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.Files.newInputStream;
+
+/**
+ * Imports staging posts in bulk, using COPY.
+ * <p>
+ * Posts are first spooled, as CSV, to a temporary file, one post at a time; only once the source is exhausted is a
+ * connection taken, the file streamed through COPY FROM STDIN into a temporary table, and the table merged into
+ * staging_posts with a single insert, all in one transaction.  An import therefore succeeds or fails as a whole,
+ * holds no more than one post (and one COPY buffer) in memory at a time, and holds its connection only as long as
+ * the database takes to load the file, however slowly the source is read.
+ * <p>
+ * The spool is bounded: an import of more than maxRows posts, or whose spool file grows past maxBytes (checked as
+ * each post is written, so it may overshoot by one write buffer), is abandoned with a PayloadTooLargeException (413).
+ */
+@Slf4j
+@Component
+public class StagingPostImportDao {
+
+    /**
+     * A source of posts to import.
+     */
+    @FunctionalInterface
+    public interface StagingPostSource {
+
+        /**
+         * @return the next post to import, or null if there are no more
+         */
+        StagingPost next() throws IOException;
+    }
+
+    private static final Gson GSON = new Gson();
+
+    private static final int COPY_BUFFER_SIZE = 65536;
+
+    private static final String SPOOL_FILE_PREFIX = "staging-posts-import-";
+
+    private static final String SPOOL_FILE_SUFFIX = ".csv";
+
+    private static final String COLUMNS = "importer_id, queue_id, importer_desc, subscription_id, post_title, post_desc, post_contents, post_media, post_itunes, " +
+            "post_url, post_urls, post_img_url, import_timestamp, post_hash, username, post_comment, post_rights, contributors, " +
+            "authors, post_categories, publish_timestamp, expiration_timestamp, enclosures";
+
+    private static final String CREATE_IMPORT_TABLE_SQL = "create temporary table staging_posts_import (" +
+            "row_num bigint not null, importer_id varchar(256), queue_id integer, importer_desc varchar(512), subscription_id integer, " +
+            "post_title json, post_desc json, post_contents json, post_media json, post_itunes json, post_url varchar(1024), " +
+            "post_urls json, post_img_url varchar(1024), import_timestamp timestamp with time zone, post_hash varchar(64), " +
+            "username varchar(100), post_comment varchar(2048), post_rights varchar(1024), contributors json, authors json, " +
+            "post_categories json, publish_timestamp timestamp with time zone, expiration_timestamp timestamp with time zone, enclosures json" +
+            ") on commit drop";
+
+    private static final String COPY_SQL = "copy staging_posts_import (row_num, " + COLUMNS + ") from stdin with (format csv)";
+
+    private static final String MERGE_SQL = "insert into staging_posts (" + COLUMNS + ", post_pub_status) " +
+            "select " + COLUMNS + ", ? from staging_posts_import order by row_num";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Value("${comprss.postImport.maxRows:100000}")
+    long maxRows;
+
+    @Value("${comprss.postImport.maxBytes:268435456}")
+    long maxBytes;
+
+    /**
+     * Import all posts from the given source with the given publication status (which may be null).
+     *
+     * @return the number of posts imported
+     * @throws DataConflictException    if any of the posts would duplicate a unique key, in which case none are imported
+     * @throws DataUpdateException      if the posts could not be imported for any other reason
+     * @throws IOException              if the source could not be read
+     * @throws PayloadTooLargeException if the import exceeds maxRows posts or maxBytes of spooled data
+     */
+    public final long importPosts(StagingPostSource source, PostPubStatus postPubStatus) throws DataUpdateException, DataConflictException, IOException {
+        Path spoolFile = createTempFile(SPOOL_FILE_PREFIX, SPOOL_FILE_SUFFIX);
+        try {
+            // the upload is read in full before a connection is taken, so a slow client can't hold one open
+            long spooledCt = spool(source, spoolFile);
+            if (spooledCt == 0L) {
+                return 0L;
+            }
+            Long importedCt = jdbcTemplate.execute((ConnectionCallback<Long>) conn -> {
+                boolean autoCommit = conn.getAutoCommit();
+                if (autoCommit) {
+                    conn.setAutoCommit(false);
+                }
+                try {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(CREATE_IMPORT_TABLE_SQL);
+                    }
+                    long copiedCt = copy(conn, spoolFile);
+                    long mergedCt;
+                    try (PreparedStatement ps = conn.prepareStatement(MERGE_SQL)) {
+                        ps.setString(1, postPubStatus == null ? null : postPubStatus.name());
+                        mergedCt = ps.executeLargeUpdate();
+                    }
+                    if (autoCommit) {
+                        conn.commit();
+                    }
+                    log.debug("Imported staging posts, spooledCt={}, copiedCt={}, mergedCt={}", spooledCt, copiedCt, mergedCt);
+                    return mergedCt;
+                } catch (SQLException | RuntimeException e) {
+                    if (autoCommit) {
+                        conn.rollback();
+                    }
+                    throw e;
+                } finally {
+                    if (autoCommit) {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            });
+            return importedCt == null ? 0L : importedCt;
+        } catch (UncheckedIOException e) {
+            // the spool file could not be read
+            throw e.getCause();
+        } catch (DuplicateKeyException e) {
+            log.error("Unable to import staging posts due to duplicate key: {}", e.getMessage());
+            throw new DataConflictException(getClass().getSimpleName(), "importPosts", e.getMessage(), postPubStatus);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to import staging posts due to: {}", e.getMessage());
+            throw new DataUpdateException(getClass().getSimpleName(), "importPosts", e.getMessage(), postPubStatus);
+        } finally {
+            deleteIfExists(spoolFile);
+        }
+    }
+
+    /**
+     * Write all posts from the given source, as COPY-ready CSV rows, to the given file.
+     *
+     * @return the number of rows written
+     */
+    private long spool(StagingPostSource source, Path spoolFile) throws IOException {
+        long rowNum = 0L;
+        CountingOutputStream spoolOut = new CountingOutputStream(newOutputStream(spoolFile));
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(spoolOut, UTF_8))) {
+            StagingPost s;
+            while ((s = source.next()) != null) {
+                rowNum++;
+                if (rowNum > maxRows) {
+                    throw new PayloadTooLargeException("Import exceeds " + maxRows + " posts");
+                }
+                if (spoolOut.getCount() > maxBytes) {
+                    throw new PayloadTooLargeException("Import exceeds " + maxBytes + " bytes");
+                }
+                StringBuilder line = new StringBuilder(1024).append(rowNum);
+                appendCsv(line, s.getImporterId());
+                appendCsv(line, s.getQueueId());
+                appendCsv(line, s.getImporterDesc());
+                appendCsv(line, s.getSubscriptionId());
+                appendCsv(line, GSON.toJson(s.getPostTitle()));
+                appendCsv(line, GSON.toJson(s.getPostDesc()));
+                appendCsv(line, toJson(s.getPostContents()));
+                appendCsv(line, toJson(s.getPostMedia()));
+                appendCsv(line, toJson(s.getPostITunes()));
+                appendCsv(line, s.getPostUrl());
+                appendCsv(line, toJson(s.getPostUrls()));
+                appendCsv(line, s.getPostImgUrl());
+                appendCsv(line, toInstant(s.getImportTimestamp()));
+                appendCsv(line, s.getPostHash());
+                appendCsv(line, s.getUsername());
+                appendCsv(line, s.getPostComment());
+                appendCsv(line, s.getPostRights());
+                appendCsv(line, toJson(s.getContributors()));
+                appendCsv(line, toJson(s.getAuthors()));
+                appendCsv(line, toJson(s.getPostCategories()));
+                appendCsv(line, toInstant(s.getPublishTimestamp()));
+                appendCsv(line, toInstant(s.getExpirationTimestamp()));
+                appendCsv(line, toJson(s.getEnclosures()));
+                writer.append(line).append('\n');
+            }
+        }
+        return rowNum;
+    }
+
+    // the copy manager takes the connection out of COPY mode if the copy fails, so the transaction can be rolled back
+    private static long copy(Connection conn, Path spoolFile) throws SQLException {
+        try (InputStream in = newInputStream(spoolFile)) {
+            return conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, in, COPY_BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // in CSV format, an unquoted empty value is null, and quoted values may contain anything
+    private static void appendCsv(StringBuilder line, Object value) {
+        line.append(',');
+        if (value != null) {
+            line.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static String toJson(Object o) {
+        return o == null ? null : GSON.toJson(o);
+    }
+
+    private static String toInstant(Date d) {
+        return d == null ? null : d.toInstant().toString();
+    }
+
+    @Override
+    public final String toString() {
+        return "StagingPostImportDao{" +
+                "jdbcTemplate=" + jdbcTemplate +
+                ", maxRows=" + maxRows +
+                ", maxBytes=" + maxBytes +
+                '}';
+    }
+}
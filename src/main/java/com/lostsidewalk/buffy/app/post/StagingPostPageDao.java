@@ -0,0 +1,82 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.post.StagingPost.PostPubStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.nCopies;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+
+/**
+ * Finds the Ids of one page of the staging posts in a queue, optionally limited to the given publication statuses.
+ * <p>
+ * Filtering, ordering, and paging are all done by the query (backed by the (username, queue_id, post_pub_status, id)
+ * and (username, queue_id, id) indexes), so a page of n posts reads n rows, however large the queue.  Pages may be
+ * addressed by offset or, more cheaply, by keyset cursor (i.e., the Id of the last post of the previous page).
+ */
+@Slf4j
+@Component
+public class StagingPostPageDao {
+
+    public enum SortOrder {
+        ASC,
+        DESC,
+    }
+
+    private static final String SELECT_SQL = "select id from staging_posts where username = ? and queue_id = ?";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param statuses  limit the results to posts with any of these statuses; if empty or null, all posts are included
+     * @param afterId   if not null, the keyset cursor: only posts that come after this Id (in the given order) are included
+     * @param offset    the number of posts to skip, if not null
+     * @param limit     the maximum number of posts to return, if not null
+     * @param sortOrder the order of the results, by Id
+     * @return the Ids of the posts on the requested page, in the requested order
+     */
+    public final List<Long> findIds(String username, Long queueId, List<PostPubStatus> statuses, Long afterId,
+                                    Integer offset, Integer limit, SortOrder sortOrder) throws DataAccessException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(username);
+        args.add(queueId);
+        if (isNotEmpty(statuses)) {
+            sql.append(" and post_pub_status in (").append(String.join(", ", nCopies(statuses.size(), "?"))).append(')');
+            statuses.forEach(s -> args.add(s.name()));
+        }
+        if (afterId != null) {
+            sql.append(sortOrder == SortOrder.DESC ? " and id < ?" : " and id > ?");
+            args.add(afterId);
+        }
+        sql.append(sortOrder == SortOrder.DESC ? " order by id desc" : " order by id asc");
+        if (limit != null) {
+            sql.append(" limit ?");
+            args.add(limit);
+        }
+        if (offset != null) {
+            sql.append(" offset ?");
+            args.add(offset);
+        }
+        try {
+            return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to find staging post Ids due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "findIds", e.getMessage(), username, queueId, statuses, afterId, offset, limit, sortOrder);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "StagingPostPageDao{" +
+                "jdbcTemplate=" + jdbcTemplate +
+                '}';
+    }
+}
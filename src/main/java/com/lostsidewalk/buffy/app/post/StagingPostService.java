@@ -1,26 +1,41 @@
 package com.lostsidewalk.buffy.app.post;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.DataConflictException;
 import com.lostsidewalk.buffy.DataUpdateException;
 import com.lostsidewalk.buffy.app.model.v1.request.*;
+import com.lostsidewalk.buffy.app.post.PostImportReader.Format;
+import com.lostsidewalk.buffy.app.post.StagingPostPageDao.SortOrder;
 import com.lostsidewalk.buffy.post.*;
 import com.lostsidewalk.buffy.post.StagingPost.PostPubStatus;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Comparator.comparing;
 import static java.util.Optional.ofNullable;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.collections4.CollectionUtils.*;
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
 
@@ -32,6 +47,27 @@ public class StagingPostService {
     @Autowired
     StagingPostDao stagingPostDao;
 
+    @Autowired
+    StagingPostBatchDao stagingPostBatchDao;
+
+    @Autowired
+    StagingPostImportDao stagingPostImportDao;
+
+    @Autowired
+    StagingPostPageDao stagingPostPageDao;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Validator validator;
+
+    @Value("${comprss.postImport.maxReportedErrors:100}")
+    int maxReportedErrors;
+
+    @Value("${comprss.postImport.maxLineLength:1048576}")
+    int maxLineLength;
+
     public final List<StagingPost> getStagingPosts(String username, List<Long> queueIds, PostPubStatus ... statuses) throws DataAccessException {
         List<StagingPost> list;
         if (isEmpty(queueIds)) {
@@ -48,6 +84,35 @@ public class StagingPostService {
         return list;
     }
 
+    /**
+     * Get one page of the staging posts in the given queue, optionally limited to the given publication statuses (null
+     * elements are ignored).  When a limit is given, only the posts on the requested page are read; otherwise the
+     * whole queue is read in one query, and filtered and ordered in memory.
+     *
+     * @see StagingPostPageDao#findIds
+     */
+    public final List<StagingPost> getStagingPosts(String username, Long queueId, List<PostPubStatus> statuses, Long afterId,
+                                                   Integer offset, Integer limit, SortOrder sortOrder) throws DataAccessException {
+        List<PostPubStatus> s = statuses == null ? null : statuses.stream().filter(Objects::nonNull).toList();
+        if (limit == null) {
+            // reading an unbounded page by Id would send every Id in the queue back through findByIds
+            Comparator<StagingPost> byId = comparing(StagingPost::getId);
+            return getStagingPosts(username, singletonList(queueId), s == null ? null : s.toArray(new PostPubStatus[0])).stream()
+                    .filter(stagingPost -> afterId == null || (sortOrder == SortOrder.DESC ? stagingPost.getId() < afterId : stagingPost.getId() > afterId))
+                    .sorted(sortOrder == SortOrder.DESC ? byId.reversed() : byId)
+                    .skip(offset == null ? 0L : offset)
+                    .toList();
+        }
+        List<Long> ids = stagingPostPageDao.findIds(username, queueId, s, afterId, offset, limit, sortOrder);
+        if (isEmpty(ids)) {
+            return emptyList();
+        }
+        Map<Long, StagingPost> postsById = stagingPostDao.findByIds(username, ids).stream()
+                .collect(toMap(StagingPost::getId, identity()));
+        // restore the order of the page
+        return ids.stream().map(postsById::get).filter(Objects::nonNull).toList();
+    }
+
     private static List<ContentObject> convertContentObjectsToModel(Collection<? extends ContentObjectConfigRequest> postContentConfigRequests) {
         List<ContentObject> postContents = null;
         if (isNotEmpty(postContentConfigRequests)) {
@@ -108,9 +173,8 @@ public class StagingPostService {
         return enclosures;
     }
 
-    public final Long createPost(String username, Long queueId, PostConfigRequest postConfigRequest) throws DataAccessException, DataUpdateException, DataConflictException {
-        //
-        StagingPost stagingPost = StagingPost.from(
+    private static StagingPost toStagingPost(String username, Long queueId, PostConfigRequest postConfigRequest) {
+        return StagingPost.from(
                 "COMPOSABLE_RSS", // importer Id
                 queueId,
                 null, // importer desc
@@ -136,9 +200,44 @@ public class StagingPostService {
                 convertEnclosuresToModel(postConfigRequest.getEnclosures()),
                 null
         );
+    }
+
+    public final Long createPost(String username, Long queueId, PostConfigRequest postConfigRequest) throws DataAccessException, DataUpdateException, DataConflictException {
+        StagingPost stagingPost = toStagingPost(username, queueId, postConfigRequest);
         return stagingPostDao.add(stagingPost);
     }
 
+    /**
+     * Create a post in the given queue for each of the given requests, in bulk, with the given publication status
+     * (which may be null).
+     *
+     * @return the new posts, in the order requested
+     */
+    public final List<StagingPost> createPosts(String username, Long queueId, List<? extends PostConfigRequest> postConfigRequests, PostPubStatus postPubStatus) throws DataUpdateException, DataConflictException {
+        List<StagingPost> stagingPosts = newArrayListWithExpectedSize(size(postConfigRequests));
+        for (PostConfigRequest postConfigRequest : postConfigRequests) {
+            stagingPosts.add(toStagingPost(username, queueId, postConfigRequest));
+        }
+        if (isNotEmpty(stagingPosts)) {
+            stagingPostBatchDao.add(stagingPosts, postPubStatus);
+        }
+        return stagingPosts;
+    }
+
+    /**
+     * Import a post into the given queue for each valid row of the given NDJSON or CSV upload, with the given
+     * publication status (which may be null).  Rows are read, validated, and imported as a stream; invalid rows are
+     * skipped and reported.
+     */
+    public final PostImportResult importPosts(String username, Long queueId, InputStream inputStream, Format format, PostPubStatus postPubStatus) throws DataUpdateException, DataConflictException, IOException {
+        PostImportReader postImportReader = new PostImportReader(inputStream, format, objectMapper, validator, maxReportedErrors, maxLineLength);
+        long importedCt = stagingPostImportDao.importPosts(() -> {
+            PostConfigRequest postConfigRequest = postImportReader.next();
+            return postConfigRequest == null ? null : toStagingPost(username, queueId, postConfigRequest);
+        }, postPubStatus);
+        return PostImportResult.from(postImportReader.getRowCt(), importedCt, postImportReader.getErrorCt(), postImportReader.getRowErrors());
+    }
+
     public final String addContent(String username, Long id, ContentObjectConfigRequest contentObjectConfigRequest) throws DataAccessException, DataUpdateException {
         String ident = randomAlphanumeric(8);
         ContentObject newContentObject = ContentObject.from(
@@ -484,6 +583,18 @@ public class StagingPostService {
         return stagingPostDao.findById(username, id);
     }
 
+    /**
+     * @return the posts with the given Ids (those that exist), in the order given, read in one query
+     */
+    public final List<StagingPost> findByIds(String username, List<Long> ids) throws DataAccessException {
+        if (isEmpty(ids)) {
+            return emptyList();
+        }
+        Map<Long, StagingPost> postsById = stagingPostDao.findByIds(username, ids).stream()
+                .collect(toMap(StagingPost::getId, identity()));
+        return ids.stream().map(postsById::get).filter(Objects::nonNull).toList();
+    }
+
     public final PostPerson findAuthorByIdent(String username, Long id, String authorIdent) throws DataAccessException {
         StagingPost stagingPost = findById(username, id);
         List<PostPerson> postAuthors = stagingPost.getAuthors();
@@ -678,6 +789,13 @@ public class StagingPostService {
     public final String toString() {
         return "StagingPostService{" +
                 "stagingPostDao=" + stagingPostDao +
+                ", stagingPostBatchDao=" + stagingPostBatchDao +
+                ", stagingPostImportDao=" + stagingPostImportDao +
+                ", stagingPostPageDao=" + stagingPostPageDao +
+                ", objectMapper=" + objectMapper +
+                ", validator=" + validator +
+                ", maxReportedErrors=" + maxReportedErrors +
+                ", maxLineLength=" + maxLineLength +
                 '}';
     }
 }
@@ -0,0 +1,125 @@
+package com.lostsidewalk.buffy.app.publish;
+
+import com.lostsidewalk.buffy.app.model.v1.response.DeployResponse;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of a row in the deploy_jobs table, i.e., a queue deployment that runs in the background.
+ * <p>
+ * A job with null stagingPostIds deploys the entire queue; otherwise it deploys the given posts.  Deploy responses
+ * are present once the job has completed.
+ */
+public final class DeployJob {
+
+    public enum JobStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private final Long id;
+
+    private final Long queueId;
+
+    private final String username;
+
+    private final List<Long> stagingPostIds;
+
+    private final JobStatus jobStatus;
+
+    private final int attempts;
+
+    private final Map<String, DeployResponse> deployResponses;
+
+    private final String errorMessage;
+
+    private final Date created;
+
+    private final Date started;
+
+    private final Date completed;
+
+    private DeployJob(Long id, Long queueId, String username, List<Long> stagingPostIds, JobStatus jobStatus, int attempts,
+                      Map<String, DeployResponse> deployResponses, String errorMessage, Date created, Date started, Date completed) {
+        this.id = id;
+        this.queueId = queueId;
+        this.username = username;
+        this.stagingPostIds = stagingPostIds;
+        this.jobStatus = jobStatus;
+        this.attempts = attempts;
+        this.deployResponses = deployResponses;
+        this.errorMessage = errorMessage;
+        this.created = created;
+        this.started = started;
+        this.completed = completed;
+    }
+
+    public static DeployJob from(Long id, Long queueId, String username, List<Long> stagingPostIds, JobStatus jobStatus, int attempts,
+                                 Map<String, DeployResponse> deployResponses, String errorMessage, Date created, Date started, Date completed) {
+        return new DeployJob(id, queueId, username, stagingPostIds, jobStatus, attempts, deployResponses, errorMessage, created, started, completed);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getQueueId() {
+        return queueId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<Long> getStagingPostIds() {
+        return stagingPostIds;
+    }
+
+    public JobStatus getJobStatus() {
+        return jobStatus;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Map<String, DeployResponse> getDeployResponses() {
+        return deployResponses;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public Date getStarted() {
+        return started;
+    }
+
+    public Date getCompleted() {
+        return completed;
+    }
+
+    @Override
+    public String toString() {
+        return "DeployJob{" +
+                "id=" + id +
+                ", queueId=" + queueId +
+                ", username='" + username + '\'' +
+                ", stagingPostIds=" + stagingPostIds +
+                ", jobStatus=" + jobStatus +
+                ", attempts=" + attempts +
+                ", errorMessage='" + errorMessage + '\'' +
+                ", created=" + created +
+                ", started=" + started +
+                ", completed=" + completed +
+                '}';
+    }
+}
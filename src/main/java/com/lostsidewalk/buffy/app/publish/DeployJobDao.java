@@ -0,0 +1,204 @@
+package com.lostsidewalk.buffy.app.publish;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.app.model.v1.response.DeployResponse;
+import com.lostsidewalk.buffy.app.publish.DeployJob.JobStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Type;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+import static java.sql.Statement.RETURN_GENERATED_KEYS;
+import static org.apache.commons.lang3.StringUtils.left;
+
+/**
+ * Persists deploy jobs in the deploy_jobs table.
+ * <p>
+ * Jobs are claimed with 'for update skip locked', so any number of nodes may poll the table concurrently without
+ * claiming the same job twice.
+ */
+@Slf4j
+@Component
+public class DeployJobDao {
+
+    private static final Gson GSON = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX")
+            .create();
+
+    private static final Type STAGING_POST_IDS_TYPE = new TypeToken<List<Long>>() {}.getType();
+
+    private static final Type DEPLOY_RESPONSES_TYPE = new TypeToken<Map<String, DeployResponse>>() {}.getType();
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 2048;
+
+    private static final String SELECT_COLUMNS = "id, queue_id, username, staging_post_ids, job_status, attempts, pub_results, error_message, created, started, completed";
+
+    private static final String INSERT_SQL = "insert into deploy_jobs (queue_id, username, staging_post_ids, job_status) values (?, ?, ?::json, 'PENDING')";
+
+    private static final String FIND_BY_ID_SQL = "select " + SELECT_COLUMNS + " from deploy_jobs where id = ? and username = ? and queue_id = ?";
+
+    private static final String CLAIM_SQL = "update deploy_jobs set job_status = 'RUNNING', node_ident = ?, attempts = attempts + 1, started = current_timestamp, heartbeat = current_timestamp" +
+            " where id in (select id from deploy_jobs where job_status = 'PENDING' order by id limit ? for update skip locked)" +
+            " returning " + SELECT_COLUMNS;
+
+    private static final String HEARTBEAT_SQL = "update deploy_jobs set heartbeat = current_timestamp where id = ? and node_ident = ? and job_status = 'RUNNING'";
+
+    private static final String COMPLETE_SQL = "update deploy_jobs set job_status = 'COMPLETED', pub_results = ?::json, error_message = null, completed = current_timestamp where id = ?";
+
+    private static final String FAIL_SQL = "update deploy_jobs set job_status = case when attempts < ? then 'PENDING' else 'FAILED' end," +
+            " error_message = ?, completed = case when attempts < ? then null else current_timestamp end where id = ?";
+
+    private static final String RECOVER_SQL = "update deploy_jobs set job_status = case when attempts < ? then 'PENDING' else 'FAILED' end," +
+            " error_message = 'Deploy job was abandoned by node ' || node_ident," +
+            " completed = case when attempts < ? then null else current_timestamp end" +
+            " where job_status = 'RUNNING' and heartbeat < current_timestamp - (? * interval '1 millisecond')";
+
+    private static final String PURGE_SQL = "delete from deploy_jobs where job_status in ('COMPLETED', 'FAILED') and completed < current_timestamp - (? * interval '1 millisecond')";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private static final RowMapper<DeployJob> DEPLOY_JOB_ROW_MAPPER = (rs, rowNum) -> {
+        String stagingPostIds = rs.getString("staging_post_ids");
+        String pubResults = rs.getString("pub_results");
+        return DeployJob.from(
+                rs.getLong("id"),
+                rs.getLong("queue_id"),
+                rs.getString("username"),
+                stagingPostIds == null ? null : GSON.fromJson(stagingPostIds, STAGING_POST_IDS_TYPE),
+                JobStatus.valueOf(rs.getString("job_status")),
+                rs.getInt("attempts"),
+                pubResults == null ? null : GSON.fromJson(pubResults, DEPLOY_RESPONSES_TYPE),
+                rs.getString("error_message"),
+                rs.getTimestamp("created"),
+                rs.getTimestamp("started"),
+                rs.getTimestamp("completed")
+        );
+    };
+
+    /**
+     * Add a pending deploy job for the given queue; if stagingPostIds is null, the job deploys the entire queue.
+     *
+     * @return the Id of the new job
+     */
+    public final Long add(String username, Long queueId, List<Long> stagingPostIds) throws DataAccessException {
+        String stagingPostIdsJson = stagingPostIds == null ? null : GSON.toJson(stagingPostIds);
+        try {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(conn -> {
+                PreparedStatement ps = conn.prepareStatement(INSERT_SQL, RETURN_GENERATED_KEYS);
+                ps.setLong(1, queueId);
+                ps.setString(2, username);
+                ps.setString(3, stagingPostIdsJson);
+                return ps;
+            }, keyHolder);
+            Map<String, Object> keys = keyHolder.getKeys();
+            return keys == null ? null : ((Number) keys.get("id")).longValue();
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to add deploy job due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "add", e.getMessage(), username, queueId, stagingPostIds);
+        }
+    }
+
+    public final DeployJob findById(String username, Long queueId, Long id) throws DataAccessException {
+        try {
+            List<DeployJob> results = jdbcTemplate.query(FIND_BY_ID_SQL, DEPLOY_JOB_ROW_MAPPER, id, username, queueId);
+            return results.isEmpty() ? null : results.get(0);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to find deploy job due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "findById", e.getMessage(), username, queueId, id);
+        }
+    }
+
+    /**
+     * Claim up to limit pending jobs, in the order in which they were added, on behalf of the given node.
+     */
+    public final List<DeployJob> claim(String nodeIdent, int limit) throws DataAccessException {
+        try {
+            return jdbcTemplate.query(CLAIM_SQL, DEPLOY_JOB_ROW_MAPPER, nodeIdent, limit);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to claim deploy jobs due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "claim", e.getMessage(), nodeIdent, limit);
+        }
+    }
+
+    /**
+     * Record that the given node is still running the given jobs, so that they aren't recovered as stale.
+     */
+    public final void heartbeat(String nodeIdent, List<Long> ids) throws DataAccessException {
+        try {
+            jdbcTemplate.batchUpdate(HEARTBEAT_SQL, ids.stream().map(id -> new Object[]{id, nodeIdent}).toList());
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to record deploy job heartbeat due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "heartbeat", e.getMessage(), nodeIdent, ids);
+        }
+    }
+
+    public final void complete(Long id, Map<String, DeployResponse> deployResponses) throws DataAccessException {
+        try {
+            jdbcTemplate.update(COMPLETE_SQL, GSON.toJson(deployResponses), id);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to complete deploy job due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "complete", e.getMessage(), id);
+        }
+    }
+
+    /**
+     * Record a failed attempt; the job is retried unless it has already been attempted maxAttempts times.
+     */
+    public final void fail(Long id, String errorMessage, int maxAttempts) throws DataAccessException {
+        try {
+            jdbcTemplate.update(FAIL_SQL, maxAttempts, left(errorMessage, MAX_ERROR_MESSAGE_LENGTH), maxAttempts, id);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to fail deploy job due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "fail", e.getMessage(), id, errorMessage, maxAttempts);
+        }
+    }
+
+    /**
+     * Return running jobs whose last heartbeat is older than staleMs (i.e., whose node went away) to the pending state, or
+     * fail them (as completed, so that they're eventually purged) if they've already been attempted maxAttempts times.
+     *
+     * @return the number of jobs recovered
+     */
+    public final int recoverStale(long staleMs, int maxAttempts) throws DataAccessException {
+        try {
+            return jdbcTemplate.update(RECOVER_SQL, maxAttempts, maxAttempts, staleMs);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to recover stale deploy jobs due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "recoverStale", e.getMessage(), staleMs, maxAttempts);
+        }
+    }
+
+    /**
+     * Delete finished jobs that completed more than retentionMs ago.
+     *
+     * @return the number of jobs deleted
+     */
+    public final int purge(long retentionMs) throws DataAccessException {
+        try {
+            return jdbcTemplate.update(PURGE_SQL, retentionMs);
+        } catch (org.springframework.dao.DataAccessException e) {
+            log.error("Unable to purge deploy jobs due to: {}", e.getMessage());
+            throw new DataAccessException(getClass().getSimpleName(), "purge", e.getMessage(), retentionMs);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "DeployJobDao{" +
+                "jdbcTemplate=" + jdbcTemplate +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+package com.lostsidewalk.buffy.app.publish;
+
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.post.StagingPost;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.URI;
+import java.util.Enumeration;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.StringUtils.containsIgnoreCase;
+
+/**
+ * Enqueues asynchronous queue deployments, and reports on their progress.
+ * <p>
+ * Asynchronous deployment is opt-in, per request: when comprss.deployJobs.enabled is set, a write request that carries
+ * a 'Prefer: respond-async' header (RFC 7240) commits its changes, enqueues a deploy job, and returns 202 (Accepted)
+ * with the job Id, rather than waiting on the publishers.  Jobs are run by DeployJobWorker.
+ */
+@Slf4j
+@Service
+public class DeployJobService {
+
+    public static final String PREFER_HEADER_NAME = "Prefer";
+
+    private static final String RESPOND_ASYNC_PREFERENCE = "respond-async";
+
+    @Autowired
+    DeployJobDao deployJobDao;
+
+    @Value("${comprss.deployJobs.enabled:false}")
+    boolean enabled;
+
+    @Value("${api.version}")
+    String apiVersion;
+
+    /**
+     * @return true if asynchronous deployment is enabled, and the current request prefers it
+     */
+    public final boolean isAsyncRequested() {
+        if (!enabled) {
+            return false;
+        }
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes instanceof ServletRequestAttributes servletRequestAttributes) {
+            HttpServletRequest request = servletRequestAttributes.getRequest();
+            Enumeration<String> preferences = request.getHeaders(PREFER_HEADER_NAME);
+            while (preferences != null && preferences.hasMoreElements()) {
+                if (containsIgnoreCase(preferences.nextElement(), RESPOND_ASYNC_PREFERENCE)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Enqueue a deploy job for the given queue; if stagingPosts is null, the job deploys the entire queue.
+     *
+     * @return the Id of the new job
+     */
+    public final Long enqueue(String username, Long queueId, List<StagingPost> stagingPosts) throws DataAccessException {
+        List<Long> stagingPostIds = stagingPosts == null ? null : stagingPosts.stream().map(StagingPost::getId).collect(toList());
+        Long deployJobId = deployJobDao.add(username, queueId, stagingPostIds);
+        log.debug("Enqueued deploy job for username={}, queueId={}, deployJobId={}", username, queueId, deployJobId);
+        return deployJobId;
+    }
+
+    public final DeployJob findById(String username, Long queueId, Long deployJobId) throws DataAccessException {
+        DeployJob deployJob = deployJobDao.findById(username, queueId, deployJobId);
+        if (deployJob == null) {
+            throw new DataAccessException(getClass().getSimpleName(), "findById", "Deploy job not found by Id=" + deployJobId, username, queueId, deployJobId);
+        }
+        return deployJob;
+    }
+
+    /**
+     * @return the location of the status endpoint for the given deploy job
+     */
+    public final URI locate(String queueIdent, Long deployJobId) {
+        return URI.create("/" + apiVersion + "/queues/" + queueIdent + "/deploys/" + deployJobId);
+    }
+
+    @Override
+    public final String toString() {
+        return "DeployJobService{" +
+                "deployJobDao=" + deployJobDao +
+                ", enabled=" + enabled +
+                ", apiVersion='" + apiVersion + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,247 @@
+package com.lostsidewalk.buffy.app.publish;
+
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.DataUpdateException;
+import com.lostsidewalk.buffy.app.model.v1.response.DeployResponse;
+import com.lostsidewalk.buffy.app.post.StagingPostService;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.publisher.Publisher.PubResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.joining;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Runs deploy jobs on a fixed number of worker threads per node.
+ * <p>
+ * Each poll claims no more pending jobs than there are idle workers, so a busy node leaves the backlog to its peers.
+ * A job that fails, or whose publishers report any errors, is retried on a later poll until it has been attempted
+ * maxAttempts times.  Each node heartbeats the jobs it is running every heartbeatMs; a job whose node goes away
+ * mid-deploy is returned to the backlog once its last heartbeat is older than staleMs (which must therefore be
+ * several times heartbeatMs), however long a healthy deploy runs.
+ */
+@Slf4j
+@Component
+public class DeployJobWorker implements MeterBinder, DisposableBean {
+
+    @Autowired
+    DeployJobDao deployJobDao;
+
+    @Autowired
+    PublishCoalescer publishCoalescer;
+
+    @Autowired
+    StagingPostService stagingPostService;
+
+    @Value("${comprss.deployJobs.enabled:false}")
+    boolean enabled;
+
+    @Value("${comprss.deployJobs.workers:2}")
+    int workers;
+
+    @Value("${comprss.deployJobs.maxAttempts:3}")
+    int maxAttempts;
+
+    @Value("${comprss.deployJobs.staleMs:300000}")
+    long staleMs;
+
+    @Value("${comprss.deployJobs.heartbeatMs:60000}")
+    long heartbeatMs;
+
+    @Value("${comprss.deployJobs.retentionMs:86400000}")
+    long retentionMs;
+
+    @Value("${comprss.deployJobs.nodeIdent:}")
+    String nodeIdent;
+
+    private ExecutorService executor;
+
+    private Semaphore idleWorkers;
+
+    private final Set<Long> runningJobIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong completedCount = new AtomicLong();
+
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @PostConstruct
+    void postConstruct() {
+        if (isBlank(nodeIdent)) {
+            nodeIdent = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        idleWorkers = new Semaphore(workers);
+        if (enabled) {
+            executor = newFixedThreadPool(workers, new CustomizableThreadFactory("deploy-job-"));
+        }
+        log.info("Deploy job worker initialized, enabled={}, workers={}, nodeIdent={}", enabled, workers, nodeIdent);
+    }
+
+    @Scheduled(fixedDelayString = "${comprss.deployJobs.pollIntervalMs:1000}")
+    void poll() {
+        if (!enabled) {
+            return;
+        }
+        int idleCt = idleWorkers.availablePermits();
+        if (idleCt == 0) {
+            return;
+        }
+        List<DeployJob> deployJobs;
+        try {
+            deployJobs = deployJobDao.claim(nodeIdent, idleCt);
+        } catch (DataAccessException e) {
+            log.error("Unable to claim deploy jobs due to: {}", e.getMessage());
+            return;
+        }
+        for (DeployJob deployJob : deployJobs) {
+            idleWorkers.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    run(deployJob);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${comprss.deployJobs.heartbeatMs:60000}")
+    void heartbeat() {
+        if (!enabled || runningJobIds.isEmpty()) {
+            return;
+        }
+        try {
+            deployJobDao.heartbeat(nodeIdent, List.copyOf(runningJobIds));
+        } catch (DataAccessException e) {
+            log.error("Unable to record deploy job heartbeat due to: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${comprss.deployJobs.staleMs:300000}")
+    void recover() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int recoveredCt = deployJobDao.recoverStale(staleMs, maxAttempts);
+            int purgedCt = deployJobDao.purge(retentionMs);
+            if (recoveredCt > 0 || purgedCt > 0) {
+                log.info("Deploy job maintenance recovered {} stale jobs, purged {} finished jobs", recoveredCt, purgedCt);
+            }
+        } catch (DataAccessException e) {
+            log.error("Unable to perform deploy job maintenance due to: {}", e.getMessage());
+        }
+    }
+
+    private void run(DeployJob deployJob) {
+        Long deployJobId = deployJob.getId();
+        runningJobIds.add(deployJobId);
+        try {
+            Map<String, PubResult> pubResults = publishCoalescer.publishFeed(deployJob.getUsername(), deployJob.getQueueId(), resolveStagingPosts(deployJob));
+            String pubErrors = describeErrors(pubResults);
+            if (pubErrors == null) {
+                deployJobDao.complete(deployJobId, DeployResponse.from(pubResults));
+                completedCount.incrementAndGet();
+                log.debug("Deploy job completed, deployJobId={}, attempts={}", deployJobId, deployJob.getAttempts());
+            } else {
+                fail(deployJob, pubErrors);
+            }
+        } catch (DataAccessException | DataUpdateException | RuntimeException e) {
+            fail(deployJob, e.getMessage());
+        } finally {
+            runningJobIds.remove(deployJobId);
+        }
+    }
+
+    private void fail(DeployJob deployJob, String errorMessage) {
+        Long deployJobId = deployJob.getId();
+        failedCount.incrementAndGet();
+        log.warn("Deploy job failed, deployJobId={}, attempts={}, due to: {}", deployJobId, deployJob.getAttempts(), errorMessage);
+        try {
+            deployJobDao.fail(deployJobId, errorMessage, maxAttempts);
+        } catch (DataAccessException e) {
+            log.error("Unable to record deploy job failure, deployJobId={}, due to: {}", deployJobId, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the errors reported by any of the given publishers, by publisher identifier, or null if there were none
+     */
+    private static String describeErrors(Map<String, PubResult> pubResults) {
+        if (pubResults == null) {
+            return null;
+        }
+        List<String> descriptions = new ArrayList<>();
+        for (Map.Entry<String, PubResult> e : pubResults.entrySet()) {
+            List<Throwable> errors = e.getValue().getErrors();
+            if (isNotEmpty(errors)) {
+                descriptions.add(e.getKey() + ": " + errors.stream().map(Throwable::getMessage).collect(joining(", ")));
+            }
+        }
+        return descriptions.isEmpty() ? null : "Publisher errors: " + String.join("; ", descriptions);
+    }
+
+    private List<StagingPost> resolveStagingPosts(DeployJob deployJob) throws DataAccessException {
+        List<Long> stagingPostIds = deployJob.getStagingPostIds();
+        return stagingPostIds == null ? null : stagingPostService.findByIds(deployJob.getUsername(), stagingPostIds);
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("comprss.deployJobs.busyWorkers", idleWorkers, s -> workers - s.availablePermits())
+                .description("Deploy job workers currently running a job on this node")
+                .register(registry);
+        FunctionCounter.builder("comprss.deployJobs.completed", completedCount, AtomicLong::get)
+                .description("Deploy jobs completed on this node")
+                .register(registry);
+        FunctionCounter.builder("comprss.deployJobs.failed", failedCount, AtomicLong::get)
+                .description("Deploy job attempts failed on this node")
+                .register(registry);
+    }
+
+    @Override
+    public final void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "DeployJobWorker{" +
+                "deployJobDao=" + deployJobDao +
+                ", publishCoalescer=" + publishCoalescer +
+                ", stagingPostService=" + stagingPostService +
+                ", enabled=" + enabled +
+                ", workers=" + workers +
+                ", maxAttempts=" + maxAttempts +
+                ", staleMs=" + staleMs +
+                ", heartbeatMs=" + heartbeatMs +
+                ", retentionMs=" + retentionMs +
+                ", nodeIdent='" + nodeIdent + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,283 @@
+package com.lostsidewalk.buffy.app.publish;
+
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.DataUpdateException;
+import com.lostsidewalk.buffy.PostPublisher;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.publisher.Publisher.PubResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.isActualTransactionActive;
+
+/**
+ * Coalesces publish requests for the same queue, so that a burst of updates regenerates the feed once.
+ * <p>
+ * The first request for a queue opens a batch and becomes its leader; requests that arrive before the batch closes
+ * merge their staging posts into it (a later copy of a post replaces an earlier one) and wait for its result.  The
+ * leader closes the batch, publishes it, and hands the shared PubResult map to every waiter.  A batch that includes
+ * a full publish request is published in full, since that subsumes any post-level changes merged alongside it.
+ * <p>
+ * Publishes of the same queue never overlap, and each one starts at least minIntervalMs after the previous one, so
+ * the publish rate per queue stays bounded regardless of the request rate; requests that arrive meanwhile simply
+ * collect in the next batch.  A leader whose batch opened while another publish of the queue was running also waits
+ * out the coalescing window (windowMs) before closing it; an uncontended request is published without delay.
+ * <p>
+ * The state kept for each queue is pinned while any request for the queue is in flight, and dropped only once the
+ * queue has been idle for idleMs (which should be well above minIntervalMs).
+ * <p>
+ * Each batch is published by its leader, on the leader's own thread.
+ * <p>
+ * Requests made inside an active transaction are published immediately, on the calling thread, since the changes
+ * they publish are not yet visible to other threads.  Setting both windowMs and minIntervalMs to zero disables
+ * coalescing altogether.
+ */
+@Slf4j
+@Component
+public class PublishCoalescer implements MeterBinder {
+
+    @Autowired
+    PostPublisher postPublisher;
+
+    @Value("${comprss.publishCoalescer.windowMs:250}")
+    long windowMs;
+
+    @Value("${comprss.publishCoalescer.minIntervalMs:1000}")
+    long minIntervalMs;
+
+    @Value("${comprss.publishCoalescer.idleMs:60000}")
+    long idleMs;
+
+    final ConcurrentMap<Long, QueueState> queueStates = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong publishCount = new AtomicLong();
+
+    private static final class QueueState {
+
+        private final Lock publishLock = new ReentrantLock();
+
+        private long lastPublishNanos; // guarded by publishLock
+
+        private PendingPublish pending; // guarded by this
+
+        private int pinCt; // changed only within queueStates.compute
+
+        private long lastUnpinnedNanos; // likewise
+
+        private QueueState(long lastPublishNanos) {
+            this.lastPublishNanos = lastPublishNanos;
+        }
+    }
+
+    private static final class PendingPublish {
+
+        private final String username;
+
+        private final CompletableFuture<Map<String, PubResult>> result = new CompletableFuture<>();
+
+        private final Map<Long, StagingPost> stagingPosts = new LinkedHashMap<>();
+
+        private boolean fullPublish;
+
+        private int requestCt;
+
+        private PendingPublish(String username) {
+            this.username = username;
+        }
+
+        private void merge(List<StagingPost> posts) {
+            requestCt++;
+            if (posts == null) {
+                fullPublish = true;
+            } else {
+                for (StagingPost post : posts) {
+                    stagingPosts.put(post.getId(), post);
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        log.info("Publish coalescer initialized, windowMs={}, minIntervalMs={}, idleMs={}", windowMs, minIntervalMs, idleMs);
+    }
+
+    @Scheduled(fixedDelayString = "${comprss.publishCoalescer.idleMs:60000}")
+    void evictIdle() {
+        long idleNanos = MILLISECONDS.toNanos(idleMs);
+        for (Long queueId : queueStates.keySet()) {
+            queueStates.computeIfPresent(queueId, (k, state) ->
+                    state.pinCt == 0 && nanoTime() - state.lastUnpinnedNanos >= idleNanos ? null : state);
+        }
+    }
+
+    /**
+     * Publish the entire queue given by queueId.
+     */
+    public final Map<String, PubResult> publishFeed(String username, Long queueId) throws DataAccessException, DataUpdateException {
+        return publishFeed(username, queueId, null);
+    }
+
+    /**
+     * Publish the given staging posts to the queue given by queueId; if stagingPosts is null, publish the entire queue.
+     */
+    public final Map<String, PubResult> publishFeed(String username, Long queueId, List<StagingPost> stagingPosts) throws DataAccessException, DataUpdateException {
+        requestCount.incrementAndGet();
+        if ((windowMs <= 0L && minIntervalMs <= 0L) || isActualTransactionActive()) {
+            publishCount.incrementAndGet();
+            return publish(username, queueId, stagingPosts);
+        }
+        QueueState state = pin(queueId);
+        try {
+            PendingPublish pending;
+            boolean isLeader;
+            synchronized (state) {
+                pending = state.pending;
+                isLeader = pending == null;
+                if (isLeader) {
+                    pending = new PendingPublish(username);
+                    state.pending = pending;
+                }
+                pending.merge(stagingPosts);
+            }
+            if (isLeader) {
+                publishBatch(queueId, state, pending);
+            }
+            return await(pending);
+        } finally {
+            unpin(queueId);
+        }
+    }
+
+    /**
+     * Unpublish the queue given by queueId, once any publish of that queue that is already underway has finished.
+     */
+    public final void unpublishFeed(String username, Long queueId) throws DataAccessException, DataUpdateException {
+        QueueState state = pin(queueId);
+        state.publishLock.lock();
+        try {
+            postPublisher.unpublishFeed(username, queueId);
+        } finally {
+            state.publishLock.unlock();
+            unpin(queueId);
+        }
+    }
+
+    private QueueState pin(Long queueId) {
+        return queueStates.compute(queueId, (k, s) -> {
+            QueueState state = s == null ? new QueueState(nanoTime() - MILLISECONDS.toNanos(minIntervalMs)) : s;
+            state.pinCt++;
+            return state;
+        });
+    }
+
+    private void unpin(Long queueId) {
+        queueStates.computeIfPresent(queueId, (k, state) -> {
+            state.pinCt--;
+            state.lastUnpinnedNanos = nanoTime();
+            return state;
+        });
+    }
+
+    private void publishBatch(Long queueId, QueueState state, PendingPublish pending) {
+        // only a batch that opened behind another publish is held open for the window; an uncontended one goes now
+        boolean isContended = !state.publishLock.tryLock();
+        if (isContended) {
+            state.publishLock.lock();
+        }
+        try {
+            long intervalDelayNanos = state.lastPublishNanos + MILLISECONDS.toNanos(minIntervalMs) - nanoTime();
+            long delayNanos = isContended ? max(MILLISECONDS.toNanos(windowMs), intervalDelayNanos) : intervalDelayNanos;
+            sleepUninterruptibly(delayNanos, NANOSECONDS);
+            synchronized (state) {
+                state.pending = null;
+            }
+            state.lastPublishNanos = nanoTime();
+            publishCount.incrementAndGet();
+            List<StagingPost> stagingPosts = pending.fullPublish ? null : new ArrayList<>(pending.stagingPosts.values());
+            log.debug("Publishing coalesced batch for queueId={}, requestCt={}, fullPublish={}, postCt={}",
+                    queueId, pending.requestCt, pending.fullPublish, pending.stagingPosts.size());
+            pending.result.complete(publish(pending.username, queueId, stagingPosts));
+        } catch (DataAccessException | DataUpdateException | RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        } finally {
+            state.publishLock.unlock();
+        }
+    }
+
+    private Map<String, PubResult> publish(String username, Long queueId, List<StagingPost> stagingPosts) throws DataAccessException, DataUpdateException {
+        return stagingPosts == null ?
+                postPublisher.publishFeed(username, queueId) :
+                postPublisher.publishFeed(username, queueId, stagingPosts);
+    }
+
+    private static Map<String, PubResult> await(PendingPublish pending) throws DataAccessException, DataUpdateException {
+        try {
+            return getUninterruptibly(pending.result);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DataAccessException d) {
+                throw d;
+            }
+            if (cause instanceof DataUpdateException d) {
+                throw d;
+            }
+            if (cause instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("comprss.publishCoalescer.queueStates", queueStates, Map::size)
+                .description("Queues with publish state held on this node")
+                .register(registry);
+        FunctionCounter.builder("comprss.publishCoalescer.requests", requestCount, AtomicLong::get)
+                .description("Publish requests received")
+                .register(registry);
+        FunctionCounter.builder("comprss.publishCoalescer.publishes", publishCount, AtomicLong::get)
+                .description("Publishes performed after coalescing")
+                .register(registry);
+    }
+
+    @Override
+    public final String toString() {
+        return "PublishCoalescer{" +
+                "postPublisher=" + postPublisher +
+                ", windowMs=" + windowMs +
+                ", minIntervalMs=" + minIntervalMs +
+                ", idleMs=" + idleMs +
+                '}';
+    }
+}
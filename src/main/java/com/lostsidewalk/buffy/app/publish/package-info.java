@@ -0,0 +1,4 @@
+/**
+ *
+ */
+package com.lostsidewalk.buffy.app.publish;
@@ -0,0 +1,153 @@
+package com.lostsidewalk.buffy.app.pwencoder;
+
+import com.lostsidewalk.buffy.app.audit.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A password encoder that runs every encode/match call on a small, dedicated pool of hashing threads.
+ * <p>
+ * The calling (request) thread blocks until its hash is done, for at most the configured timeout.  What this bounds
+ * is the amount of hashing in flight: admission is limited by a semaphore with one permit per hashing thread plus one
+ * per queue slot, and a call that can't get a permit is shed immediately with a PasswordHashingRejectedException.  A
+ * permit is held until its hash actually finishes, so a call that times out (and is shed) keeps its permit for as
+ * long as its hash still occupies a hashing thread; hashing can't be interrupted.  A call that times out before its
+ * hash has started is dropped, and its permit released.  Stale work therefore can't pile up behind the pool, and a
+ * burst of logins cannot starve the rest of the application.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Semaphore permits;
+
+    private final long timeoutMs;
+
+    private final AtomicLong shedCount = new AtomicLong();
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long timeoutMs) {
+        this.delegate = delegate;
+        // the queue is bounded by the permits (dropped calls leave behind only no-op entries)
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("pw-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.permits = new Semaphore(poolSize + queueCapacity);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public final String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public final boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public final boolean upgradeEncoding(String encodedPassword) {
+        // inspects the hash prefix only, no need to offload
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        if (!permits.tryAcquire()) {
+            throw shed("Password hashing capacity exceeded");
+        }
+        // whichever of the hashing thread (on start) and the caller (on giving up) claims the call first owns the permit
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return; // the caller gave up before the hash started
+                }
+                try {
+                    result.complete(task.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw shed("Password hashing capacity exceeded");
+        }
+        try {
+            return result.get(timeoutMs, MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(claimed);
+            throw shed("Password hashing timed out after " + timeoutMs + "ms");
+        } catch (InterruptedException e) {
+            abandon(claimed);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Password hashing interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void abandon(AtomicBoolean claimed) {
+        if (claimed.compareAndSet(false, true)) {
+            permits.release(); // the hash never started, and now never will
+        }
+        // otherwise, the hash is running, and releases its own permit when it's done
+    }
+
+    private PasswordHashingRejectedException shed(String message) {
+        shedCount.incrementAndGet();
+        log.warn("Shedding password hashing request, reason={}, availablePermits={}", message, permits.availablePermits());
+        return new PasswordHashingRejectedException(message);
+    }
+
+    @Override
+    public final void bindTo(@NonNull MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "passwordHashing", emptyList()).bindTo(registry);
+        FunctionCounter.builder("comprss.passwordHashing.shed", shedCount, AtomicLong::get)
+                .description("Password hashing calls rejected due to a lack of capacity or a timeout")
+                .register(registry);
+        Gauge.builder("comprss.passwordHashing.permits.available", permits, Semaphore::availablePermits)
+                .description("Password hashing calls that may still be admitted")
+                .register(registry);
+    }
+
+    @Override
+    public final void destroy() {
+        executor.shutdown();
+    }
+
+    @Override
+    public final String toString() {
+        return "BoundedPasswordEncoder{" +
+                "delegate=" + delegate +
+                ", poolSize=" + executor.getMaximumPoolSize() +
+                ", availablePermits=" + permits.availablePermits() +
+                ", timeoutMs=" + timeoutMs +
+                '}';
+    }
+}
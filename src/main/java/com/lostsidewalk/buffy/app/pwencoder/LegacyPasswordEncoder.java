@@ -0,0 +1,52 @@
+package com.lostsidewalk.buffy.app.pwencoder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Matches passwords stored before encoder ids were recorded alongside the hash, i.e., either a bare BCrypt hash or
+ * the password itself.  Any password it matches is re-encoded with the current encoder on the next successful login;
+ * likewise, encoding is handed to the current encoder, so this encoder never produces a legacy hash.
+ */
+@Slf4j
+class LegacyPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
+
+    private final PasswordEncoder upgradeEncoder;
+
+    LegacyPasswordEncoder(PasswordEncoder upgradeEncoder) {
+        this.upgradeEncoder = upgradeEncoder;
+    }
+
+    @Override
+    public final String encode(CharSequence rawPassword) {
+        return upgradeEncoder.encode(rawPassword);
+    }
+
+    @Override
+    public final boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        if (BCRYPT_PATTERN.matcher(encodedPassword).matches()) {
+            return bCryptPasswordEncoder.matches(rawPassword, encodedPassword);
+        }
+        byte[] expected = encodedPassword.getBytes(UTF_8);
+        byte[] actual = rawPassword.toString().getBytes(UTF_8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public final boolean upgradeEncoding(String encodedPassword) {
+        return true;
+    }
+}
@@ -1,19 +1,103 @@
 package com.lostsidewalk.buffy.app.pwencoder;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 @Slf4j
 @Configuration
 public class PasswordEncoderConfig {
 
-    @SuppressWarnings({"DesignForExtension", "MethodMayBeStatic"})
+    private static final String BCRYPT_ID = "bcrypt";
+
+    private static final String ARGON2_ID = "argon2";
+
+    private static final String ID_PREFIX = "{";
+
+    private static final String ID_SUFFIX = "}";
+
+    @Value("${comprss.passwordEncoder.id:bcrypt}")
+    String encoderId;
+
+    @Value("${comprss.passwordEncoder.bcrypt.strength:10}")
+    int bcryptStrength;
+
+    @Value("${comprss.passwordEncoder.argon2.saltLength:16}")
+    int argon2SaltLength;
+
+    @Value("${comprss.passwordEncoder.argon2.hashLength:32}")
+    int argon2HashLength;
+
+    @Value("${comprss.passwordEncoder.argon2.parallelism:1}")
+    int argon2Parallelism;
+
+    @Value("${comprss.passwordEncoder.argon2.memoryKb:16384}")
+    int argon2MemoryKb;
+
+    @Value("${comprss.passwordEncoder.argon2.iterations:2}")
+    int argon2Iterations;
+
+    @Value("${comprss.passwordEncoder.poolSize:2}")
+    int poolSize;
+
+    @Value("${comprss.passwordEncoder.queueCapacity:32}")
+    int queueCapacity;
+
+    @Value("${comprss.passwordEncoder.timeoutMs:5000}")
+    long timeoutMs;
+
+    @SuppressWarnings("DesignForExtension")
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        Map<String, PasswordEncoder> encoders = new HashMap<>(2);
+        encoders.put(BCRYPT_ID, new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put(ARGON2_ID, new Argon2PasswordEncoder(argon2SaltLength, argon2HashLength, argon2Parallelism, argon2MemoryKb, argon2Iterations));
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalArgumentException("Unsupported password encoder id: " + encoderId);
+        }
+        // hashes are stored as {id}hash; anything without an id predates this and is upgraded on next login
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(new LegacyPasswordEncoder(new DelegatingPasswordEncoder(encoderId, encoders)));
+        log.info("Password encoder initialized, encoderId={}, poolSize={}, queueCapacity={}, timeoutMs={}", encoderId, poolSize, queueCapacity, timeoutMs);
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, poolSize, queueCapacity, timeoutMs);
+    }
+
+    /**
+     * Strip the {id} prefix from a hash produced by the password encoder.  API secrets are issued as a bare hash, and
+     * are compared as-is rather than matched by an encoder, so the encoder id belongs only on stored password hashes.
+     */
+    public static String withoutEncoderId(String encodedPassword) {
+        if (encodedPassword != null && encodedPassword.startsWith(ID_PREFIX)) {
+            int end = encodedPassword.indexOf(ID_SUFFIX);
+            if (end > 0) {
+                return encodedPassword.substring(end + ID_SUFFIX.length());
+            }
+        }
+        return encodedPassword;
+    }
+
+    @Override
+    public final String toString() {
+        return "PasswordEncoderConfig{" +
+                "encoderId='" + encoderId + '\'' +
+                ", bcryptStrength=" + bcryptStrength +
+                ", argon2SaltLength=" + argon2SaltLength +
+                ", argon2HashLength=" + argon2HashLength +
+                ", argon2Parallelism=" + argon2Parallelism +
+                ", argon2MemoryKb=" + argon2MemoryKb +
+                ", argon2Iterations=" + argon2Iterations +
+                ", poolSize=" + poolSize +
+                ", queueCapacity=" + queueCapacity +
+                ", timeoutMs=" + timeoutMs +
+                '}';
     }
 }
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.UUID;
 
 import static java.util.Collections.emptyList;
+import static java.util.Comparator.comparing;
 
 
 @Slf4j
@@ -48,6 +49,21 @@ public class QueueDefinitionService {
         return emptyList();
     }
 
+    /**
+     * Get one page of the given user's queue definitions, in Id order.  The user's queues are read in one query, as for
+     * an unpaged listing, and paged in memory.
+     *
+     * @param afterId if not null, the keyset cursor: only queues with greater Ids are included
+     * @param limit   the maximum number of queues to return, if not null
+     */
+    public final List<QueueDefinition> findByUser(String username, Long afterId, Integer limit) throws DataAccessException {
+        return findByUser(username).stream()
+                .filter(queueDefinition -> afterId == null || queueDefinition.getId() > afterId)
+                .sorted(comparing(QueueDefinition::getId))
+                .limit(limit == null ? Long.MAX_VALUE : limit)
+                .toList();
+    }
+
     @SuppressWarnings("NestedMethodCall")
     public final Long createQueue(String username, QueueConfigRequest queueConfigRequest) throws DataAccessException, DataUpdateException, DataConflictException {
         Serializable newTransportIdent = getNewTransportIdent();
@@ -1,10 +1,12 @@
 package com.lostsidewalk.buffy.app.security;
 
 import com.lostsidewalk.buffy.app.auth.*;
+import com.lostsidewalk.buffy.app.paginator.PageCursor;
 import com.lostsidewalk.buffy.app.user.CustomOAuth2UserService;
 import jakarta.annotation.PostConstruct;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -59,6 +61,8 @@ class WebSecurityConfig {
 
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        // re-encode outdated password hashes on successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
 
         return authProvider;
     }
@@ -117,29 +121,15 @@ class WebSecurityConfig {
                     configuration.setAllowedOriginPatterns(singletonList(compRssOriginUrl));
                     configuration.setAllowedMethods(singletonList("*"));
                     configuration.setAllowedHeaders(singletonList("*"));
+                    configuration.setExposedHeaders(ListUtils.union(RateLimitingFilter.RATE_LIMIT_RESPONSE_HEADER_NAMES, PageCursor.PAGE_CURSOR_RESPONSE_HEADER_NAMES));
                     configuration.setAllowCredentials(true);
                     return configuration;
                 }))
                 .authorizeHttpRequests(a ->
-                        a.requestMatchers("/").permitAll() // index
-                                .requestMatchers("/authenticate").permitAll() // user authentication (login)
+                        a.requestMatchers(OpenRoute.permitAllPatterns()).permitAll() // index, login/logout, registration, etc.
                                 .requestMatchers("/oauth2/**").authenticated() // oauth2
-                                .requestMatchers("/pw_reset").permitAll() // password reset (init)
-                                .requestMatchers("/pw_reset/**").permitAll() // password reset w/token (get-back)
-                                .requestMatchers("/deauthenticate").permitAll() // user de-authentication (logout)
-                                .requestMatchers("/register").permitAll() // user registration (init)
-                                .requestMatchers("/verify/**").permitAll() // verification (i.e., user registration get-back)
-                                .requestMatchers("/stripe").permitAll() // stripe callback (payment)
-                                // permit actuators
-                                .requestMatchers("/actuator").permitAll()
-                                .requestMatchers("/actuator/**").permitAll()
                                 // permit options calls
                                 .requestMatchers(OPTIONS, "/**").permitAll() // OPTIONS calls are validated downstream by checking for the presence of required headers
-                                // permit image proxy calls
-                                .requestMatchers("/proxy/unsecured/**").permitAll()
-                                // permit API docs V3
-                                .requestMatchers("/v3/api-docs").permitAll()
-                                .requestMatchers("/v3/api-docs/**").permitAll()
                                 // (all others require authentication)
                                 .anyRequest().authenticated()
                 ).sessionManagement(sessionManagementCustomizer -> sessionManagementCustomizer.sessionCreationPolicy(STATELESS))
@@ -28,6 +28,7 @@ import org.springframework.stereotype.Service;
 import java.util.*;
 import java.util.stream.Collector;
 
+import static com.lostsidewalk.buffy.app.pwencoder.PasswordEncoderConfig.withoutEncoderId;
 import static com.lostsidewalk.buffy.app.user.CustomOAuth2UserService.CustomOAuth2ErrorCodes.*;
 import static com.lostsidewalk.buffy.app.user.OAuth2UserInfoFactory.getOAuth2UserInfo;
 import static com.lostsidewalk.buffy.app.user.UserPrincipal.create;
@@ -179,7 +180,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         }
         String uuid = UUID.randomUUID().toString();
         String rawApiSecret = generateRandomString(32);
-        String secret = passwordEncoder.encode(rawApiSecret);
+        String secret = withoutEncoderId(passwordEncoder.encode(rawApiSecret));
         Long id = user.getId();
         ApiKey apiKey = ApiKey.from(id, uuid, secret);
         return apiKeyDao.add(apiKey);
@@ -4,10 +4,10 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.DataUpdateException;
-import com.lostsidewalk.buffy.PostPublisher;
 import com.lostsidewalk.buffy.app.model.v1.response.PostConfigResponse;
 import com.lostsidewalk.buffy.app.model.v1.response.PostDTO;
 import com.lostsidewalk.buffy.app.post.StagingPostService;
+import com.lostsidewalk.buffy.app.publish.PublishCoalescer;
 import com.lostsidewalk.buffy.app.queue.QueueDefinitionService;
 import com.lostsidewalk.buffy.post.StagingPost;
 import com.lostsidewalk.buffy.publisher.Publisher.PubResult;
@@ -35,7 +35,7 @@ public abstract class BasePostController {
     StagingPostService stagingPostService;
 
     @Autowired
-    PostPublisher postPublisher;
+    PublishCoalescer publishCoalescer;
 
     @Autowired
     Validator validator;
@@ -56,7 +56,7 @@ public abstract class BasePostController {
         boolean isPublished = updatedPost.isPublished();
         Map<String, PubResult> pubResults = null;
         if (isPublished) {
-            pubResults = postPublisher.publishFeed(username, queueId, singletonList(updatedPost)); // TODO: unit test
+            pubResults = publishCoalescer.publishFeed(username, queueId, singletonList(updatedPost)); // TODO: unit test
         }
         return pubResults;
     }
@@ -77,8 +77,8 @@ public abstract class BasePostController {
         return stagingPostService;
     }
 
-    protected final PostPublisher getPostPublisher() {
-        return postPublisher;
+    protected final PublishCoalescer getPublishCoalescer() {
+        return publishCoalescer;
     }
 
     protected final Validator getValidator() {
@@ -90,7 +90,7 @@ public abstract class BasePostController {
         return "BasePostController{" +
                 "queueDefinitionService=" + queueDefinitionService +
                 ", stagingPostService=" + stagingPostService +
-                ", postPublisher=" + postPublisher +
+                ", publishCoalescer=" + publishCoalescer +
                 ", validator=" + validator +
                 '}';
     }
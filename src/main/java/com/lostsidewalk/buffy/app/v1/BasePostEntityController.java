@@ -2,12 +2,12 @@ package com.lostsidewalk.buffy.app.v1;
 
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.DataUpdateException;
-import com.lostsidewalk.buffy.PostPublisher;
 import com.lostsidewalk.buffy.app.audit.AppLogService;
 import com.lostsidewalk.buffy.app.model.v1.response.PostConfigResponse;
 import com.lostsidewalk.buffy.app.model.v1.response.PostDTO;
 import com.lostsidewalk.buffy.app.paginator.Paginator;
 import com.lostsidewalk.buffy.app.post.StagingPostService;
+import com.lostsidewalk.buffy.app.publish.PublishCoalescer;
 import com.lostsidewalk.buffy.app.queue.QueueDefinitionService;
 import com.lostsidewalk.buffy.post.StagingPost;
 import com.lostsidewalk.buffy.publisher.Publisher;
@@ -39,7 +39,7 @@ public abstract class BasePostEntityController<T> {
     StagingPostService stagingPostService;
 
     @Autowired
-    PostPublisher postPublisher;
+    PublishCoalescer publishCoalescer;
 
     @Autowired
     Validator validator;
@@ -125,7 +125,7 @@ public abstract class BasePostEntityController<T> {
         boolean isPublished = updatedPost.isPublished();
         Map<String, Publisher.PubResult> pubResults = null;
         if (isPublished) {
-            pubResults = postPublisher.publishFeed(username, queueId, singletonList(updatedPost)); // TODO: unit test
+            pubResults = publishCoalescer.publishFeed(username, queueId, singletonList(updatedPost)); // TODO: unit test
         }
         return pubResults;
     }
@@ -147,7 +147,7 @@ public abstract class BasePostEntityController<T> {
         return "BasePostEntityController{" +
                 "queueDefinitionService=" + queueDefinitionService +
                 ", stagingPostService=" + stagingPostService +
-                ", postPublisher=" + postPublisher +
+                ", publishCoalescer=" + publishCoalescer +
                 ", validator=" + validator +
                 '}';
     }
@@ -2,24 +2,30 @@ package com.lostsidewalk.buffy.app.v1;
 
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.DataUpdateException;
-import com.lostsidewalk.buffy.PostPublisher;
 import com.lostsidewalk.buffy.app.audit.AppLogService;
+import com.lostsidewalk.buffy.app.audit.BadRequestException;
 import com.lostsidewalk.buffy.app.model.v1.response.QueueConfigResponse;
 import com.lostsidewalk.buffy.app.model.v1.response.QueueDTO;
 import com.lostsidewalk.buffy.app.post.StagingPostService;
+import com.lostsidewalk.buffy.app.publish.DeployJobService;
+import com.lostsidewalk.buffy.app.publish.PublishCoalescer;
 import com.lostsidewalk.buffy.app.queue.QueueDefinitionService;
+import com.lostsidewalk.buffy.post.StagingPost;
 import com.lostsidewalk.buffy.publisher.Publisher;
 import com.lostsidewalk.buffy.queue.QueueDefinition;
 import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.time.StopWatch;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Map;
 
 import static org.apache.commons.lang3.time.StopWatch.createStarted;
+import static org.springframework.http.ResponseEntity.accepted;
 import static org.springframework.http.ResponseEntity.ok;
 
 @Slf4j
@@ -34,14 +40,36 @@ public class BaseQueueController {
     StagingPostService stagingPostService;
 
     @Autowired
-    PostPublisher postPublisher;
+    PublishCoalescer publishCoalescer;
+
+    @Autowired
+    DeployJobService deployJobService;
 
     @Autowired
     Validator validator;
 
+    @Value("${comprss.paging.maxLimit:1000}")
+    int maxLimit;
+
+    /**
+     * @throws BadRequestException if the requested page size is greater than maxLimit
+     */
+    protected final void checkLimit(Integer limit) {
+        if (limit != null && limit > maxLimit) {
+            throw new BadRequestException("Limit cannot be greater than " + maxLimit);
+        }
+    }
+
     protected final ResponseEntity<QueueConfigResponse> finalizeDeleteEntity(String username, StopWatch deleteTimer, Long queueId, String attrName) throws DataAccessException, DataUpdateException {
         StopWatch finalizeTimer = createStarted();
-        Map<String, Publisher.PubResult> pubResults = postPublisher.publishFeed(username, queueId);
+        if (deployJobService.isAsyncRequested()) {
+            QueueDefinition queueDefinition = queueDefinitionService.findByQueueId(username, queueId);
+            ResponseEntity<QueueConfigResponse> response = acceptDeploy(username, queueDefinition, null);
+            finalizeTimer.stop();
+            AppLogService.logQueueAttributeDelete(username, deleteTimer, finalizeTimer, queueId, attrName, null);
+            return response;
+        }
+        Map<String, Publisher.PubResult> pubResults = publishCoalescer.publishFeed(username, queueId);
         QueueDefinition queueDefinition = queueDefinitionService.findByQueueId(username, queueId);
         QueueConfigResponse queueConfigResponse = prepareResponse(queueDefinition, pubResults);
         finalizeTimer.stop();
@@ -52,13 +80,30 @@ public class BaseQueueController {
     protected final ResponseEntity<QueueConfigResponse> finalizeUpdateEntity(String username, StopWatch updateTimer, QueueDefinition queueDefinition, String attrName) throws DataAccessException, DataUpdateException {
         StopWatch finalizeTimer = createStarted();
         long queueId = queueDefinition.getId();
-        Map<String, Publisher.PubResult> pubResults = postPublisher.publishFeed(username, queueId);
+        if (deployJobService.isAsyncRequested()) {
+            ResponseEntity<QueueConfigResponse> response = acceptDeploy(username, queueDefinition, null);
+            finalizeTimer.stop();
+            AppLogService.logQueueAttributeUpdate(username, updateTimer, finalizeTimer, queueId, attrName, null);
+            return response;
+        }
+        Map<String, Publisher.PubResult> pubResults = publishCoalescer.publishFeed(username, queueId);
         QueueConfigResponse queueConfigResponse = prepareResponse(queueDefinition, pubResults);
         finalizeTimer.stop();
         AppLogService.logQueueAttributeUpdate(username, updateTimer, finalizeTimer, queueId, attrName, pubResults);
         return ok().body(queueConfigResponse);
     }
 
+    /**
+     * Enqueue a deploy job for the given queue (or only the given staging posts, if not null), and respond with 202
+     * (Accepted) and the location of the deploy job.
+     */
+    protected final ResponseEntity<QueueConfigResponse> acceptDeploy(String username, QueueDefinition queueDefinition, List<StagingPost> stagingPosts) throws DataAccessException {
+        Long deployJobId = deployJobService.enqueue(username, queueDefinition.getId(), stagingPosts);
+        QueueConfigResponse queueConfigResponse = QueueConfigResponse.from(QueueDTO.from(queueDefinition), deployJobId);
+        validator.validate(queueConfigResponse);
+        return accepted().location(deployJobService.locate(queueDefinition.getIdent(), deployJobId)).body(queueConfigResponse);
+    }
+
     protected final QueueConfigResponse prepareResponse(QueueDefinition updatedQueue, Map<String, Publisher.PubResult> pubResults) {
         QueueDTO queueDTO = QueueDTO.from(updatedQueue);
         QueueConfigResponse queueConfigResponse = QueueConfigResponse.from(queueDTO, pubResults);
@@ -71,7 +116,8 @@ public class BaseQueueController {
         return "BaseQueueController{" +
                 "queueDefinitionService=" + queueDefinitionService +
                 ", stagingPostService=" + stagingPostService +
-                ", postPublisher=" + postPublisher +
+                ", publishCoalescer=" + publishCoalescer +
+                ", deployJobService=" + deployJobService +
                 ", validator=" + validator +
                 '}';
     }
@@ -84,8 +130,12 @@ public class BaseQueueController {
         return stagingPostService;
     }
 
-    protected final PostPublisher getPostPublisher() {
-        return postPublisher;
+    protected final PublishCoalescer getPublishCoalescer() {
+        return publishCoalescer;
+    }
+
+    protected final DeployJobService getDeployJobService() {
+        return deployJobService;
     }
 
     protected final Validator getValidator() {
@@ -946,7 +946,7 @@ public class PostController extends BasePostController {
         if (stagingPost.isPublished()) {
             StagingPost updatedPost = getStagingPostService().updatePostPubStatus(username, postId, DEPUB_PENDING);
             long queueId = getStagingPostService().resolveQueueId(username, postId);
-            pubResults = getPostPublisher().publishFeed(
+            pubResults = getPublishCoalescer().publishFeed(
                     username,
                     queueId,
                     singletonList(updatedPost)
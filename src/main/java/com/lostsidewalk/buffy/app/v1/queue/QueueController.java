@@ -5,12 +5,17 @@ import com.google.gson.GsonBuilder;
 import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.DataConflictException;
 import com.lostsidewalk.buffy.DataUpdateException;
+import com.lostsidewalk.buffy.app.audit.BadRequestException;
 import com.lostsidewalk.buffy.app.etag.ETagger;
 import com.lostsidewalk.buffy.app.model.v1.request.PostConfigRequest;
 import com.lostsidewalk.buffy.app.model.v1.request.QueueAuthUpdateRequest;
 import com.lostsidewalk.buffy.app.model.v1.request.QueueConfigRequest;
 import com.lostsidewalk.buffy.app.model.v1.response.*;
+import com.lostsidewalk.buffy.app.paginator.PageCursor;
 import com.lostsidewalk.buffy.app.paginator.Paginator;
+import com.lostsidewalk.buffy.app.post.PostImportReader.Format;
+import com.lostsidewalk.buffy.app.post.PostImportResult;
+import com.lostsidewalk.buffy.app.post.StagingPostPageDao.SortOrder;
 import com.lostsidewalk.buffy.app.utils.ResponseMessageUtils;
 import com.lostsidewalk.buffy.app.v1.BaseQueueController;
 import com.lostsidewalk.buffy.post.StagingPost;
@@ -23,6 +28,7 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
@@ -38,12 +44,15 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.net.URI;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 import static com.lostsidewalk.buffy.app.audit.AppLogService.*;
+import static com.lostsidewalk.buffy.app.post.PostImportReader.CSV_MEDIA_TYPE;
+import static com.lostsidewalk.buffy.app.post.PostImportReader.NDJSON_MEDIA_TYPE;
 import static com.lostsidewalk.buffy.app.utils.HttpUtils.isPatch;
 import static com.lostsidewalk.buffy.app.utils.ResponseMessageUtils.buildResponseMessage;
 import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.PUB_PENDING;
@@ -115,7 +124,7 @@ public class QueueController extends BaseQueueController {
         // re-fetch this queue definition
         QueueDefinition queueDefinition = getQueueDefinitionService().findByQueueId(username, queueId);
         QueueDTO queueDTO = QueueDTO.from(queueDefinition);
-        Map<String, PubResult> pubResults = getPostPublisher().publishFeed(username, queueId);
+        Map<String, PubResult> pubResults = getPublishCoalescer().publishFeed(username, queueId);
         QueueConfigResponse queueConfigResponse = QueueConfigResponse.from(queueDTO, pubResults);
         getValidator().validate(queueConfigResponse);
         String rss20Url = pubResults.get("RSS_20").getUserIdentUrl();
@@ -138,7 +147,8 @@ public class QueueController extends BaseQueueController {
      * @param queueIdent            The identifier of the queue into which the new posts should be added.
      * @param postConfigRequests    A list of PostConfigRequests, representing new posts to add.
      * @param authentication        The authentication details of the user making the request.
-     * @return a ResponseEntity containing the created posts
+     * @return a ResponseEntity containing the created posts; with a 'Prefer: respond-async' header (if enabled), a 202
+     * response whose location is the status of the deploy job.
      * @throws DataAccessException   If there's an issue accessing data.
      * @throws DataUpdateException   If there's an issue updating data.
      * @throws DataConflictException If there is a duplicate key.
@@ -147,6 +157,9 @@ public class QueueController extends BaseQueueController {
     @ApiResponse(responseCode = "201", description = "Successfully created posts",
             content = @Content(mediaType = "application/json",
                     array = @ArraySchema(schema = @Schema(implementation = PostCreateResponse.class))))
+    @ApiResponse(responseCode = "202", description = "Successfully created posts, deployment in progress",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = PostCreateResponse.class))))
     @PostMapping(value = "/${api.version}/queues/{queueIdent}/posts", produces = APPLICATION_JSON_VALUE, consumes = APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAuthority('API_ROLE_VERIFIED')")
     public ResponseEntity<PostCreateResponse> createPosts(
@@ -166,15 +179,21 @@ public class QueueController extends BaseQueueController {
         log.debug("createPosts adding {} posts for for user={}, queueIdent={}", size(postConfigRequests), username, queueIdent);
         StopWatch stopWatch = createStarted();
         long queueId = getQueueDefinitionService().resolveQueueId(username, queueIdent);
-        List<Long> createdPostIds = new ArrayList<>(size(postConfigRequests));
-        for (PostConfigRequest postConfigRequest : postConfigRequests) {
-            Long postId = getStagingPostService().createPost(username, queueId, postConfigRequest);
-            createdPostIds.add(postId);
-        }
+        boolean isAutoDeploy = getQueueDefinitionService().isAutoDeploy(username, queueId);
+        // posts bound for an auto-deploy queue are created pending publication
+        List<StagingPost> createdPosts = getStagingPostService().createPosts(username, queueId, postConfigRequests, isAutoDeploy ? PUB_PENDING : null);
+        List<Long> createdPostIds = createdPosts.stream().map(StagingPost::getId).toList();
         Map<String, PubResult> pubResults = null;
-        if (getQueueDefinitionService().isAutoDeploy(username, queueId)) {
-            List<StagingPost> updatedPosts = getStagingPostService().updatePostPubStatus(username, createdPostIds, PUB_PENDING);
-            pubResults = getPostPublisher().publishFeed(username, queueId, updatedPosts); // TODO: unit test
+        if (isAutoDeploy) {
+            if (getDeployJobService().isAsyncRequested()) {
+                Long deployJobId = getDeployJobService().enqueue(username, queueId, createdPosts);
+                PostCreateResponse postCreateResponse = PostCreateResponse.from(createdPostIds, deployJobId);
+                getValidator().validate(postCreateResponse);
+                stopWatch.stop();
+                logStagingPostCreate(username, stopWatch, postConfigRequests.size(), size(createdPostIds));
+                return accepted().location(getDeployJobService().locate(queueIdent, deployJobId)).body(postCreateResponse);
+            }
+            pubResults = getPublishCoalescer().publishFeed(username, queueId, createdPosts); // TODO: unit test
         } // else post created in manual deployment mode (do nothing)
         URI createdLocation = URI.create("/posts/" + queueId);
         PostCreateResponse postCreateResponse = PostCreateResponse.from(createdPostIds, pubResults);
@@ -184,6 +203,68 @@ public class QueueController extends BaseQueueController {
         return created(createdLocation).body(postCreateResponse);
     }
 
+    /**
+     * Import posts in bulk into the specified queue.
+     * <p>
+     * This endpoint allows authenticated users with the "VERIFIED_ROLE" to stream a large number of posts into a
+     * queue given by its Id, as NDJSON (one post configuration request per line) or CSV (with a header row).  Rows
+     * are validated as they are read, and imported together once the upload has been read in full; rows that fail
+     * (including NDJSON rows longer than the configured maximum) are skipped and reported by row number.  An upload of
+     * more posts (or more data) than the configured maximum is rejected as a whole, with a 413 response.  If the queue
+     * is deployed automatically, it is deployed in full once the import completes.
+     *
+     * @param queueIdent     The identifier of the queue into which the posts should be imported.
+     * @param request        The request, whose body is the upload.
+     * @param authentication The authentication details of the user making the request.
+     * @return a ResponseEntity containing the outcome of the import; with a 'Prefer: respond-async' header (if
+     * enabled), a 202 response whose location is the status of the deploy job.
+     * @throws DataAccessException   If there's an issue accessing data.
+     * @throws DataUpdateException   If there's an issue updating data.
+     * @throws DataConflictException If there is a duplicate key.
+     * @throws IOException           If the upload cannot be read.
+     */
+    @Operation(summary = "Import posts in bulk into the specified queue")
+    @ApiResponse(responseCode = "201", description = "Successfully imported posts",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PostImportResponse.class)))
+    @ApiResponse(responseCode = "202", description = "Successfully imported posts, deployment in progress",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PostImportResponse.class)))
+    @PostMapping(value = "/${api.version}/queues/{queueIdent}/posts/import", produces = APPLICATION_JSON_VALUE, consumes = {NDJSON_MEDIA_TYPE, CSV_MEDIA_TYPE})
+    @PreAuthorize("hasAuthority('API_ROLE_VERIFIED')")
+    public ResponseEntity<PostImportResponse> importPosts(
+            @PathVariable("queueIdent")
+            @Parameter(description = "The identifier of the queue to import posts into", required = true)
+            String queueIdent,
+            //
+            HttpServletRequest request,
+            //
+            Authentication authentication
+    ) throws DataAccessException, DataUpdateException, DataConflictException, IOException {
+        UserDetails userDetails = (UserDetails) authentication.getDetails();
+        String username = userDetails.getUsername();
+        log.debug("importPosts for user={}, queueIdent={}, contentType={}", username, queueIdent, request.getContentType());
+        StopWatch stopWatch = createStarted();
+        long queueId = getQueueDefinitionService().resolveQueueId(username, queueIdent);
+        boolean isAutoDeploy = getQueueDefinitionService().isAutoDeploy(username, queueId);
+        Format format = parseMediaType(request.getContentType()).isCompatibleWith(parseMediaType(CSV_MEDIA_TYPE)) ? Format.CSV : Format.NDJSON;
+        PostImportResult postImportResult = getStagingPostService().importPosts(username, queueId, request.getInputStream(), format, isAutoDeploy ? PUB_PENDING : null);
+        Map<String, PubResult> pubResults = null;
+        if (isAutoDeploy && postImportResult.getImportedCt() > 0L) {
+            if (getDeployJobService().isAsyncRequested()) {
+                Long deployJobId = getDeployJobService().enqueue(username, queueId, null);
+                PostImportResponse postImportResponse = PostImportResponse.from(postImportResult, deployJobId);
+                stopWatch.stop();
+                logStagingPostImport(username, stopWatch, postImportResult.getRowCt(), postImportResult.getImportedCt(), postImportResult.getErrorCt());
+                return accepted().location(getDeployJobService().locate(queueIdent, deployJobId)).body(postImportResponse);
+            }
+            pubResults = getPublishCoalescer().publishFeed(username, queueId);
+        } // else posts imported in manual deployment mode (do nothing)
+        URI createdLocation = URI.create("/posts/" + queueId);
+        PostImportResponse postImportResponse = PostImportResponse.from(postImportResult, pubResults);
+        stopWatch.stop();
+        logStagingPostImport(username, stopWatch, postImportResult.getRowCt(), postImportResult.getImportedCt(), postImportResult.getErrorCt());
+        return created(createdLocation).body(postImportResponse);
+    }
+
     private static final Gson GSON = new GsonBuilder()
             .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX")
             .create();
@@ -196,9 +277,14 @@ public class QueueController extends BaseQueueController {
 
     /**
      * Get all queue definitions for the authenticated user.
+     * <p>
+     * Queues may be paged by offset, or by cursor (in Id order).  When a page fetched by limit and cursor (or by limit
+     * alone) is full, the Next-Cursor and Link headers lead to the page after it.  A limit greater than the
+     * configured maximum page size is rejected (400).
      *
      * @param offset         The number of items to skip before returning results.
      * @param limit          The maximum number of items to return.
+     * @param cursor         The cursor of the page to return (from the Next-Cursor header of the previous page).
      * @param ifNoneMatch    if-none-match HTTP header value (for e-tag evaluation).
      * @param authentication The authenticated user's details.
      * @return A ResponseEntity containing the fetched queue definitions.
@@ -222,32 +308,53 @@ public class QueueController extends BaseQueueController {
             @Positive
             Integer limit,
             //
+            @Parameter(name = "The cursor of the page to return")
+            @RequestParam(name = "cursor", required = false)
+            String cursor,
+            //
             @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
             //
             Authentication authentication
     ) throws DataAccessException {
         UserDetails userDetails = (UserDetails) authentication.getDetails();
         String username = userDetails.getUsername();
-        log.debug("getQueues for user={}", username);
+        log.debug("getQueues for user={}, cursor={}", username, cursor);
         StopWatch stopWatch = createStarted();
+        Long afterId = decodeCursor(cursor, offset);
+        checkLimit(limit);
+        boolean isSeek = afterId != null || (offset == null && limit != null);
         // queue definitions
-        List<QueueDefinition> queueDefinitions = getQueueDefinitionService().findByUser(username);
+        List<QueueDefinition> queueDefinitions = isSeek ?
+                getQueueDefinitionService().findByUser(username, afterId, limit) :
+                getQueueDefinitionService().findByUser(username);
         String eTag = ETagger.computeEtag(queueDefinitions);
         if (eTag.equals(ifNoneMatch)) {
             return status(NOT_MODIFIED).build(); // TODO: unit test
         }
         List<QueueDTO> queues = queueDefinitions.stream().map(QueueDTO::from).toList();
         if (isNotEmpty(queues)) {
-            queues = Paginator.paginate(queues, offset, limit);
+            if (!isSeek) {
+                queues = Paginator.paginate(queues, offset, limit);
+            }
             getValidator().validate(queues);
         }
         stopWatch.stop();
         logQueueFetch(username, stopWatch, size(queueDefinitions));
         return ok()
                 .eTag(eTag)
+                .headers(isSeek && limit != null && size(queueDefinitions) == limit ?
+                        PageCursor.nextPageHeaders(queueDefinitions.get(limit - 1).getId()) : null)
                 .body(queues);
     }
 
+    private static Long decodeCursor(String cursor, Integer offset) {
+        Long afterId = PageCursor.decode(cursor);
+        if (afterId != null && offset != null) {
+            throw new BadRequestException("Cursor and offset cannot be combined");
+        }
+        return afterId;
+    }
+
     /**
      * Get a queue definition by its identifier.
      *
@@ -706,12 +813,15 @@ public class QueueController extends BaseQueueController {
      * Get all posts in the queue given by its Id.
      * <p>
      * This endpoint allows authenticated users with the "VERIFIED_ROLE" to retrieve all
-     * posts in a queue given by its identifier.
+     * posts in a queue given by its identifier.  Posts may be paged by offset, or by cursor (in Id order); when a
+     * page is full, the Next-Cursor and Link headers lead to the page after it.  A limit greater than the configured
+     * maximum page size is rejected (400).
      *
      * @param queueIdent     The identifier of the queue to fetch posts from.
      * @param status         Limit the results to posts with the provided status.
      * @param offset         The number of items to skip before returning results.
      * @param limit          The maximum number of items to return.
+     * @param cursor         The cursor of the page to return (from the Next-Cursor header of the previous page).
      * @param ifNoneMatch    if-none-match HTTP header value (for e-tag evaluation).
      * @param authentication The authentication details of the user making the request.
      * @return A ResponseEntity containing the fetched posts.
@@ -742,29 +852,39 @@ public class QueueController extends BaseQueueController {
             @Positive
             Integer limit,
             //
+            @Parameter(name = "The cursor of the page to return")
+            @RequestParam(name = "cursor", required = false)
+            String cursor,
+            //
             @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
             //
             Authentication authentication
     ) throws DataAccessException {
         UserDetails userDetails = (UserDetails) authentication.getDetails();
         String username = userDetails.getUsername();
-        log.debug("getPosts for user={}, queueIdent={}, status={}", username, queueIdent, status);
+        log.debug("getPosts for user={}, queueIdent={}, status={}, cursor={}", username, queueIdent, status, cursor);
         StopWatch stopWatch = createStarted();
+        Long afterId = decodeCursor(cursor, offset);
+        checkLimit(limit);
         long queueId = getQueueDefinitionService().resolveQueueId(username, queueIdent);
-        List<StagingPost> stagingPosts = getStagingPostService().getStagingPosts(username, singletonList(queueId), status);
+        // offset is 1-based (see Paginator)
+        List<StagingPost> stagingPosts = getStagingPostService().getStagingPosts(username, queueId, singletonList(status),
+                afterId, offset == null ? null : offset - 1, limit, SortOrder.ASC);
         String eTag = ETagger.computeEtag(stagingPosts);
         if (eTag.equals(ifNoneMatch)) {
             return status(NOT_MODIFIED).build(); // TODO: unit test
         }
         List<PostDTO> posts = stagingPosts.stream().map(p -> PostDTO.from(p, queueIdent)).toList();
         if (isNotEmpty(posts)) {
-            posts = Paginator.paginate(posts, offset, limit);
             getValidator().validate(posts);
         }
         stopWatch.stop();
         logStagingPostFetch(username, stopWatch, 1, size(stagingPosts));
+        // posts are always in Id order, so a full page by offset leads on by cursor too
         return ok()
                 .eTag(eTag)
+                .headers(limit != null && size(stagingPosts) == limit ?
+                        PageCursor.nextPageHeaders(stagingPosts.get(limit - 1).getId()) : null)
                 .body(posts);
     }
 
@@ -1199,7 +1319,7 @@ public class QueueController extends BaseQueueController {
         StopWatch stopWatch = createStarted();
         long queueId = getQueueDefinitionService().resolveQueueId(username, queueIdent);
         getStagingPostService().deleteByQueueId(username, queueId);
-        Map<String, PubResult> pubResults = getPostPublisher().publishFeed(username, queueId);
+        Map<String, PubResult> pubResults = getPublishCoalescer().publishFeed(username, queueId);
         PostDeleteResponse postDeleteResponse = PostDeleteResponse.from("Deleted posts from queue Id " + queueId, pubResults);
         getValidator().validate(postDeleteResponse);
         stopWatch.stop();
@@ -1232,7 +1352,7 @@ public class QueueController extends BaseQueueController {
         log.debug("deleteQueue for user={}", username);
         StopWatch stopWatch = createStarted();
         long id = getQueueDefinitionService().resolveQueueId(username, queueIdent);
-        getPostPublisher().unpublishFeed(username, id);
+        getPublishCoalescer().unpublishFeed(username, id);
         getQueueDefinitionService().deleteById(username, id);
         stopWatch.stop();
         logQueueDelete(username, stopWatch, 1);
@@ -4,8 +4,10 @@ import com.lostsidewalk.buffy.DataAccessException;
 import com.lostsidewalk.buffy.DataUpdateException;
 import com.lostsidewalk.buffy.app.audit.AppLogService;
 import com.lostsidewalk.buffy.app.model.v1.request.QueueStatusUpdateRequest;
+import com.lostsidewalk.buffy.app.model.v1.response.DeployJobResponse;
 import com.lostsidewalk.buffy.app.model.v1.response.QueueConfigResponse;
 import com.lostsidewalk.buffy.app.model.v1.response.QueueStatusResponse;
+import com.lostsidewalk.buffy.app.publish.DeployJob;
 import com.lostsidewalk.buffy.app.v1.BaseQueueController;
 import com.lostsidewalk.buffy.post.StagingPost;
 import com.lostsidewalk.buffy.publisher.Publisher;
@@ -29,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
 
+import static com.lostsidewalk.buffy.app.audit.AppLogService.logDeployJobFetch;
 import static com.lostsidewalk.buffy.app.audit.AppLogService.logQueueStatusFetch;
 import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.DEPUB_PENDING;
 import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.PUB_PENDING;
@@ -91,6 +94,56 @@ public class QueueStatusController extends BaseQueueController {
         return ok(queueStatus);
     }
 
+    /**
+     * Get the progress of an asynchronous deployment of a queue given by its identifier.
+     * <p>
+     * This endpoint allows authenticated users with the "VERIFIED_ROLE" to get the status of a
+     * deploy job, along with the results of deployment on all publishers once the job has completed.
+     *
+     * @param queueIdent       The identifier of the queue that is being deployed.
+     * @param jobId            The Id of the deploy job.
+     * @param authentication   The authentication details of the user making the request.
+     * @return A ResponseEntity containing the deploy job status.
+     * @throws DataAccessException If there's an issue accessing data.
+     */
+    @Operation(summary = "Get the progress of an asynchronous deployment of a queue given by its identifier")
+    @ApiResponse(responseCode = "200", description = "Successfully fetched deploy job status",
+            content = @Content(schema = @Schema(implementation = DeployJobResponse.class)))
+    @GetMapping(value = "/${api.version}/queues/{queueIdent}/deploys/{jobId}", produces = APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('API_ROLE_VERIFIED')")
+    public ResponseEntity<DeployJobResponse> getDeployJob(
+            @PathVariable("queueIdent")
+            @Parameter(description = "The identifier of the queue that is being deployed", required = true)
+            String queueIdent,
+            //
+            @PathVariable("jobId")
+            @Parameter(description = "The Id of the deploy job", required = true)
+            Long jobId,
+            //
+            Authentication authentication
+    ) throws DataAccessException {
+        UserDetails userDetails = (UserDetails) authentication.getDetails();
+        String username = userDetails.getUsername();
+        log.debug("getDeployJob for user={}, queueIdent={}, jobId={}", username, queueIdent, jobId);
+        StopWatch stopWatch = createStarted();
+        long queueId = getQueueDefinitionService().resolveQueueId(username, queueIdent);
+        DeployJob deployJob = getDeployJobService().findById(username, queueId, jobId);
+        DeployJobResponse deployJobResponse = DeployJobResponse.from(
+                deployJob.getId(),
+                deployJob.getJobStatus().name(),
+                deployJob.getAttempts(),
+                deployJob.getCreated(),
+                deployJob.getStarted(),
+                deployJob.getCompleted(),
+                deployJob.getErrorMessage(),
+                deployJob.getDeployResponses()
+        );
+        getValidator().validate(deployJobResponse);
+        stopWatch.stop();
+        logDeployJobFetch(username, stopWatch, queueId, jobId, deployJobResponse.getStatus());
+        return ok(deployJobResponse);
+    }
+
     /**
      * Update the deployment status of queue given by its identifier.
      * <p>
@@ -101,11 +154,13 @@ public class QueueStatusController extends BaseQueueController {
      * @param queueStatusUpdateRequest      The request containing the updated queue status.
      * @param httpMethod                    The HTTP method in use, either PATCH or PUT.
      * @param authentication                The authentication details of the user making the request.
-     * @return A ResponseEntity indicating the success of the image source update.
+     * @return A ResponseEntity indicating the success of the image source update; with a 'Prefer: respond-async'
+     * header (if enabled), a 202 response whose location is the status of the deploy job.
      * @throws DataAccessException If there's an issue accessing data.
      */
     @Operation(summary = "Change the deployment status of an existing queue")
     @ApiResponse(responseCode = "200", description = "Successfully updated queue deployment status")
+    @ApiResponse(responseCode = "202", description = "Successfully updated queue deployment status, deployment in progress")
     @RequestMapping(value = "/${api.version}/queues/{queueIdent}/status", method = {PUT, PATCH}, produces = APPLICATION_JSON_VALUE, consumes = ALL_VALUE)
     @PreAuthorize("hasAuthority('API_ROLE_VERIFIED')")
     public ResponseEntity<QueueConfigResponse> updateQueueStatus(
@@ -146,7 +201,14 @@ public class QueueStatusController extends BaseQueueController {
                     .collect(toList());
             stagingPosts = getStagingPostService().updatePostPubStatus(username, stagingPostIds, DEPUB_PENDING);
         }
-        Map<String, Publisher.PubResult> pubResults = getPostPublisher().publishFeed(username, queueId, stagingPosts);
+        if (getDeployJobService().isAsyncRequested()) {
+            QueueDefinition queueDefinition = getQueueDefinitionService().findByQueueId(username, queueId);
+            ResponseEntity<QueueConfigResponse> response = acceptDeploy(username, queueDefinition, stagingPosts);
+            updateTimer.stop();
+            AppLogService.logQueueStatusUpdate(username, updateTimer, queueId, queueStatusUpdateRequest);
+            return response;
+        }
+        Map<String, Publisher.PubResult> pubResults = getPublishCoalescer().publishFeed(username, queueId, stagingPosts);
         QueueDefinition updatedQueue = getQueueDefinitionService().findByQueueId(username, queueId);
         QueueConfigResponse queueConfigResponse = prepareResponse(updatedQueue, pubResults);
         updateTimer.stop();
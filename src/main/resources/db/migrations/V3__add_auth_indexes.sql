@@ -0,0 +1,6 @@
+--
+-- indexes supporting the single-statement auth snapshot lookup
+--
+drop index if exists idx_users_in_roles_username;
+
+create index idx_users_in_roles_username on users_in_roles(username);
@@ -0,0 +1,27 @@
+--
+-- deploy_jobs table (asynchronous queue deployments)
+--
+drop table if exists deploy_jobs cascade;
+
+create table deploy_jobs (
+    id bigserial,
+    queue_id integer not null references queue_definitions(id) on delete cascade,
+    username varchar(100) not null references users(name) on delete cascade,
+    staging_post_ids json,
+    job_status varchar(64) not null,
+    attempts integer not null default 0,
+    node_ident varchar(256),
+    pub_results json,
+    error_message varchar(2048),
+    created timestamp with time zone not null default current_timestamp,
+    started timestamp with time zone,
+    completed timestamp with time zone,
+
+    primary key(id)
+);
+
+drop index if exists idx_deploy_jobs_queue_id;
+drop index if exists idx_deploy_jobs_job_status;
+
+create index idx_deploy_jobs_queue_id on deploy_jobs(queue_id);
+create index idx_deploy_jobs_job_status on deploy_jobs(job_status);
@@ -0,0 +1,8 @@
+--
+-- indexes supporting staging post pages (filtered by status, ordered and paged by id)
+--
+drop index if exists idx_staging_posts_username_queue_id_post_pub_status_id;
+drop index if exists idx_staging_posts_username_queue_id_id;
+
+create index idx_staging_posts_username_queue_id_post_pub_status_id on staging_posts(username, queue_id, post_pub_status, id);
+create index idx_staging_posts_username_queue_id_id on staging_posts(username, queue_id, id);
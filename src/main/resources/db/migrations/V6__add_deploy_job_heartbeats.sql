@@ -0,0 +1,6 @@
+--
+-- deploy job heartbeats (a running job is stale once its node stops refreshing this)
+--
+alter table deploy_jobs add column if not exists heartbeat timestamp with time zone;
+
+update deploy_jobs set heartbeat = started where job_status = 'RUNNING';
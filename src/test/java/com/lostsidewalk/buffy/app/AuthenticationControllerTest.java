@@ -36,7 +36,7 @@ class AuthenticationControllerTest extends BaseWebControllerTest {
         when(mockJwtUtil.extractUsername()).thenReturn("me");
         when(authService.requireAuthClaim("me")).thenReturn("testAuthClaim");
         when(mockJwtUtil.extractValidationClaim()).thenReturn("b4223bd3427db93956acaadf9e425dd259bfb11dac44234604c819dbbf75e180");
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_USER_DETAILS);
         when(authService.generateAuthToken("me")).thenReturn(new AppToken("testToken", 60));
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/currentuser")
@@ -81,7 +81,7 @@ class AuthenticationControllerTest extends BaseWebControllerTest {
         when(mockJwtUtil.extractUsername()).thenReturn("me");
         when(authService.requireAuthClaim("me")).thenReturn("testAuthClaim");
         when(mockJwtUtil.extractValidationClaim()).thenReturn("b4223bd3427db93956acaadf9e425dd259bfb11dac44234604c819dbbf75e180");
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_USER_DETAILS);
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/deauthenticate")
                         .header("Authorization", "Bearer testToken")
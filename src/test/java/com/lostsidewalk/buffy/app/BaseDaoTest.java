@@ -0,0 +1,87 @@
+package com.lostsidewalk.buffy.app;
+
+import com.lostsidewalk.buffy.post.ContentObject;
+import com.lostsidewalk.buffy.post.StagingPost;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Base class for DAO tests, which run against a throwaway Postgres container, migrated from scratch (by the same
+ * Flyway migrations as production) before each test.  The migrations add the user 'me'; each test also gets one
+ * queue, owned by 'me', whose Id is in queueId.  These tests are skipped where Docker is unavailable.
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings({"ProtectedField", "AbstractClassWithoutAbstractMethods"}) // not instantiable
+public abstract class BaseDaoTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    protected JdbcTemplate jdbcTemplate;
+
+    protected Long queueId;
+
+    @BeforeEach
+    void setupDatabase() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migrations")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        queueId = jdbcTemplate.queryForObject(
+                "insert into queue_definitions (queue_ident, transport_ident, username, queue_status, language) values (?, ?, ?, ?, ?) returning id",
+                Long.class, "testQueue", "testTransportIdent", "me", "ENABLED", "en-US");
+    }
+
+    protected static StagingPost newStagingPost(Long queueId, Long subscriptionId, String postHash) {
+        ContentObject postTitle = new ContentObject();
+        postTitle.setType("text");
+        postTitle.setValue("title " + postHash);
+        ContentObject postDesc = new ContentObject();
+        postDesc.setType("text");
+        postDesc.setValue("description " + postHash);
+        return StagingPost.from(
+                "testImporterId",
+                queueId,
+                "testImporterDesc",
+                subscriptionId,
+                postTitle,
+                postDesc,
+                null,
+                null,
+                null,
+                "https://localhost/" + postHash,
+                null,
+                null,
+                null,
+                new Date(1_600_000_000_000L), // import timestamp
+                postHash,
+                "me",
+                "testPostComment",
+                null,
+                null,
+                null,
+                List.of("news", "tech"),
+                null, // publish timestamp
+                new Date(1_900_000_000_000L), // expiration timestamp
+                null,
+                null, // last updated timestamp
+                null, // created
+                null // last modified
+        );
+    }
+}
@@ -7,10 +7,15 @@ import com.lostsidewalk.buffy.PostPublisher;
 import com.lostsidewalk.buffy.ThemeConfigDao;
 import com.lostsidewalk.buffy.app.auth.ApiUserService;
 import com.lostsidewalk.buffy.app.auth.AuthService;
+import com.lostsidewalk.buffy.app.auth.AuthSnapshotDao;
 import com.lostsidewalk.buffy.app.auth.LocalUserService;
 import com.lostsidewalk.buffy.app.credentials.QueueCredentialsService;
 import com.lostsidewalk.buffy.app.mail.MailService;
+import com.lostsidewalk.buffy.app.post.StagingPostBatchDao;
+import com.lostsidewalk.buffy.app.post.StagingPostImportDao;
+import com.lostsidewalk.buffy.app.post.StagingPostPageDao;
 import com.lostsidewalk.buffy.app.post.StagingPostService;
+import com.lostsidewalk.buffy.app.publish.DeployJobDao;
 import com.lostsidewalk.buffy.app.queue.QueueDefinitionService;
 import com.lostsidewalk.buffy.app.settings.SettingsService;
 import com.lostsidewalk.buffy.app.token.TokenService;
@@ -118,6 +123,15 @@ public abstract class BaseWebControllerTest {
     @MockBean
     StagingPostDao stagingPostDao;
 
+    @MockBean
+    StagingPostBatchDao stagingPostBatchDao;
+
+    @MockBean
+    StagingPostImportDao stagingPostImportDao;
+
+    @MockBean
+    StagingPostPageDao stagingPostPageDao;
+
     @MockBean
     SubscriptionDefinitionDao subscriptionDefinitionDao;
 
@@ -136,6 +150,13 @@ public abstract class BaseWebControllerTest {
     @MockBean
     ApiKeyDao apiKeyDao;
 
+    @MockBean
+    AuthSnapshotDao authSnapshotDao;
+
+    @MockBean
+    protected
+    DeployJobDao deployJobDao;
+
     @MockBean
     JedisPool jedisPool;
 
@@ -195,7 +216,7 @@ public abstract class BaseWebControllerTest {
 
         @Override
         public String getPassword() {
-            return new BCryptPasswordEncoder().encode("testPassword");
+            return "{bcrypt}" + new BCryptPasswordEncoder().encode("testPassword");
         }
 
         @Override
@@ -224,10 +245,6 @@ public abstract class BaseWebControllerTest {
         }
     };
 
-    protected static final User TEST_API_USER = new User(1L, "me", "testPassword", "me@localhost");
-
-    protected static final ApiKey TEST_API_KEY_OBJ = ApiKey.from(1L, "testApiKey", "testApiSecret");
-
     private static final Collection<GrantedAuthority> TEST_API_AUTHORITIES = ImmutableList.of(
             API_UNVERIFIED_AUTHORITY,
             API_VERIFIED_AUTHORITY,
@@ -246,7 +263,7 @@ public abstract class BaseWebControllerTest {
 
         @Override
         public String getPassword() {
-            return new BCryptPasswordEncoder().encode("testPassword");
+            return "{bcrypt}" + new BCryptPasswordEncoder().encode("testPassword");
         }
 
         @Override
@@ -303,6 +320,7 @@ public abstract class BaseWebControllerTest {
                 ", roleDao=" + roleDao +
                 ", userDao=" + userDao +
                 ", apiKeyDao=" + apiKeyDao +
+                ", authSnapshotDao=" + authSnapshotDao +
                 ", jedisPool=" + jedisPool +
                 ", proxyManager=" + proxyManager +
                 '}';
@@ -38,7 +38,7 @@ class PasswordResetControllerTest extends BaseWebControllerTest {
         when(authService.generateAuthToken("me")).thenReturn(new AppToken("testToken", 60));
         PasswordResetRequest testPwResetRequest = new PasswordResetRequest("me", "me@localhost");
         when(authService.initPasswordReset(testPwResetRequest)).thenReturn(TEST_PW_RESET_TOKEN);
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_USER_DETAILS);
         mockMvc.perform(MockMvcRequestBuilders
                         .post("/pw_reset")
                         .servletPath("/pw_reset")
@@ -54,7 +54,7 @@ class PasswordResetControllerTest extends BaseWebControllerTest {
     void testContinuePasswordReset() throws Exception {
         when(tokenService.instanceFor(PW_RESET, "testToken")).thenReturn(TEST_JWT_UTIL);
         when(authService.requireAuthClaim("me")).thenReturn("testAuthClaim");
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_USER_DETAILS);
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/pw_reset/testToken")
                         .servletPath("/pw_reset/testToken")
@@ -75,7 +75,7 @@ class PasswordResetControllerTest extends BaseWebControllerTest {
         when(authService.getTokenCookieFromRequest(eq(PW_AUTH), any())).thenReturn("testToken");
         when(tokenService.instanceFor(PW_AUTH, "testToken")).thenReturn(TEST_JWT_UTIL);
         when(authService.requirePwResetAuthClaim("me")).thenReturn("testAuthClaim");
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_USER_DETAILS);
         mockMvc.perform(MockMvcRequestBuilders
                 .put("/pw_update")
                 .servletPath("/pw_update")
@@ -33,7 +33,7 @@ class RegistrationControllerTest extends BaseWebControllerTest {
     final void test_setup() throws Exception {
         when(tokenService.instanceFor(APP_AUTH, "testToken")).thenReturn(TEST_JWT_UTIL);
         when(authService.requireAuthClaim("me")).thenReturn("testAuthClaim");
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_USER_DETAILS);
     }
 
     @Test
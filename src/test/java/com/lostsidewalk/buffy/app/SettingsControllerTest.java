@@ -32,7 +32,7 @@ class SettingsControllerTest extends BaseWebControllerTest {
     void test_setup() throws Exception {
         when(tokenService.instanceFor(APP_AUTH, "testToken")).thenReturn(TEST_JWT_UTIL);
         when(authService.requireAuthClaim("me")).thenReturn("testAuthClaim");
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_USER_DETAILS);
     }
 
     private static final SettingsResponse TEST_SETTINGS_RESPONSE = SettingsResponse.from(
@@ -0,0 +1,71 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.lostsidewalk.buffy.app.audit.ApiKeyException;
+import com.lostsidewalk.buffy.app.auth.ApiUserService.UnknownApiKeyException;
+import com.lostsidewalk.buffy.app.auth.InvalidApiKeyCache.ApiKeyBackoffException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.core.context.SecurityContextHolder.clearContext;
+import static org.springframework.security.core.context.SecurityContextHolder.getContext;
+
+@Slf4j
+class ApiAuthHandlerTest {
+
+    private ApiAuthHandler apiAuthHandler;
+
+    private ApiUserService apiUserService;
+
+    @BeforeEach
+    final void test_setup() throws Exception {
+        InvalidApiKeyCache invalidApiKeyCache = new InvalidApiKeyCache();
+        invalidApiKeyCache.maxSize = 100L;
+        invalidApiKeyCache.initialBackoffMs = 60_000L;
+        invalidApiKeyCache.maxBackoffMs = 60_000L;
+        invalidApiKeyCache.postConstruct();
+        ApiPrincipalCache apiPrincipalCache = new ApiPrincipalCache();
+        apiPrincipalCache.maxSize = 100L;
+        apiPrincipalCache.ttlSeconds = 60L;
+        apiPrincipalCache.postConstruct();
+        apiUserService = mock(ApiUserService.class);
+        when(apiUserService.loadApiPrincipal("testApiKey", "testApiSecret")).thenReturn(AuthPrincipal.from("me", List.of()));
+        when(apiUserService.loadApiPrincipal("testApiKey", "badSecret")).thenThrow(new ApiKeyException("Invalid API secret"));
+        when(apiUserService.loadApiPrincipal(eq("unknownApiKey"), anyString())).thenThrow(new UnknownApiKeyException());
+        apiAuthHandler = new ApiAuthHandler();
+        apiAuthHandler.userService = apiUserService;
+        apiAuthHandler.apiPrincipalCache = apiPrincipalCache;
+        apiAuthHandler.invalidApiKeyCache = invalidApiKeyCache;
+    }
+
+    @AfterEach
+    final void test_teardown() {
+        clearContext();
+    }
+
+    @Test
+    final void testUnknownKeyIsBackedOffWhateverTheSecret() throws Exception {
+        assertThrows(UnknownApiKeyException.class, () -> apiAuthHandler.processApiRequest("unknownApiKey", "firstSecret", "/v1/queues", "GET", null));
+        assertThrows(ApiKeyBackoffException.class, () -> apiAuthHandler.processApiRequest("unknownApiKey", "secondSecret", "/v1/queues", "GET", null));
+        verify(apiUserService, times(1)).loadApiPrincipal(eq("unknownApiKey"), anyString());
+    }
+
+    @Test
+    final void testBadSecretDoesNotBackOffTheKey() throws Exception {
+        assertThrows(ApiKeyException.class, () -> apiAuthHandler.processApiRequest("testApiKey", "badSecret", "/v1/queues", "GET", null));
+        assertThrows(ApiKeyBackoffException.class, () -> apiAuthHandler.processApiRequest("testApiKey", "badSecret", "/v1/queues", "GET", null));
+        apiAuthHandler.processApiRequest("testApiKey", "testApiSecret", "/v1/queues", "GET", null);
+        assertEquals("me", getContext().getAuthentication().getName());
+    }
+}
@@ -0,0 +1,87 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import org.mockito.stubbing.Answer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stands in for the Redis-backed proxy manager: every key maps to a single in-process bucket, shared by every
+ * RateLimiter built on top of this instance (i.e., by every simulated node).  Latency can be injected into every
+ * bucket operation to simulate a slow Redis.
+ */
+class InMemoryProxyManager {
+
+    private final Map<String, BucketProxy> bucketsByKey = new ConcurrentHashMap<>();
+
+    private final RemoteBucketBuilder<byte[]> builder;
+
+    private final ProxyManager<byte[]> proxyManager;
+
+    private volatile long latencyMs;
+
+    @SuppressWarnings("unchecked")
+    InMemoryProxyManager() {
+        builder = mock(RemoteBucketBuilder.class);
+        when(builder.build(any(byte[].class), any(BucketConfiguration.class))).thenAnswer(invocation -> {
+            byte[] key = invocation.getArgument(0);
+            BucketConfiguration configuration = invocation.getArgument(1);
+            return bucketsByKey.computeIfAbsent(new String(key, UTF_8), k -> localBucketProxy(configuration));
+        });
+        when(builder.build(any(byte[].class), any(Supplier.class))).thenAnswer(invocation -> {
+            byte[] key = invocation.getArgument(0);
+            Supplier<BucketConfiguration> configSupplier = invocation.getArgument(1);
+            return bucketsByKey.computeIfAbsent(new String(key, UTF_8), k -> localBucketProxy(configSupplier.get()));
+        });
+        proxyManager = mock(ProxyManager.class);
+        when(proxyManager.builder()).thenReturn(builder);
+    }
+
+    private BucketProxy localBucketProxy(BucketConfiguration configuration) {
+        LocalBucketBuilder localBucketBuilder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            localBucketBuilder.addLimit(bandwidth);
+        }
+        Answer<Object> delegate = delegatesTo(localBucketBuilder.build());
+        return mock(BucketProxy.class, invocation -> {
+            long l = latencyMs;
+            if (l > 0L) {
+                Thread.sleep(l);
+            }
+            return delegate.answer(invocation);
+        });
+    }
+
+    final void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    final RemoteBucketBuilder<byte[]> getBuilder() {
+        return builder;
+    }
+
+    final ProxyManager<byte[]> getProxyManager() {
+        return proxyManager;
+    }
+
+    /**
+     * @return the (Mockito-spyable) bucket for the given key, or null if no bucket has been built for it yet
+     */
+    final BucketProxy getBucket(String key) {
+        return bucketsByKey.get(key);
+    }
+}
@@ -0,0 +1,46 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.lostsidewalk.buffy.app.auth.InvalidApiKeyCache.ApiKeyBackoffException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+class InvalidApiKeyCacheTest {
+
+    private InvalidApiKeyCache invalidApiKeyCache;
+
+    @BeforeEach
+    final void test_setup() {
+        invalidApiKeyCache = new InvalidApiKeyCache();
+        invalidApiKeyCache.maxSize = 100L;
+        invalidApiKeyCache.initialBackoffMs = 60_000L;
+        invalidApiKeyCache.maxBackoffMs = 60_000L;
+        invalidApiKeyCache.postConstruct();
+    }
+
+    @Test
+    final void testFailedCredentialsAreBackedOff() {
+        invalidApiKeyCache.recordFailure("victimKey", "badSecret");
+        assertThrows(ApiKeyBackoffException.class, () -> invalidApiKeyCache.checkBackoff("victimKey", "badSecret"));
+        invalidApiKeyCache.recordSuccess("victimKey", "badSecret");
+        assertDoesNotThrow(() -> invalidApiKeyCache.checkBackoff("victimKey", "badSecret"));
+    }
+
+    @Test
+    final void testBadSecretsDoNotBackOffTheKey() {
+        invalidApiKeyCache.recordFailure("victimKey", "badSecret");
+        assertDoesNotThrow(() -> invalidApiKeyCache.checkBackoff("victimKey", "goodSecret"));
+        assertDoesNotThrow(() -> invalidApiKeyCache.checkBackoff("victimKey", null));
+    }
+
+    @Test
+    final void testUnknownKeysAreBackedOff() {
+        invalidApiKeyCache.recordFailure("unknownKey", null);
+        assertThrows(ApiKeyBackoffException.class, () -> invalidApiKeyCache.checkBackoff("unknownKey", null));
+        assertDoesNotThrow(() -> invalidApiKeyCache.checkBackoff("unknownKey", "anySecret"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Map.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+class OpenRouteTest {
+
+    // the permitAll request matchers of the security filter chain, before OpenRoute
+    private static final List<String> BASELINE_PERMIT_ALL_PATTERNS = List.of(
+            "/",
+            "/authenticate",
+            "/pw_reset",
+            "/pw_reset/**",
+            "/deauthenticate",
+            "/register",
+            "/verify/**",
+            "/stripe",
+            "/actuator",
+            "/actuator/**",
+            "/proxy/unsecured/**",
+            "/v3/api-docs",
+            "/v3/api-docs/**"
+    );
+
+    // AuthTokenFilter's open paths and open path prefixes, before OpenRoute
+    private static final Set<String> BASELINE_OPEN_PATHS = Set.of("/authenticate", "/v3/api-docs");
+
+    private static final Set<String> BASELINE_OPEN_PATH_PREFIXES = Set.of("/pw_reset", "/register", "/verify", "/stripe", "/proxy/unsecured");
+
+    private static boolean isBaselineOpenServletPath(String servletPath) {
+        return BASELINE_OPEN_PATHS.contains(servletPath) || BASELINE_OPEN_PATH_PREFIXES.stream().anyMatch(servletPath::startsWith);
+    }
+
+    @Test
+    final void testPermitAllPatternsMatchBaseline() {
+        assertEquals(Set.copyOf(BASELINE_PERMIT_ALL_PATTERNS), Set.of(OpenRoute.permitAllPatterns()));
+        assertEquals(BASELINE_PERMIT_ALL_PATTERNS.size(), OpenRoute.permitAllPatterns().length);
+    }
+
+    @Test
+    final void testAuthFilterBypassMatchesBaseline() {
+        List<String> paths = List.of(
+                "/",
+                "/authenticate",
+                "/authenticate/x",
+                "/deauthenticate",
+                "/pw_reset",
+                "/pw_reset/token",
+                "/register",
+                "/register/x",
+                "/verify",
+                "/verify/token",
+                "/stripe",
+                "/stripe/callback",
+                "/actuator",
+                "/actuator/health",
+                "/proxy/unsecured",
+                "/proxy/unsecured/hash/url",
+                "/proxy/secured/x",
+                "/v3/api-docs",
+                "/v3/api-docs/swagger-config",
+                "/v1/queues",
+                "/oauth2/authorization/google",
+                "/currentuser"
+        );
+        for (String path : paths) {
+            assertEquals(isBaselineOpenServletPath(path), OpenRoute.isAuthFilterBypassed(path), path);
+        }
+    }
+
+    // prefixes now bypass the filter only on a '/' boundary (a deliberate change from the baseline)
+    @Test
+    final void testAuthFilterBypassRequiresPathBoundary() {
+        Map<String, Boolean> expected = Map.ofEntries(
+                entry("/pw_resetx", false),
+                entry("/registerx", false),
+                entry("/verifyx", false),
+                entry("/stripex", false),
+                entry("/proxy/unsecuredx", false)
+        );
+        expected.forEach((path, bypassed) -> assertEquals(bypassed, OpenRoute.isAuthFilterBypassed(path), path));
+    }
+}
@@ -0,0 +1,269 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.lostsidewalk.buffy.app.auth.RateLimiter.FallbackPolicy.ADMIT;
+import static com.lostsidewalk.buffy.app.auth.RateLimiter.FallbackPolicy.LOCAL;
+import static com.lostsidewalk.buffy.app.auth.RateLimiter.FallbackPolicy.REJECT;
+import static com.lostsidewalk.buffy.app.auth.RateLimiter.Mode.LEASED;
+import static com.lostsidewalk.buffy.app.auth.RateLimiter.Mode.STRICT;
+import static com.lostsidewalk.buffy.app.auth.RouteCost.AccessType.WRITE;
+import static com.lostsidewalk.buffy.app.auth.TrafficClass.ANONYMOUS;
+import static com.lostsidewalk.buffy.app.auth.TrafficClass.API;
+import static com.lostsidewalk.buffy.app.auth.TrafficClass.APP;
+import static com.lostsidewalk.buffy.app.auth.RouteCost.SINGLE_READ;
+import static com.lostsidewalk.buffy.app.auth.RouteCost.SINGLE_WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Slf4j
+class RateLimiterTest {
+
+    private static final String TEST_USERNAME = "me";
+
+    private static final String TEST_READ_BUCKET_KEY = "api:me:read";
+
+    private static final int TEST_LIMIT = 20;
+
+    private InMemoryProxyManager inMemoryProxyManager;
+
+    private RateLimiter nodeA;
+
+    private RateLimiter nodeB;
+
+    @BeforeEach
+    final void test_setup() {
+        inMemoryProxyManager = new InMemoryProxyManager();
+    }
+
+    @AfterEach
+    final void test_teardown() {
+        if (nodeA != null) {
+            nodeA.preDestroy();
+        }
+        if (nodeB != null) {
+            nodeB.preDestroy();
+        }
+    }
+
+    private RateLimiter newNode(RateLimiter.Mode mode) {
+        return newNode(mode, LOCAL, 1_000L);
+    }
+
+    private RateLimiter newNode(RateLimiter.Mode mode, RateLimiter.FallbackPolicy fallbackPolicy, long latencyBudgetMs) {
+        RateLimiter rateLimiter = new RateLimiter();
+        rateLimiter.buckets = inMemoryProxyManager.getProxyManager();
+        rateLimiter.mode = mode;
+        rateLimiter.apiReadLimit = TEST_LIMIT + "/60";
+        rateLimiter.apiWriteLimit = TEST_LIMIT + "/60";
+        rateLimiter.appReadLimit = TEST_LIMIT + "/60";
+        rateLimiter.appWriteLimit = TEST_LIMIT + "/60";
+        rateLimiter.leaseSize = 5L;
+        rateLimiter.latencyBudgetMs = latencyBudgetMs;
+        rateLimiter.fallbackPolicy = fallbackPolicy;
+        rateLimiter.remotePoolSize = 4;
+        rateLimiter.remoteQueueCapacity = 16;
+        rateLimiter.cacheMaxSize = 100L;
+        rateLimiter.cacheIdleMs = 60_000L;
+        rateLimiter.postConstruct();
+        return rateLimiter;
+    }
+
+    @Test
+    final void testStrictModeConsumesRemotelyPerRequest() {
+        nodeA = newNode(STRICT);
+        for (int i = 0; i < TEST_LIMIT; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        verify(inMemoryProxyManager.getBucket(TEST_READ_BUCKET_KEY), times(TEST_LIMIT + 1)).tryConsumeAndReturnRemaining(1L);
+    }
+
+    @Test
+    final void testLeasedModeConsumesRemotelyPerLease() {
+        nodeA = newNode(LEASED);
+        for (int i = 0; i < TEST_LIMIT; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        // four leases of five tokens, plus the failed attempt to lease a fifth (which falls back to a partial grant)
+        verify(inMemoryProxyManager.getBucket(TEST_READ_BUCKET_KEY), times(5)).tryConsumeAndReturnRemaining(5L);
+        verify(inMemoryProxyManager.getBucket(TEST_READ_BUCKET_KEY), times(1)).tryConsumeAsMuchAsPossible(anyLong());
+    }
+
+    @Test
+    final void testLeasedModePreservesClusterWideLimit() {
+        nodeA = newNode(LEASED);
+        nodeB = newNode(LEASED);
+        int admitted = 0;
+        for (int i = 0; i < TEST_LIMIT * 2; i++) {
+            RateLimiter node = (i % 2 == 0) ? nodeA : nodeB;
+            if (node.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed) {
+                admitted++;
+            }
+        }
+        assertEquals(TEST_LIMIT, admitted);
+    }
+
+    @Test
+    final void testReleasedLeaseIsReturned() {
+        nodeA = newNode(LEASED);
+        assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        nodeA.preDestroy();
+        nodeA = null;
+        nodeB = newNode(STRICT);
+        int admitted = 0;
+        while (nodeB.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed) {
+            admitted++;
+        }
+        assertEquals(TEST_LIMIT - 1, admitted);
+    }
+
+    @Test
+    final void testReadAndWriteBandwidthsAreSeparate() {
+        nodeA = newNode(STRICT);
+        for (int i = 0; i < TEST_LIMIT; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_WRITE).consumed);
+    }
+
+    @Test
+    final void testWeightedCostConsumesMultipleTokens() {
+        nodeA = newNode(STRICT);
+        RouteCost publishCost = RouteCost.from(WRITE, 10L, "PUT /v1/queues/{queueIdent}/status");
+        assertTrue(nodeA.tryConsume(API, TEST_USERNAME, publishCost).consumed);
+        assertTrue(nodeA.tryConsume(API, TEST_USERNAME, publishCost).consumed);
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_WRITE).consumed);
+    }
+
+    @Test
+    final void testBucketProxiesAreCachedPerUser() {
+        nodeA = newNode(STRICT);
+        for (int i = 0; i < TEST_LIMIT; i++) {
+            nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ);
+            nodeA.tryConsume(API, TEST_USERNAME, SINGLE_WRITE);
+        }
+        verify(inMemoryProxyManager.getBuilder(), times(2)).build(any(byte[].class), any(BucketConfiguration.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    final void testMissingBucketBuilderAdmitsAll() {
+        ProxyManager<byte[]> proxyManager = mock(ProxyManager.class);
+        RateLimiter rateLimiter = new RateLimiter();
+        rateLimiter.buckets = proxyManager;
+        rateLimiter.mode = STRICT;
+        rateLimiter.fallbackPolicy = LOCAL;
+        rateLimiter.remotePoolSize = 1;
+        rateLimiter.remoteQueueCapacity = 1;
+        rateLimiter.cacheMaxSize = 100L;
+        rateLimiter.cacheIdleMs = 60_000L;
+        rateLimiter.postConstruct();
+        nodeA = rateLimiter;
+        for (int i = 0; i < TEST_LIMIT * 2; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_WRITE).consumed);
+        }
+    }
+
+    @Test
+    final void testSlowRemoteFailsOpen() {
+        nodeA = newNode(STRICT, ADMIT, 20L);
+        inMemoryProxyManager.setLatencyMs(200L);
+        for (int i = 0; i < TEST_LIMIT * 2; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+    }
+
+    @Test
+    final void testSlowRemoteFailsClosed() {
+        nodeA = newNode(STRICT, REJECT, 20L);
+        inMemoryProxyManager.setLatencyMs(200L);
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+    }
+
+    @Test
+    final void testSlowRemoteFallsBackToLocalBucket() {
+        nodeA = newNode(STRICT, LOCAL, 20L);
+        // slow enough that no remote call completes (and refunds its local charge) within the test
+        inMemoryProxyManager.setLatencyMs(5_000L);
+        for (int i = 0; i < TEST_LIMIT; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+    }
+
+    @Test
+    final void testSlowRemoteIsNotBilledTwice() throws Exception {
+        nodeA = newNode(STRICT, LOCAL, 20L);
+        inMemoryProxyManager.setLatencyMs(100L);
+        assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        // once the remote call completes, the request has been charged there, and the local charge is handed back
+        Thread.sleep(500L);
+        inMemoryProxyManager.setLatencyMs(5_000L);
+        for (int i = 0; i < TEST_LIMIT; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+    }
+
+    @Test
+    final void testLeasedTokensAreServedDespiteSlowRemote() {
+        nodeA = newNode(LEASED, REJECT, 20L);
+        assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        inMemoryProxyManager.setLatencyMs(200L);
+        // the remaining four leased tokens never touch the remote bucket
+        for (int i = 0; i < 4; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+    }
+
+    @Test
+    final void testResultReportsBucketState() {
+        nodeA = newNode(STRICT);
+        RateLimitResult result = nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ);
+        assertTrue(result.isMetered());
+        assertEquals(TEST_LIMIT, result.limit);
+        assertEquals(TEST_LIMIT - 1, result.remaining);
+        for (int i = 1; i < TEST_LIMIT; i++) {
+            nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ);
+        }
+        result = nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ);
+        assertFalse(result.consumed);
+        assertEquals(0L, result.remaining);
+        assertTrue(result.nanosToRetry > 0L);
+    }
+
+    @Test
+    final void testLanesAreIndependent() {
+        nodeA = newNode(STRICT);
+        for (int i = 0; i < TEST_LIMIT; i++) {
+            assertTrue(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        }
+        assertFalse(nodeA.tryConsume(API, TEST_USERNAME, SINGLE_READ).consumed);
+        assertTrue(nodeA.tryConsume(APP, TEST_USERNAME, SINGLE_READ).consumed);
+    }
+
+    @Test
+    final void testUnlimitedLaneIsUnmetered() {
+        nodeA = newNode(STRICT);
+        for (int i = 0; i < TEST_LIMIT * 2; i++) {
+            RateLimitResult result = nodeA.tryConsume(ANONYMOUS, "127.0.0.1", SINGLE_WRITE);
+            assertTrue(result.consumed);
+            assertFalse(result.isMetered());
+        }
+    }
+}
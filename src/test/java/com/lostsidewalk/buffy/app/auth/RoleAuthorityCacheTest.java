@@ -0,0 +1,63 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.collect.ImmutableSet;
+import com.lostsidewalk.buffy.auth.FeatureDao;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.lostsidewalk.buffy.app.auth.UserRoles.UNVERIFIED_AUTHORITY;
+import static com.lostsidewalk.buffy.app.auth.UserRoles.VERIFIED_AUTHORITY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class RoleAuthorityCacheTest {
+
+    private static final Set<SimpleGrantedAuthority> TEST_IMPLICIT_AUTHORITIES = ImmutableSet.of(UNVERIFIED_AUTHORITY, VERIFIED_AUTHORITY);
+
+    private RoleAuthorityCache roleAuthorityCache;
+
+    private FeatureDao featureDao;
+
+    @BeforeEach
+    final void test_setup() throws Exception {
+        featureDao = mock(FeatureDao.class);
+        when(featureDao.findByRolename("firstRole")).thenReturn(List.of("firstFeature"));
+        when(featureDao.findByRolename("secondRole")).thenReturn(List.of("secondFeature"));
+        roleAuthorityCache = new RoleAuthorityCache();
+        roleAuthorityCache.featureDao = featureDao;
+        roleAuthorityCache.maxSize = 100L;
+        roleAuthorityCache.postConstruct();
+    }
+
+    @Test
+    final void testMergedAuthoritiesAreShared() throws Exception {
+        Set<SimpleGrantedAuthority> authorities = roleAuthorityCache.getAuthorities(new HashSet<>(List.of("firstRole", "secondRole")), TEST_IMPLICIT_AUTHORITIES);
+        assertEquals(ImmutableSet.of(new SimpleGrantedAuthority("firstFeature"), new SimpleGrantedAuthority("secondFeature"), UNVERIFIED_AUTHORITY, VERIFIED_AUTHORITY), authorities);
+        // another user holding the same roles gets the same set
+        assertSame(authorities, roleAuthorityCache.getAuthorities(Set.of("secondRole", "firstRole"), TEST_IMPLICIT_AUTHORITIES));
+        assertNotSame(authorities, roleAuthorityCache.getAuthorities(Set.of("firstRole", "secondRole"), ImmutableSet.of(UNVERIFIED_AUTHORITY)));
+        verify(featureDao, times(1)).findByRolename("firstRole");
+    }
+
+    @Test
+    final void testInvalidateDropsMergedAuthorities() throws Exception {
+        Set<SimpleGrantedAuthority> authorities = roleAuthorityCache.getAuthorities(Set.of("firstRole", "secondRole"), TEST_IMPLICIT_AUTHORITIES);
+        when(featureDao.findByRolename("firstRole")).thenReturn(List.of("firstFeature", "thirdFeature"));
+        roleAuthorityCache.invalidate("firstRole");
+        Set<SimpleGrantedAuthority> reloaded = roleAuthorityCache.getAuthorities(Set.of("firstRole", "secondRole"), TEST_IMPLICIT_AUTHORITIES);
+        assertNotSame(authorities, reloaded);
+        assertEquals(authorities.size() + 1, reloaded.size());
+    }
+}
@@ -0,0 +1,75 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static com.lostsidewalk.buffy.app.auth.RouteCost.AccessType.READ;
+import static com.lostsidewalk.buffy.app.auth.RouteCost.AccessType.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Slf4j
+class RouteCostResolverTest {
+
+    private RouteCostResolver routeCostResolver;
+
+    @BeforeEach
+    final void test_setup() {
+        routeCostResolver = new RouteCostResolver();
+        routeCostResolver.routeCostSpecs = new String[] {
+                "PUT /v1/queues/{queueIdent}/status 10",
+                " POST /v1/queues/{queueIdent}/posts 2 sized",
+        };
+        routeCostResolver.bytesPerToken = 1024L;
+        routeCostResolver.maxBodyBytes = 10_240L;
+        routeCostResolver.postConstruct();
+    }
+
+    @Test
+    final void testUnweightedRoutes() {
+        assertSame(RouteCost.SINGLE_READ, routeCostResolver.resolve(new MockHttpServletRequest("GET", "/v1/queues/toast/status")));
+        assertSame(RouteCost.SINGLE_WRITE, routeCostResolver.resolve(new MockHttpServletRequest("DELETE", "/v1/queues/toast/title")));
+    }
+
+    @Test
+    final void testWeightedRoute() {
+        RouteCost routeCost = routeCostResolver.resolve(new MockHttpServletRequest("PUT", "/v1/queues/toast/status"));
+        assertEquals(WRITE, routeCost.accessType);
+        assertEquals(10L, routeCost.tokens);
+        assertEquals("PUT /v1/queues/{queueIdent}/status", routeCost.route);
+    }
+
+    @Test
+    final void testSizedRoute() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/queues/toast/posts");
+        request.setContent(new byte[2500]);
+        RouteCost routeCost = routeCostResolver.resolve(request);
+        assertEquals(WRITE, routeCost.accessType);
+        assertEquals(2L + 3L, routeCost.tokens);
+    }
+
+    @Test
+    final void testSizedRouteIsChargedAtMostMaxBodyBytes() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/queues/toast/posts");
+        request.setContent(new byte[20_480]);
+        assertEquals(2L + 10L, routeCostResolver.resolve(request).tokens);
+    }
+
+    @Test
+    final void testChunkedBodyIsChargedAsMaxBodyBytes() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/queues/toast/posts");
+        request.addHeader("Transfer-Encoding", "chunked");
+        assertEquals(2L + 10L, routeCostResolver.resolve(request).tokens);
+        // without either header, there is no body to charge for
+        assertEquals(2L, routeCostResolver.resolve(new MockHttpServletRequest("POST", "/v1/queues/toast/posts")).tokens);
+    }
+
+    @Test
+    final void testReadCostIsNotAffectedByWriteRoutes() {
+        RouteCost routeCost = routeCostResolver.resolve(new MockHttpServletRequest("GET", "/v1/queues/toast/posts"));
+        assertEquals(READ, routeCost.accessType);
+        assertEquals(1L, routeCost.tokens);
+    }
+}
@@ -0,0 +1,52 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Map.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+class RouteMatcherTest {
+
+    private static final RouteMatcher ROUTE_MATCHER = RouteMatcher.compile(List.of("/exact", "/a/b"), List.of("/tree", "/x/y"));
+
+    @Test
+    final void testMatches() {
+        Map<String, Boolean> expected = Map.ofEntries(
+                entry("/exact", true),
+                entry("/exact/", false),
+                entry("/exact/child", false),
+                entry("/exactx", false),
+                entry("/exac", false),
+                entry("/a/b", true),
+                entry("/a", false),
+                entry("/a/b/c", false),
+                entry("/tree", true),
+                entry("/tree/", true),
+                entry("/tree/child", true),
+                entry("/tree/child/grandchild", true),
+                entry("/treex", false),
+                entry("/tre", false),
+                entry("/x/y", true),
+                entry("/x/y/z", true),
+                entry("/x", false),
+                entry("/x/yz", false),
+                entry("", false),
+                entry("/", false),
+                entry("/tr\u00e9e", false)
+        );
+        expected.forEach((path, matches) -> assertEquals(matches, ROUTE_MATCHER.matches(path), path));
+        assertFalse(ROUTE_MATCHER.matches(null));
+    }
+
+    @Test
+    final void testNonAsciiRoutesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RouteMatcher.compile(List.of("/caf\u00e9"), List.of()));
+    }
+}
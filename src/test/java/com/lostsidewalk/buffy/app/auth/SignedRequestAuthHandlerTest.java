@@ -0,0 +1,213 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.lostsidewalk.buffy.app.audit.ApiKeyException;
+import com.lostsidewalk.buffy.app.auth.ApiSigningKeyRing.ApiSigningKey;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.Authentication;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.params.SetParams;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.core.context.SecurityContextHolder.clearContext;
+import static org.springframework.security.core.context.SecurityContextHolder.getContext;
+
+@Slf4j
+class SignedRequestAuthHandlerTest {
+
+    private static final String EMPTY_BODY_DIGEST = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final ApiSigningKey SIGNING_KEY = ApiSigningKey.from(AuthPrincipal.from("me", List.of()), "testApiSecret");
+
+    private SignedRequestAuthHandler signedRequestAuthHandler;
+
+    // the keys held by the (shared) Redis instance
+    private final Set<String> redisKeys = ConcurrentHashMap.newKeySet();
+
+    private boolean redisDown;
+
+    @BeforeEach
+    final void test_setup() throws Exception {
+        signedRequestAuthHandler = newSignedRequestAuthHandler();
+    }
+
+    // each handler stands for one node, with its own local record of signatures
+    private SignedRequestAuthHandler newSignedRequestAuthHandler() throws Exception {
+        InvalidApiKeyCache invalidApiKeyCache = new InvalidApiKeyCache();
+        invalidApiKeyCache.maxSize = 100L;
+        invalidApiKeyCache.initialBackoffMs = 60_000L;
+        invalidApiKeyCache.maxBackoffMs = 60_000L;
+        invalidApiKeyCache.postConstruct();
+        ApiSigningKeyRing apiSigningKeyRing = mock(ApiSigningKeyRing.class);
+        when(apiSigningKeyRing.get("testApiKey")).thenReturn(SIGNING_KEY);
+        when(apiSigningKeyRing.get("unknownApiKey")).thenThrow(new ApiKeyException("Unable to locate API key by UUID"));
+        Jedis jedis = mock(Jedis.class);
+        when(jedis.set(anyString(), anyString(), any(SetParams.class))).thenAnswer(invocation -> {
+            if (redisDown) {
+                throw new JedisConnectionException("Connection refused");
+            }
+            return redisKeys.add(invocation.getArgument(0)) ? "OK" : null;
+        });
+        JedisPool jedisPool = mock(JedisPool.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        SignedRequestAuthHandler handler = new SignedRequestAuthHandler();
+        handler.apiSigningKeyRing = apiSigningKeyRing;
+        handler.invalidApiKeyCache = invalidApiKeyCache;
+        handler.jedisPool = jedisPool;
+        handler.replayWindowSeconds = 300L;
+        handler.maxSeenSignatures = 100L;
+        handler.postConstruct();
+        return handler;
+    }
+
+    @AfterEach
+    final void test_teardown() {
+        clearContext();
+    }
+
+    private static CachedBodyHttpServletRequest request(String method, String uri, String queryString, String body) throws IOException, ApiKeyException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setQueryString(queryString);
+        if (body != null) {
+            request.setContent(body.getBytes(UTF_8));
+        }
+        return new CachedBodyHttpServletRequest(request, 1024);
+    }
+
+    private static String sign(String canonicalRequest) {
+        return HashCode.fromBytes(Hashing.hmacSha256(SIGNING_KEY.key).hashString(canonicalRequest, UTF_8).asBytes()).toString();
+    }
+
+    private static String now() {
+        return String.valueOf(MILLISECONDS.toSeconds(currentTimeMillis()));
+    }
+
+    @Test
+    final void testCanonicalRequest() throws Exception {
+        assertEquals("GET\n/v1/queues\n1700000000\n" + EMPTY_BODY_DIGEST,
+                SignedRequestAuthHandler.canonicalRequest("1700000000", request("GET", "/v1/queues", null, null)));
+        String body = "[{\"postTitle\":{\"type\":\"text\",\"value\":\"title\"}}]";
+        assertEquals("POST\n/v1/queues/toast/posts?a=1&b=2\n1700000000\n" + Hashing.sha256().hashString(body, UTF_8),
+                SignedRequestAuthHandler.canonicalRequest("1700000000", request("POST", "/v1/queues/toast/posts", "a=1&b=2", body)));
+    }
+
+    @Test
+    final void testValidSignature() throws Exception {
+        String timestamp = now();
+        CachedBodyHttpServletRequest request = request("POST", "/v1/queues/toast/posts", "a=1", "body");
+        String signature = sign("POST\n/v1/queues/toast/posts?a=1\n" + timestamp + '\n' + Hashing.sha256().hashString("body", UTF_8));
+        signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, request);
+        Authentication authentication = getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("me", authentication.getName());
+        // the body can still be read downstream
+        assertArrayEquals("body".getBytes(UTF_8), request.getInputStream().readAllBytes());
+    }
+
+    @Test
+    final void testSignatureMismatch() throws Exception {
+        String timestamp = now();
+        String signature = sign("POST\n/v1/queues/toast/posts\n" + timestamp + '\n' + Hashing.sha256().hashString("body", UTF_8));
+        CachedBodyHttpServletRequest tampered = request("POST", "/v1/queues/toast/posts", null, "tampered");
+        assertThrows(ApiKeyException.class, () -> signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, tampered));
+        assertNull(getContext().getAuthentication());
+        // a bad signature doesn't back off the key
+        CachedBodyHttpServletRequest request = request("POST", "/v1/queues/toast/posts", null, "body");
+        signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, request);
+        assertNotNull(getContext().getAuthentication());
+    }
+
+    @Test
+    final void testReplayWindow() throws Exception {
+        long nowSeconds = MILLISECONDS.toSeconds(currentTimeMillis());
+        for (String timestamp : List.of(String.valueOf(nowSeconds - 301L), String.valueOf(nowSeconds + 301L))) {
+            CachedBodyHttpServletRequest request = request("GET", "/v1/queues", null, null);
+            String signature = sign("GET\n/v1/queues\n" + timestamp + '\n' + EMPTY_BODY_DIGEST);
+            assertThrows(ApiKeyException.class, () -> signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, request));
+        }
+        assertThrows(ApiKeyException.class, () -> signedRequestAuthHandler.checkHeaders("testApiKey", "yesterday", "00"));
+        assertNull(getContext().getAuthentication());
+    }
+
+    @Test
+    final void testReplayRejected() throws Exception {
+        String timestamp = now();
+        String signature = sign("GET\n/v1/queues\n" + timestamp + '\n' + EMPTY_BODY_DIGEST);
+        signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, request("GET", "/v1/queues", null, null));
+        clearContext();
+        CachedBodyHttpServletRequest replayed = request("GET", "/v1/queues", null, null);
+        assertThrows(ApiKeyException.class, () -> signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, replayed));
+        assertNull(getContext().getAuthentication());
+    }
+
+    @Test
+    final void testReplayToAnotherNodeRejected() throws Exception {
+        String timestamp = now();
+        String signature = sign("GET\n/v1/queues\n" + timestamp + '\n' + EMPTY_BODY_DIGEST);
+        signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, request("GET", "/v1/queues", null, null));
+        clearContext();
+        SignedRequestAuthHandler otherNode = newSignedRequestAuthHandler();
+        CachedBodyHttpServletRequest replayed = request("GET", "/v1/queues", null, null);
+        assertThrows(ApiKeyException.class, () -> otherNode.processSignedRequest("testApiKey", timestamp, signature, replayed));
+        assertNull(getContext().getAuthentication());
+    }
+
+    @Test
+    final void testReplayRejectedWithoutRedis() throws Exception {
+        redisDown = true;
+        String timestamp = now();
+        String signature = sign("GET\n/v1/queues\n" + timestamp + '\n' + EMPTY_BODY_DIGEST);
+        signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, request("GET", "/v1/queues", null, null));
+        assertNotNull(getContext().getAuthentication());
+        clearContext();
+        // this node's own record still turns the replay away
+        CachedBodyHttpServletRequest replayed = request("GET", "/v1/queues", null, null);
+        assertThrows(ApiKeyException.class, () -> signedRequestAuthHandler.processSignedRequest("testApiKey", timestamp, signature, replayed));
+    }
+
+    @Test
+    final void testUnknownKeyIsBackedOff() throws Exception {
+        String timestamp = now();
+        assertThrows(ApiKeyException.class, () -> signedRequestAuthHandler.processSignedRequest("unknownApiKey", timestamp, "00", request("GET", "/v1/queues", null, null)));
+        assertThrows(InvalidApiKeyCache.ApiKeyBackoffException.class, () -> signedRequestAuthHandler.checkHeaders("unknownApiKey", timestamp, "00"));
+    }
+
+    @Test
+    final void testBodyLimit() throws Exception {
+        assertEquals(4, request("POST", "/v1/queues", null, "body").getBody().length);
+        // a chunked body declares no length, so the limit is enforced as the body is read
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/v1/queues") {
+            @Override
+            public long getContentLengthLong() {
+                return -1L;
+            }
+        };
+        chunked.setContent(new byte[1025]);
+        assertThrows(ApiKeyException.class, () -> new CachedBodyHttpServletRequest(chunked, 1024));
+        MockHttpServletRequest declared = new MockHttpServletRequest("POST", "/v1/queues");
+        declared.setContent(new byte[1025]);
+        assertThrows(ApiKeyException.class, () -> new CachedBodyHttpServletRequest(declared, 1024));
+        MockHttpServletRequest exact = new MockHttpServletRequest("POST", "/v1/queues");
+        exact.setContent(new byte[1024]);
+        assertEquals(1024, new CachedBodyHttpServletRequest(exact, 1024).getBody().length);
+    }
+}
@@ -0,0 +1,85 @@
+package com.lostsidewalk.buffy.app.auth;
+
+import com.lostsidewalk.buffy.app.auth.VerifiedTokenCache.AuthClaimLookup;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.lostsidewalk.buffy.app.model.TokenType.APP_AUTH;
+import static com.lostsidewalk.buffy.app.model.TokenType.APP_AUTH_REFRESH;
+import static java.lang.System.currentTimeMillis;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@Slf4j
+class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    // the current auth claims, as another node might update them
+    private final Map<String, String> authClaims = new HashMap<>();
+
+    private final AuthClaimLookup authClaimLookup = authClaims::get;
+
+    @BeforeEach
+    final void test_setup() {
+        verifiedTokenCache = new VerifiedTokenCache();
+        verifiedTokenCache.maxSize = 100L;
+        verifiedTokenCache.ttlSeconds = 60L;
+        verifiedTokenCache.postConstruct();
+        authClaims.put("me", "firstClaim");
+    }
+
+    private static Date inOneMinute() {
+        return new Date(currentTimeMillis() + 60_000L);
+    }
+
+    @Test
+    final void testTokensAreServedWhileTheClaimIsCurrent() throws Exception {
+        verifiedTokenCache.put(APP_AUTH, "jwt", inOneMinute(), "me", "firstClaim", null);
+        VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(APP_AUTH, "jwt", authClaimLookup);
+        assertNotNull(verifiedToken);
+        assertEquals("me", verifiedToken.username);
+        // entries are per token type
+        assertNull(verifiedTokenCache.get(APP_AUTH_REFRESH, "jwt", authClaimLookup));
+    }
+
+    @Test
+    final void testTokensAreNotServedOnceTheClaimChanges() throws Exception {
+        verifiedTokenCache.put(APP_AUTH, "jwt", inOneMinute(), "me", "firstClaim", null);
+        // finalized elsewhere, so this node's cache was never told
+        authClaims.put("me", "secondClaim");
+        assertNull(verifiedTokenCache.get(APP_AUTH, "jwt", authClaimLookup));
+        authClaims.put("me", "firstClaim");
+        assertNull(verifiedTokenCache.get(APP_AUTH, "jwt", authClaimLookup));
+    }
+
+    @Test
+    final void testRacingPutsAreNotServed() throws Exception {
+        // verified against the old claim, but put after it was finalized
+        authClaims.put("me", "secondClaim");
+        verifiedTokenCache.put(APP_AUTH, "jwt", inOneMinute(), "me", "firstClaim", null);
+        assertNull(verifiedTokenCache.get(APP_AUTH, "jwt", authClaimLookup));
+    }
+
+    @Test
+    final void testExpiredTokensAreNotServed() throws Exception {
+        verifiedTokenCache.put(APP_AUTH, "jwt", new Date(currentTimeMillis() - 1L), "me", "firstClaim", null);
+        assertNull(verifiedTokenCache.get(APP_AUTH, "jwt", authClaimLookup));
+        // tokens without an expiration aren't cached at all
+        verifiedTokenCache.put(APP_AUTH, "jwt", null, "me", "firstClaim", null);
+        assertNull(verifiedTokenCache.get(APP_AUTH, "jwt", authClaimLookup));
+    }
+
+    @Test
+    final void testInvalidateUser() throws Exception {
+        verifiedTokenCache.put(APP_AUTH, "jwt", inOneMinute(), "me", "firstClaim", null);
+        verifiedTokenCache.invalidateUser("me");
+        assertNull(verifiedTokenCache.get(APP_AUTH, "jwt", authClaimLookup));
+    }
+}
@@ -0,0 +1,35 @@
+package com.lostsidewalk.buffy.app.paginator;
+
+import com.lostsidewalk.buffy.app.audit.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+class PageCursorTest {
+
+    @Test
+    void test_roundTrip() {
+        assertEquals(1L, PageCursor.decode(PageCursor.encode(1L)));
+        assertEquals(Long.MAX_VALUE, PageCursor.decode(PageCursor.encode(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void test_blank() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    void test_malformed() {
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(Base64.getUrlEncoder().encodeToString("42".getBytes(UTF_8))));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(Base64.getUrlEncoder().encodeToString("id:x".getBytes(UTF_8))));
+    }
+}
@@ -0,0 +1,132 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lostsidewalk.buffy.app.model.v1.request.PostConfigRequest;
+import com.lostsidewalk.buffy.app.post.PostImportReader.Format;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class PostImportReaderTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static PostImportReader newReader(String upload, Format format, int maxReportedErrors) throws IOException {
+        return newReader(upload, format, maxReportedErrors, 65536);
+    }
+
+    private static PostImportReader newReader(String upload, Format format, int maxReportedErrors, int maxLineLength) throws IOException {
+        return new PostImportReader(new ByteArrayInputStream(upload.getBytes(UTF_8)), format, OBJECT_MAPPER, VALIDATOR, maxReportedErrors, maxLineLength);
+    }
+
+    private static List<PostConfigRequest> readAll(PostImportReader postImportReader) throws IOException {
+        List<PostConfigRequest> postConfigRequests = new ArrayList<>();
+        PostConfigRequest postConfigRequest;
+        while ((postConfigRequest = postImportReader.next()) != null) {
+            postConfigRequests.add(postConfigRequest);
+        }
+        return postConfigRequests;
+    }
+
+    @Test
+    void test_ndjson() throws Exception {
+        String upload = "{\"postTitle\":{\"type\":\"text\",\"value\":\"first\"},\"postDesc\":{\"type\":\"text\",\"value\":\"first\"}}\n" +
+                "{\"postTitle\":\n" +
+                "\n" +
+                "{\"postTitle\":{\"type\":\"text\",\"value\":\"third\"},\"unknownField\":true}\n" +
+                "{\"postTitle\":{\"type\":\"text\",\"value\":\"fourth\"},\"postComment\":\"" + repeat('x', 2049) + "\"}\n" +
+                "{\"postTitle\":{\"type\":\"text\",\"value\":\"fifth\"},\"postDesc\":{\"type\":\"text\",\"value\":\"fifth\"}}";
+        PostImportReader postImportReader = newReader(upload, Format.NDJSON, 100);
+        List<PostConfigRequest> postConfigRequests = readAll(postImportReader);
+        assertEquals(2, postConfigRequests.size());
+        assertEquals("first", postConfigRequests.get(0).getPostTitle().getValue());
+        assertEquals("fifth", postConfigRequests.get(1).getPostTitle().getValue());
+        // blank lines are not rows
+        assertEquals(5L, postImportReader.getRowCt());
+        assertEquals(3L, postImportReader.getErrorCt());
+        assertEquals(Set.of(2L, 3L, 4L), postImportReader.getRowErrors().keySet());
+        assertNull(postImportReader.next());
+    }
+
+    @Test
+    void test_csv() throws Exception {
+        String upload = "postTitle,postDesc,postCategories,expirationTimestamp\n" +
+                "first,\"first, with a comma\",news|tech,2030-01-01T00:00:00Z\n" +
+                "second,second,,not-a-timestamp\n" +
+                "third,third,,\n";
+        PostImportReader postImportReader = newReader(upload, Format.CSV, 100);
+        List<PostConfigRequest> postConfigRequests = readAll(postImportReader);
+        assertEquals(2, postConfigRequests.size());
+        PostConfigRequest first = postConfigRequests.get(0);
+        assertEquals("text", first.getPostTitle().getType());
+        assertEquals("first, with a comma", first.getPostDesc().getValue());
+        assertEquals(List.of("news", "tech"), first.getPostCategories());
+        assertEquals(1893456000000L, first.getExpirationTimestamp().getTime());
+        assertEquals("third", postConfigRequests.get(1).getPostTitle().getValue());
+        assertEquals(3L, postImportReader.getRowCt());
+        assertEquals(Set.of(2L), postImportReader.getRowErrors().keySet());
+    }
+
+    @Test
+    void test_csv_unrecognizedColumn() throws Exception {
+        PostImportReader postImportReader = newReader("postTitle,postBody\nfirst,first\n", Format.CSV, 100);
+        assertNull(postImportReader.next());
+        assertEquals(1L, postImportReader.getErrorCt());
+        assertEquals("Unrecognized column: postBody", postImportReader.getRowErrors().get(1L));
+    }
+
+    @Test
+    void test_maxReportedErrors() throws Exception {
+        PostImportReader postImportReader = newReader("x\ny\nz\n", Format.NDJSON, 2);
+        assertNull(postImportReader.next());
+        assertEquals(3L, postImportReader.getErrorCt());
+        assertEquals(Set.of(1L, 2L), postImportReader.getRowErrors().keySet());
+    }
+
+    @Test
+    void test_ndjson_maxLineLength() throws Exception {
+        String row = "{\"postTitle\":{\"type\":\"text\",\"value\":\"first\"},\"postDesc\":{\"type\":\"text\",\"value\":\"first\"}}";
+        String upload = row + "\r\n" +
+                "{\"postTitle\":{\"type\":\"text\",\"value\":\"" + repeat('x', 20_000) + "\"}}\n" +
+                row;
+        PostImportReader postImportReader = newReader(upload, Format.NDJSON, 100, row.length());
+        List<PostConfigRequest> postConfigRequests = readAll(postImportReader);
+        // the long row is skipped, and the rows on either side of it are read in full
+        assertEquals(2, postConfigRequests.size());
+        assertEquals(3L, postImportReader.getRowCt());
+        assertEquals(1L, postImportReader.getErrorCt());
+        assertEquals("Row is longer than " + row.length() + " characters", postImportReader.getRowErrors().get(2L));
+    }
+
+    @Test
+    void test_csv_maxLineLength() throws Exception {
+        String upload = "postTitle,postDesc\n" +
+                "first,\"first,\nacross lines\"\n" +
+                "second,\"" + repeat("x\n", 20_000) + "\"\n" +
+                "third,third\n";
+        PostImportReader postImportReader = newReader(upload, Format.CSV, 100, 64);
+        List<PostConfigRequest> postConfigRequests = readAll(postImportReader);
+        // a quoted line break doesn't end the row, so the long row ends the upload
+        assertEquals(1, postConfigRequests.size());
+        assertEquals("first,\nacross lines", postConfigRequests.get(0).getPostDesc().getValue());
+        assertEquals(2L, postImportReader.getRowCt());
+        assertEquals(1L, postImportReader.getErrorCt());
+        assertTrue(postImportReader.getRowErrors().get(2L).contains("Row is longer than 64 characters"));
+    }
+}
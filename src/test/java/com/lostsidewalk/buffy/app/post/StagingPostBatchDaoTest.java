@@ -0,0 +1,95 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.lostsidewalk.buffy.DataConflictException;
+import com.lostsidewalk.buffy.app.BaseDaoTest;
+import com.lostsidewalk.buffy.post.StagingPost;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.PUB_PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class StagingPostBatchDaoTest extends BaseDaoTest {
+
+    private StagingPostBatchDao stagingPostBatchDao;
+
+    @BeforeEach
+    void test_setup() {
+        stagingPostBatchDao = new StagingPostBatchDao();
+        stagingPostBatchDao.jdbcTemplate = jdbcTemplate;
+    }
+
+    private long countStagingPosts() {
+        Long ct = jdbcTemplate.queryForObject("select count(*) from staging_posts", Long.class);
+        return ct == null ? 0L : ct;
+    }
+
+    @Test
+    void test_add() throws Exception {
+        StagingPost first = newStagingPost(queueId, 7L, "first");
+        StagingPost second = newStagingPost(queueId, null, "second");
+        List<Long> ids = stagingPostBatchDao.add(List.of(first, second), PUB_PENDING);
+        assertEquals(2, ids.size());
+        assertEquals(ids.get(0), first.getId());
+        assertEquals(ids.get(1), second.getId());
+        assertEquals(PUB_PENDING, first.getPostPubStatus());
+        // each column is read back with the type that newsgears StagingPostDao reads it with
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select * from staging_posts where id = ?", first.getId());
+        assertEquals("testImporterId", row.get("importer_id"));
+        assertEquals(queueId.intValue(), ((Number) row.get("queue_id")).intValue());
+        assertEquals("testImporterDesc", row.get("importer_desc"));
+        assertEquals(7L, ((Number) row.get("subscription_id")).longValue());
+        assertTrue(row.get("post_title").toString().contains("\"value\":\"title first\""));
+        assertTrue(row.get("post_desc").toString().contains("\"value\":\"description first\""));
+        assertNull(row.get("post_contents"));
+        assertEquals("https://localhost/first", row.get("post_url"));
+        assertEquals(1_600_000_000_000L, ((Timestamp) row.get("import_timestamp")).getTime());
+        assertEquals("first", row.get("post_hash"));
+        assertEquals("me", row.get("username"));
+        assertEquals("testPostComment", row.get("post_comment"));
+        assertEquals("[\"news\",\"tech\"]", row.get("post_categories").toString());
+        assertNull(row.get("publish_timestamp"));
+        assertEquals(1_900_000_000_000L, ((Timestamp) row.get("expiration_timestamp")).getTime());
+        assertEquals("PUB_PENDING", row.get("post_pub_status"));
+        assertNull(jdbcTemplate.queryForObject("select subscription_id from staging_posts where id = ?", Long.class, second.getId()));
+    }
+
+    @Test
+    void test_add_manyBatches() throws Exception {
+        List<StagingPost> stagingPosts = new ArrayList<>();
+        for (int i = 0; i < 1201; i++) {
+            stagingPosts.add(newStagingPost(queueId, null, "post" + i));
+        }
+        List<Long> ids = stagingPostBatchDao.add(stagingPosts, null);
+        assertEquals(1201, ids.size());
+        // the Ids are returned in the order given, across batches
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals("post" + i, jdbcTemplate.queryForObject("select post_hash from staging_posts where id = ?", String.class, ids.get(i)));
+        }
+        assertEquals(1201L, countStagingPosts());
+    }
+
+    @Test
+    void test_add_duplicateKey() {
+        List<StagingPost> stagingPosts = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            stagingPosts.add(newStagingPost(queueId, null, "post" + i));
+        }
+        stagingPosts.add(newStagingPost(queueId, null, "post0"));
+        assertThrows(DataConflictException.class, () -> stagingPostBatchDao.add(stagingPosts, PUB_PENDING));
+        // the first batch is rolled back with the second
+        assertEquals(0L, countStagingPosts());
+        assertNull(stagingPosts.get(0).getId());
+    }
+}
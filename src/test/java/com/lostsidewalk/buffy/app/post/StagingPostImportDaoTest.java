@@ -0,0 +1,107 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.lostsidewalk.buffy.DataConflictException;
+import com.lostsidewalk.buffy.app.BaseDaoTest;
+import com.lostsidewalk.buffy.app.audit.PayloadTooLargeException;
+import com.lostsidewalk.buffy.post.StagingPost;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.PUB_PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class StagingPostImportDaoTest extends BaseDaoTest {
+
+    private StagingPostImportDao stagingPostImportDao;
+
+    @BeforeEach
+    void test_setup() {
+        stagingPostImportDao = new StagingPostImportDao();
+        stagingPostImportDao.jdbcTemplate = jdbcTemplate;
+        stagingPostImportDao.maxRows = 100L;
+        stagingPostImportDao.maxBytes = 1_048_576L;
+    }
+
+    private static StagingPostImportDao.StagingPostSource sourceOf(List<StagingPost> stagingPosts) {
+        Iterator<StagingPost> iterator = stagingPosts.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private long countStagingPosts() {
+        Long ct = jdbcTemplate.queryForObject("select count(*) from staging_posts", Long.class);
+        return ct == null ? 0L : ct;
+    }
+
+    @Test
+    void test_importPosts() throws Exception {
+        List<StagingPost> stagingPosts = List.of(
+                newStagingPost(queueId, 7L, "first"),
+                newStagingPost(queueId, null, "second \"quoted\", with a comma\nand a line break"));
+        long importedCt = stagingPostImportDao.importPosts(sourceOf(stagingPosts), PUB_PENDING);
+        assertEquals(2L, importedCt);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select queue_id, subscription_id, post_title::text, post_hash, post_pub_status, post_categories::text, import_timestamp, expiration_timestamp, publish_timestamp" +
+                        " from staging_posts order by id");
+        assertEquals(2, rows.size());
+        Map<String, Object> first = rows.get(0);
+        assertEquals(queueId.intValue(), ((Number) first.get("queue_id")).intValue());
+        assertEquals(7, ((Number) first.get("subscription_id")).intValue());
+        assertTrue(((String) first.get("post_title")).contains("\"value\":\"title first\""));
+        assertEquals("first", first.get("post_hash"));
+        assertEquals("PUB_PENDING", first.get("post_pub_status"));
+        assertEquals("[\"news\",\"tech\"]", first.get("post_categories"));
+        assertEquals(1_600_000_000_000L, ((Timestamp) first.get("import_timestamp")).getTime());
+        assertEquals(1_900_000_000_000L, ((Timestamp) first.get("expiration_timestamp")).getTime());
+        assertNull(first.get("publish_timestamp"));
+        Map<String, Object> second = rows.get(1);
+        assertNull(second.get("subscription_id"));
+        assertEquals("second \"quoted\", with a comma\nand a line break", second.get("post_hash"));
+    }
+
+    @Test
+    void test_importPosts_noPosts() throws Exception {
+        assertEquals(0L, stagingPostImportDao.importPosts(sourceOf(List.of()), PUB_PENDING));
+        assertEquals(0L, countStagingPosts());
+    }
+
+    @Test
+    void test_importPosts_duplicateKey() {
+        List<StagingPost> stagingPosts = List.of(
+                newStagingPost(queueId, null, "first"),
+                newStagingPost(queueId, null, "first"));
+        assertThrows(DataConflictException.class, () -> stagingPostImportDao.importPosts(sourceOf(stagingPosts), null));
+        // the import succeeds or fails as a whole
+        assertEquals(0L, countStagingPosts());
+    }
+
+    @Test
+    void test_importPosts_maxRows() {
+        stagingPostImportDao.maxRows = 1L;
+        List<StagingPost> stagingPosts = List.of(
+                newStagingPost(queueId, null, "first"),
+                newStagingPost(queueId, null, "second"));
+        assertThrows(PayloadTooLargeException.class, () -> stagingPostImportDao.importPosts(sourceOf(stagingPosts), null));
+        assertEquals(0L, countStagingPosts());
+    }
+
+    @Test
+    void test_importPosts_maxBytes() {
+        stagingPostImportDao.maxRows = Long.MAX_VALUE;
+        stagingPostImportDao.maxBytes = 16L;
+        // the spool file only grows as the writer's buffers are flushed, so the source must outlast them
+        StagingPostImportDao.StagingPostSource endlessSource = () -> newStagingPost(queueId, null, UUID.randomUUID().toString());
+        assertThrows(PayloadTooLargeException.class, () -> stagingPostImportDao.importPosts(endlessSource, null));
+        assertEquals(0L, countStagingPosts());
+    }
+}
@@ -0,0 +1,83 @@
+package com.lostsidewalk.buffy.app.post;
+
+import com.lostsidewalk.buffy.app.BaseDaoTest;
+import com.lostsidewalk.buffy.app.post.StagingPostPageDao.SortOrder;
+import com.lostsidewalk.buffy.post.StagingPost;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.collect.Lists.reverse;
+import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.DEPUB_PENDING;
+import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.PUB_PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+class StagingPostPageDaoTest extends BaseDaoTest {
+
+    private StagingPostPageDao stagingPostPageDao;
+
+    private List<Long> pendingIds; // PUB_PENDING, ascending
+
+    private List<Long> allIds; // ascending
+
+    @BeforeEach
+    void test_setup() throws Exception {
+        stagingPostPageDao = new StagingPostPageDao();
+        stagingPostPageDao.jdbcTemplate = jdbcTemplate;
+        StagingPostBatchDao stagingPostBatchDao = new StagingPostBatchDao();
+        stagingPostBatchDao.jdbcTemplate = jdbcTemplate;
+        List<StagingPost> pending = new ArrayList<>();
+        List<StagingPost> other = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pending.add(newStagingPost(queueId, null, "pending" + i));
+            other.add(newStagingPost(queueId, null, "other" + i));
+        }
+        pendingIds = stagingPostBatchDao.add(pending, PUB_PENDING);
+        List<Long> otherIds = stagingPostBatchDao.add(other, null);
+        allIds = new ArrayList<>(pendingIds);
+        allIds.addAll(otherIds);
+        // another user's queue is never included
+        Long otherQueueId = jdbcTemplate.queryForObject(
+                "insert into queue_definitions (queue_ident, transport_ident, username, queue_status, language) values (?, ?, ?, ?, ?) returning id",
+                Long.class, "otherQueue", "otherTransportIdent", "me", "ENABLED", "en-US");
+        stagingPostBatchDao.add(List.of(newStagingPost(otherQueueId, null, "elsewhere")), PUB_PENDING);
+    }
+
+    @Test
+    void test_findIds() throws Exception {
+        assertEquals(allIds, stagingPostPageDao.findIds("me", queueId, null, null, null, null, SortOrder.ASC));
+        assertEquals(reverse(allIds), stagingPostPageDao.findIds("me", queueId, List.of(), null, null, null, SortOrder.DESC));
+        assertEquals(List.of(), stagingPostPageDao.findIds("someoneElse", queueId, null, null, null, null, SortOrder.ASC));
+    }
+
+    @Test
+    void test_findIds_statuses() throws Exception {
+        assertEquals(pendingIds, stagingPostPageDao.findIds("me", queueId, List.of(PUB_PENDING), null, null, null, SortOrder.ASC));
+        assertEquals(pendingIds, stagingPostPageDao.findIds("me", queueId, List.of(PUB_PENDING, DEPUB_PENDING), null, null, null, SortOrder.ASC));
+        assertEquals(List.of(), stagingPostPageDao.findIds("me", queueId, List.of(DEPUB_PENDING), null, null, null, SortOrder.ASC));
+    }
+
+    @Test
+    void test_findIds_offset() throws Exception {
+        assertEquals(allIds.subList(2, 5), stagingPostPageDao.findIds("me", queueId, null, null, 2, 3, SortOrder.ASC));
+        assertEquals(pendingIds.subList(3, 5), stagingPostPageDao.findIds("me", queueId, List.of(PUB_PENDING), null, 3, 10, SortOrder.ASC));
+    }
+
+    @Test
+    void test_findIds_keysetCursor() throws Exception {
+        // walking the queue a page at a time, from the Id of the last post of each page, visits every post once
+        List<Long> visited = new ArrayList<>();
+        Long afterId = null;
+        List<Long> page;
+        while (!(page = stagingPostPageDao.findIds("me", queueId, null, afterId, null, 3, SortOrder.DESC)).isEmpty()) {
+            visited.addAll(page);
+            afterId = page.get(page.size() - 1);
+        }
+        assertEquals(reverse(allIds), visited);
+        assertEquals(allIds.subList(6, 9), stagingPostPageDao.findIds("me", queueId, null, allIds.get(5), null, 3, SortOrder.ASC));
+    }
+}
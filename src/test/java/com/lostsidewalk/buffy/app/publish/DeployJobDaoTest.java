@@ -0,0 +1,131 @@
+package com.lostsidewalk.buffy.app.publish;
+
+import com.lostsidewalk.buffy.app.BaseDaoTest;
+import com.lostsidewalk.buffy.app.publish.DeployJob.JobStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@Slf4j
+class DeployJobDaoTest extends BaseDaoTest {
+
+    private DeployJobDao deployJobDao;
+
+    @BeforeEach
+    void test_setup() {
+        deployJobDao = new DeployJobDao();
+        deployJobDao.jdbcTemplate = jdbcTemplate;
+    }
+
+    // backdate a running job's heartbeat, as though its node had gone away
+    private void expireHeartbeat(Long id) {
+        jdbcTemplate.update("update deploy_jobs set heartbeat = current_timestamp - interval '1 hour' where id = ?", id);
+    }
+
+    @Test
+    void test_add() throws Exception {
+        Long queueJobId = deployJobDao.add("me", queueId, null);
+        Long postsJobId = deployJobDao.add("me", queueId, List.of(3L, 1L, 2L));
+        DeployJob queueJob = deployJobDao.findById("me", queueId, queueJobId);
+        assertEquals(JobStatus.PENDING, queueJob.getJobStatus());
+        assertNull(queueJob.getStagingPostIds());
+        assertEquals(0, queueJob.getAttempts());
+        assertNotNull(queueJob.getCreated());
+        assertEquals(List.of(3L, 1L, 2L), deployJobDao.findById("me", queueId, postsJobId).getStagingPostIds());
+        // jobs are only visible to their owner, by way of their queue
+        assertNull(deployJobDao.findById("someoneElse", queueId, queueJobId));
+        assertNull(deployJobDao.findById("me", queueId + 1, queueJobId));
+    }
+
+    @Test
+    void test_claim() throws Exception {
+        Long firstId = deployJobDao.add("me", queueId, null);
+        Long secondId = deployJobDao.add("me", queueId, null);
+        Long thirdId = deployJobDao.add("me", queueId, null);
+        List<DeployJob> claimed = deployJobDao.claim("node1", 2);
+        assertEquals(List.of(firstId, secondId), claimed.stream().map(DeployJob::getId).toList());
+        for (DeployJob deployJob : claimed) {
+            assertEquals(JobStatus.RUNNING, deployJob.getJobStatus());
+            assertEquals(1, deployJob.getAttempts());
+            assertNotNull(deployJob.getStarted());
+        }
+        // a claimed job is not claimed again
+        assertEquals(List.of(thirdId), deployJobDao.claim("node2", 2).stream().map(DeployJob::getId).toList());
+        assertEquals(List.of(), deployJobDao.claim("node2", 2));
+    }
+
+    @Test
+    void test_complete() throws Exception {
+        Long id = deployJobDao.add("me", queueId, null);
+        deployJobDao.claim("node1", 1);
+        deployJobDao.complete(id, Map.of());
+        DeployJob deployJob = deployJobDao.findById("me", queueId, id);
+        assertEquals(JobStatus.COMPLETED, deployJob.getJobStatus());
+        assertEquals(Map.of(), deployJob.getDeployResponses());
+        assertNull(deployJob.getErrorMessage());
+        assertNotNull(deployJob.getCompleted());
+    }
+
+    @Test
+    void test_fail() throws Exception {
+        Long id = deployJobDao.add("me", queueId, null);
+        deployJobDao.claim("node1", 1);
+        deployJobDao.fail(id, "first failure", 2);
+        // retried, until it has been attempted maxAttempts times
+        DeployJob deployJob = deployJobDao.findById("me", queueId, id);
+        assertEquals(JobStatus.PENDING, deployJob.getJobStatus());
+        assertEquals("first failure", deployJob.getErrorMessage());
+        assertNull(deployJob.getCompleted());
+        assertEquals(List.of(id), deployJobDao.claim("node1", 1).stream().map(DeployJob::getId).toList());
+        deployJobDao.fail(id, "second failure", 2);
+        deployJob = deployJobDao.findById("me", queueId, id);
+        assertEquals(JobStatus.FAILED, deployJob.getJobStatus());
+        assertEquals(2, deployJob.getAttempts());
+        assertEquals("second failure", deployJob.getErrorMessage());
+        assertNotNull(deployJob.getCompleted());
+    }
+
+    @Test
+    void test_recoverStale() throws Exception {
+        Long staleId = deployJobDao.add("me", queueId, null);
+        Long liveId = deployJobDao.add("me", queueId, null);
+        deployJobDao.claim("node1", 2);
+        expireHeartbeat(staleId);
+        expireHeartbeat(liveId);
+        // a heartbeat keeps a long-running job from being recovered, but only from the node that is running it
+        deployJobDao.heartbeat("node2", List.of(staleId));
+        deployJobDao.heartbeat("node1", List.of(liveId));
+        assertEquals(1, deployJobDao.recoverStale(60_000L, 3));
+        DeployJob staleJob = deployJobDao.findById("me", queueId, staleId);
+        assertEquals(JobStatus.PENDING, staleJob.getJobStatus());
+        assertEquals("Deploy job was abandoned by node node1", staleJob.getErrorMessage());
+        assertEquals(JobStatus.RUNNING, deployJobDao.findById("me", queueId, liveId).getJobStatus());
+        // once it has been attempted maxAttempts times, a stale job fails
+        deployJobDao.claim("node1", 1);
+        expireHeartbeat(staleId);
+        assertEquals(1, deployJobDao.recoverStale(60_000L, 2));
+        staleJob = deployJobDao.findById("me", queueId, staleId);
+        assertEquals(JobStatus.FAILED, staleJob.getJobStatus());
+        assertNotNull(staleJob.getCompleted());
+    }
+
+    @Test
+    void test_purge() throws Exception {
+        Long completedId = deployJobDao.add("me", queueId, null);
+        Long pendingId = deployJobDao.add("me", queueId, null);
+        deployJobDao.claim("node1", 1);
+        deployJobDao.complete(completedId, Map.of());
+        assertEquals(0, deployJobDao.purge(60_000L));
+        jdbcTemplate.update("update deploy_jobs set completed = current_timestamp - interval '1 hour' where id = ?", completedId);
+        assertEquals(1, deployJobDao.purge(60_000L));
+        assertNull(deployJobDao.findById("me", queueId, completedId));
+        assertNotNull(deployJobDao.findById("me", queueId, pendingId));
+    }
+}
@@ -0,0 +1,200 @@
+package com.lostsidewalk.buffy.app.publish;
+
+import com.lostsidewalk.buffy.PostPublisher;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.publisher.Publisher.PubResult;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class PublishCoalescerTest {
+
+    private static final String TEST_USERNAME = "me";
+
+    private static final Long TEST_QUEUE_ID = 1L;
+
+    private static final Map<String, PubResult> TEST_PUB_RESULTS = Map.of("RSS_20", PubResult.from("testTransportUrl", "testUserIdentUrl", emptyList(), null));
+
+    private PostPublisher postPublisher;
+
+    private ExecutorService callers;
+
+    // full publishes hold until released, so that requests can be lined up behind one that is running
+    private CountDownLatch fullPublishStarted;
+
+    private CountDownLatch releaseFullPublish;
+
+    private final AtomicInteger runningPublishCt = new AtomicInteger();
+
+    private final AtomicInteger maxRunningPublishCt = new AtomicInteger();
+
+    @BeforeEach
+    final void test_setup() throws Exception {
+        fullPublishStarted = new CountDownLatch(1);
+        releaseFullPublish = new CountDownLatch(0);
+        postPublisher = mock(PostPublisher.class);
+        when(postPublisher.publishFeed(anyString(), anyLong())).thenAnswer(invocation -> {
+            maxRunningPublishCt.accumulateAndGet(runningPublishCt.incrementAndGet(), Math::max);
+            try {
+                fullPublishStarted.countDown();
+                releaseFullPublish.await(10L, SECONDS);
+                return TEST_PUB_RESULTS;
+            } finally {
+                runningPublishCt.decrementAndGet();
+            }
+        });
+        when(postPublisher.publishFeed(anyString(), anyLong(), anyList())).thenReturn(TEST_PUB_RESULTS);
+        callers = newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    final void test_teardown() {
+        callers.shutdownNow();
+    }
+
+    private PublishCoalescer newCoalescer(long windowMs, long minIntervalMs) {
+        PublishCoalescer publishCoalescer = new PublishCoalescer();
+        publishCoalescer.postPublisher = postPublisher;
+        publishCoalescer.windowMs = windowMs;
+        publishCoalescer.minIntervalMs = minIntervalMs;
+        publishCoalescer.idleMs = 60_000L;
+        publishCoalescer.postConstruct();
+        return publishCoalescer;
+    }
+
+    // start a full publish of the test queue, and return once it is running
+    private Future<Map<String, PubResult>> startHeldPublish(PublishCoalescer publishCoalescer) throws InterruptedException {
+        releaseFullPublish = new CountDownLatch(1);
+        Future<Map<String, PubResult>> result = callers.submit(() -> publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID));
+        assertTrue(fullPublishStarted.await(10L, SECONDS));
+        return result;
+    }
+
+    private static StagingPost testPost(long id) {
+        StagingPost stagingPost = mock(StagingPost.class);
+        when(stagingPost.getId()).thenReturn(id);
+        return stagingPost;
+    }
+
+    @Test
+    void test_publishFeed_disabled() throws Exception {
+        PublishCoalescer publishCoalescer = newCoalescer(0L, 0L);
+        StagingPost stagingPost = testPost(1L);
+        publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID);
+        publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(stagingPost));
+        verify(postPublisher, times(1)).publishFeed(TEST_USERNAME, TEST_QUEUE_ID);
+        verify(postPublisher, times(1)).publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(stagingPost));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void test_publishFeed_mergesPostsWithinWindow() throws Exception {
+        PublishCoalescer publishCoalescer = newCoalescer(500L, 0L);
+        Future<Map<String, PubResult>> heldResult = startHeldPublish(publishCoalescer);
+        List<Future<Map<String, PubResult>>> results = new ArrayList<>();
+        for (long postId = 1L; postId <= 3L; postId++) {
+            StagingPost stagingPost = testPost(postId);
+            results.add(callers.submit(() -> publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(stagingPost))));
+        }
+        releaseFullPublish.countDown();
+        assertSame(TEST_PUB_RESULTS, heldResult.get());
+        for (Future<Map<String, PubResult>> result : results) {
+            assertSame(TEST_PUB_RESULTS, result.get());
+        }
+        ArgumentCaptor<List<StagingPost>> captor = ArgumentCaptor.forClass(List.class);
+        verify(postPublisher, times(1)).publishFeed(eq(TEST_USERNAME), eq(TEST_QUEUE_ID), captor.capture());
+        assertEquals(3, captor.getValue().size());
+        verify(postPublisher, times(1)).publishFeed(TEST_USERNAME, TEST_QUEUE_ID);
+    }
+
+    @Test
+    void test_publishFeed_fullPublishSubsumesPosts() throws Exception {
+        PublishCoalescer publishCoalescer = newCoalescer(500L, 0L);
+        Future<Map<String, PubResult>> heldResult = startHeldPublish(publishCoalescer);
+        StagingPost stagingPost = testPost(1L);
+        Future<Map<String, PubResult>> postResult = callers.submit(() -> publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(stagingPost)));
+        Future<Map<String, PubResult>> queueResult = callers.submit(() -> publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID));
+        releaseFullPublish.countDown();
+        assertSame(TEST_PUB_RESULTS, heldResult.get());
+        assertSame(TEST_PUB_RESULTS, postResult.get());
+        assertSame(TEST_PUB_RESULTS, queueResult.get());
+        verify(postPublisher, times(2)).publishFeed(TEST_USERNAME, TEST_QUEUE_ID);
+        verify(postPublisher, never()).publishFeed(eq(TEST_USERNAME), eq(TEST_QUEUE_ID), anyList());
+    }
+
+    @Test
+    void test_publishFeed_uncontendedPublishesImmediately() throws Exception {
+        PublishCoalescer publishCoalescer = newCoalescer(500L, 0L);
+        long startMs = System.currentTimeMillis();
+        publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(testPost(1L)));
+        long elapsedMs = System.currentTimeMillis() - startMs;
+        assertTrue(elapsedMs < 500L, "uncontended publish took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void test_evictIdle_keepsStatesInUse() throws Exception {
+        PublishCoalescer publishCoalescer = newCoalescer(1L, 0L);
+        publishCoalescer.idleMs = 0L;
+        Future<Map<String, PubResult>> heldResult = startHeldPublish(publishCoalescer);
+        publishCoalescer.evictIdle();
+        // had the running publish's state been dropped, this one would not wait for it
+        Future<Map<String, PubResult>> queueResult = callers.submit(() -> publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID));
+        Thread.sleep(100L);
+        releaseFullPublish.countDown();
+        assertSame(TEST_PUB_RESULTS, heldResult.get());
+        assertSame(TEST_PUB_RESULTS, queueResult.get());
+        assertEquals(1, maxRunningPublishCt.get());
+        // once idle, it is dropped
+        publishCoalescer.evictIdle();
+        assertEquals(0, publishCoalescer.queueStates.size());
+    }
+
+    @Test
+    void test_publishFeed_minInterval() throws Exception {
+        PublishCoalescer publishCoalescer = newCoalescer(1L, 300L);
+        long startMs = System.currentTimeMillis();
+        publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID);
+        publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID);
+        long elapsedMs = System.currentTimeMillis() - startMs;
+        assertTrue(elapsedMs >= 300L, "second publish started after " + elapsedMs + "ms");
+        verify(postPublisher, times(2)).publishFeed(TEST_USERNAME, TEST_QUEUE_ID);
+    }
+
+    @Test
+    void test_publishFeed_republishesUnchangedPosts() throws Exception {
+        PublishCoalescer publishCoalescer = newCoalescer(1L, 0L);
+        StagingPost stagingPost = testPost(1L);
+        publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(stagingPost));
+        // the post may have been published elsewhere since, so the result of a publish is never reused
+        publishCoalescer.publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(stagingPost));
+        verify(postPublisher, times(2)).publishFeed(TEST_USERNAME, TEST_QUEUE_ID, singletonList(stagingPost));
+    }
+}
@@ -0,0 +1,74 @@
+package com.lostsidewalk.buffy.app.pwencoder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static com.lostsidewalk.buffy.app.pwencoder.PasswordEncoderConfig.withoutEncoderId;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class PasswordEncoderConfigTest {
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    final void test_setup() {
+        PasswordEncoderConfig passwordEncoderConfig = new PasswordEncoderConfig();
+        passwordEncoderConfig.encoderId = "bcrypt";
+        passwordEncoderConfig.bcryptStrength = 4;
+        passwordEncoderConfig.argon2SaltLength = 16;
+        passwordEncoderConfig.argon2HashLength = 32;
+        passwordEncoderConfig.argon2Parallelism = 1;
+        passwordEncoderConfig.argon2MemoryKb = 1024;
+        passwordEncoderConfig.argon2Iterations = 1;
+        passwordEncoderConfig.poolSize = 1;
+        passwordEncoderConfig.queueCapacity = 4;
+        passwordEncoderConfig.timeoutMs = 5_000L;
+        passwordEncoder = passwordEncoderConfig.passwordEncoder();
+    }
+
+    @AfterEach
+    final void test_teardown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    final void testEncodedPasswordsCarryTheEncoderId() {
+        String encoded = passwordEncoder.encode("testPassword");
+        assertTrue(encoded.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(passwordEncoder.matches("testPassword", encoded));
+        assertFalse(passwordEncoder.upgradeEncoding(encoded));
+    }
+
+    @Test
+    final void testLegacyPasswordsAreMatchedAndUpgraded() {
+        String bareHash = new BCryptPasswordEncoder(4).encode("testPassword");
+        assertTrue(passwordEncoder.matches("testPassword", bareHash));
+        assertTrue(passwordEncoder.upgradeEncoding(bareHash));
+        assertTrue(passwordEncoder.matches("testPassword", "testPassword"));
+        assertFalse(passwordEncoder.matches("otherPassword", "testPassword"));
+    }
+
+    @Test
+    final void testLegacyEncoderEncodesWithTheUpgradeEncoder() {
+        LegacyPasswordEncoder legacyPasswordEncoder = new LegacyPasswordEncoder(passwordEncoder);
+        String encoded = legacyPasswordEncoder.encode("testPassword");
+        assertTrue(encoded.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches("testPassword", encoded));
+    }
+
+    @Test
+    final void testWithoutEncoderId() {
+        String encoded = passwordEncoder.encode("testSecret");
+        String bareHash = withoutEncoderId(encoded);
+        assertEquals(encoded.substring("{bcrypt}".length()), bareHash);
+        assertEquals(bareHash, withoutEncoderId(bareHash));
+        assertNull(withoutEncoderId(null));
+    }
+}
@@ -37,7 +37,7 @@ class AuthorControllerTest extends BaseWebControllerTest {
     void test_setup() throws Exception {
         when(tokenService.instanceFor(APP_AUTH, "testToken")).thenReturn(TEST_JWT_UTIL);
         when(authService.requireAuthClaim("me")).thenReturn("testAuthClaim");
-        when(userService.loadUserByUsername("me")).thenReturn(TEST_API_USER_DETAILS);
+        when(userService.loadPrincipal("me")).thenReturn(TEST_API_USER_DETAILS);
     }
 
     private static final Gson GSON = new Gson();
@@ -35,9 +35,7 @@ class ContentControllerTest extends BaseWebControllerTest {
 
     @BeforeEach
     void test_setup() throws Exception {
-        when(authService.findUserByApiKey("testApiKey")).thenReturn(TEST_API_USER);
-        when(authService.requireApiKey("me")).thenReturn(TEST_API_KEY_OBJ);
-        when(apiUserService.loadUserByUsername("me")).thenReturn(TEST_API_USER_DETAILS);
+        when(apiUserService.loadApiPrincipal("testApiKey", "testApiSecret")).thenReturn(TEST_API_USER_DETAILS);
     }
 
     private static final Gson GSON = new Gson();
@@ -57,9 +57,7 @@ class PostControllerTest extends BaseWebControllerTest {
 
     @BeforeEach
     void test_setup() throws Exception {
-        when(authService.findUserByApiKey("testApiKey")).thenReturn(TEST_API_USER);
-        when(authService.requireApiKey("me")).thenReturn(TEST_API_KEY_OBJ);
-        when(apiUserService.loadUserByUsername("me")).thenReturn(TEST_API_USER_DETAILS);
+        when(apiUserService.loadApiPrincipal("testApiKey", "testApiSecret")).thenReturn(TEST_API_USER_DETAILS);
     }
 
     //
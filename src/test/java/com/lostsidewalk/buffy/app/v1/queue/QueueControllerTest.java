@@ -9,8 +9,11 @@ import com.lostsidewalk.buffy.app.model.v1.Atom10Config;
 import com.lostsidewalk.buffy.app.model.v1.RSS20Config;
 import com.lostsidewalk.buffy.app.model.v1.request.*;
 import com.lostsidewalk.buffy.app.model.v1.response.ExportConfigDTO;
+import com.lostsidewalk.buffy.app.paginator.PageCursor;
+import com.lostsidewalk.buffy.app.post.PostImportReader.Format;
+import com.lostsidewalk.buffy.app.post.PostImportResult;
+import com.lostsidewalk.buffy.app.post.StagingPostPageDao.SortOrder;
 import com.lostsidewalk.buffy.post.*;
-import com.lostsidewalk.buffy.post.StagingPost.PostPubStatus;
 import com.lostsidewalk.buffy.publisher.Publisher.PubResult;
 import com.lostsidewalk.buffy.queue.QueueDefinition;
 import com.rometools.modules.itunes.EntryInformationImpl;
@@ -35,14 +38,22 @@ import java.util.Map;
 
 import static com.lostsidewalk.buffy.app.auth.AuthTokenFilter.API_KEY_HEADER_NAME;
 import static com.lostsidewalk.buffy.app.auth.AuthTokenFilter.API_SECRET_HEADER_NAME;
+import static com.lostsidewalk.buffy.app.paginator.PageCursor.NEXT_CURSOR_HEADER_NAME;
+import static com.lostsidewalk.buffy.app.post.PostImportReader.NDJSON_MEDIA_TYPE;
 import static com.lostsidewalk.buffy.post.StagingPost.PostPubStatus.PUB_PENDING;
 import static java.time.format.DateTimeFormatter.ISO_INSTANT;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.LINK;
 import static org.springframework.http.MediaType.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -58,9 +69,7 @@ class QueueControllerTest extends BaseWebControllerTest {
 
     @BeforeEach
     void test_setup() throws Exception {
-        when(authService.findUserByApiKey("testApiKey")).thenReturn(TEST_API_USER);
-        when(authService.requireApiKey("me")).thenReturn(TEST_API_KEY_OBJ);
-        when(apiUserService.loadUserByUsername("me")).thenReturn(TEST_API_USER_DETAILS);
+        when(apiUserService.loadApiPrincipal("testApiKey", "testApiSecret")).thenReturn(TEST_API_USER_DETAILS);
     }
 
     private static final Atom10Config TEST_ATOM_CONFIG = Atom10Config.from(
@@ -185,6 +194,72 @@ class QueueControllerTest extends BaseWebControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void test_getQueues_cursor() throws Exception {
+        when(queueDefinitionService.findByUser("me", 5L, 1)).thenReturn(TEST_DEPLOYED_QUEUE_DEFINITIONS);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues")
+                        .param("cursor", PageCursor.encode(5L))
+                        .param("limit", "1")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(result -> {
+                    String responseContent = result.getResponse().getContentAsString();
+                    assertEquals(1, GSON.fromJson(responseContent, JsonArray.class).size());
+                    assertEquals(PageCursor.encode(1L), result.getResponse().getHeader(NEXT_CURSOR_HEADER_NAME));
+                    String link = result.getResponse().getHeader(LINK);
+                    assertNotNull(link);
+                    assertTrue(link.contains("cursor=" + PageCursor.encode(1L)));
+                    assertTrue(link.endsWith("; rel=\"next\""));
+                })
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void test_getQueues_maxLimit() throws Exception {
+        when(queueDefinitionService.findByUser("me", null, 1000)).thenReturn(TEST_DEPLOYED_QUEUE_DEFINITIONS);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues")
+                        .param("limit", "1000")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(result -> {
+                    String responseContent = result.getResponse().getContentAsString();
+                    assertEquals(1, GSON.fromJson(responseContent, JsonArray.class).size());
+                    // the page isn't full, so there is no next page
+                    assertNull(result.getResponse().getHeader(NEXT_CURSOR_HEADER_NAME));
+                })
+                .andExpect(status().isOk());
+        verify(queueDefinitionService).findByUser("me", null, 1000);
+    }
+
+    @Test
+    void test_getQueues_overMaxLimit() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues")
+                        .param("limit", "1001")
+                        .param("offset", "1")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+        verify(queueDefinitionService, never()).findByUser("me");
+    }
+
+    @Test
+    void test_getQueues_cursorAndOffset() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues")
+                        .param("cursor", PageCursor.encode(5L))
+                        .param("offset", "2")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void test_getQueueById() throws Exception {
         when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
@@ -1355,8 +1430,7 @@ class QueueControllerTest extends BaseWebControllerTest {
     @Test
     void test_createPost() throws Exception {
         when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
-        when(stagingPostService.createPost("me", 1L, TEST_POST_CONFIG_REQUEST)).thenReturn(1L);
-        when(stagingPostService.findById("me", 1L)).thenReturn(TEST_STAGING_POST);
+        when(stagingPostService.createPosts("me", 1L, TEST_POST_CONFIG_REQUESTS, null)).thenReturn(List.of(TEST_STAGING_POST));
         mockMvc.perform(MockMvcRequestBuilders
                         .post("/v1/queues/1/posts")
                         .servletPath("/v1/queues/1/posts")
@@ -1372,10 +1446,30 @@ class QueueControllerTest extends BaseWebControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void test_importPosts() throws Exception {
+        when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
+        when(stagingPostService.importPosts(eq("me"), eq(1L), any(), eq(Format.NDJSON), isNull()))
+                .thenReturn(PostImportResult.from(2L, 1L, 1L, Map.of(2L, "testRowError")));
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/v1/queues/1/posts/import")
+                        .servletPath("/v1/queues/1/posts/import")
+                        .contentType(NDJSON_MEDIA_TYPE)
+                        .content(GSON.toJson(TEST_POST_CONFIG_REQUEST) + "\n{}")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(result -> {
+                    String responseContent = result.getResponse().getContentAsString();
+                    assertEquals("{\"rowCt\":2,\"importedCt\":1,\"errorCt\":1,\"rowErrors\":{\"2\":\"testRowError\"}}", responseContent);
+                })
+                .andExpect(status().isCreated());
+    }
+
     @Test
     void test_getPosts() throws Exception {
         when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
-        when(stagingPostService.getStagingPosts("me", List.of(1L), (PostPubStatus) null)).thenReturn(TEST_STAGING_POSTS);
+        when(stagingPostService.getStagingPosts("me", 1L, singletonList(null), null, null, null, SortOrder.ASC)).thenReturn(TEST_STAGING_POSTS);
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/v1/queues/1/posts")
                         .header(API_KEY_HEADER_NAME, "testApiKey")
@@ -1391,6 +1485,42 @@ class QueueControllerTest extends BaseWebControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void test_getPosts_cursor() throws Exception {
+        when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
+        when(stagingPostService.getStagingPosts("me", 1L, singletonList(PUB_PENDING), 5L, null, 1, SortOrder.ASC)).thenReturn(TEST_STAGING_POSTS);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues/1/posts")
+                        .param("status", "PUB_PENDING")
+                        .param("cursor", PageCursor.encode(5L))
+                        .param("limit", "1")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(result -> {
+                    String responseContent = result.getResponse().getContentAsString();
+                    assertEquals(1, GSON.fromJson(responseContent, JsonArray.class).size());
+                    assertEquals(PageCursor.encode(1L), result.getResponse().getHeader(NEXT_CURSOR_HEADER_NAME));
+                    String link = result.getResponse().getHeader(LINK);
+                    assertNotNull(link);
+                    assertTrue(link.contains("status=PUB_PENDING"));
+                    assertTrue(link.contains("cursor=" + PageCursor.encode(1L)));
+                })
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void test_getPosts_invalidCursor() throws Exception {
+        when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues/1/posts")
+                        .param("cursor", "not-a-cursor")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
     //
     //
     //
@@ -1,24 +1,77 @@
 package com.lostsidewalk.buffy.app.v1.queue;
 
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.lostsidewalk.buffy.app.BaseWebControllerTest;
+import com.lostsidewalk.buffy.app.model.v1.response.DeployResponse;
+import com.lostsidewalk.buffy.app.publish.DeployJob;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.Date;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static com.lostsidewalk.buffy.app.auth.AuthTokenFilter.API_KEY_HEADER_NAME;
+import static com.lostsidewalk.buffy.app.auth.AuthTokenFilter.API_SECRET_HEADER_NAME;
+import static com.lostsidewalk.buffy.app.publish.DeployJob.JobStatus.COMPLETED;
+import static com.lostsidewalk.buffy.publisher.Publisher.PubResult.from;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Slf4j
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = QueueStatusController.class)
 class QueueStatusControllerTest extends BaseWebControllerTest {
 
+    private static final Gson GSON = new Gson();
+
     @BeforeEach
     void test_setup() throws Exception {
-        when(authService.findUserByApiKey("testApiKey")).thenReturn(TEST_API_USER);
-        when(authService.requireApiKey("me")).thenReturn(TEST_API_KEY_OBJ);
-        when(apiUserService.loadUserByUsername("me")).thenReturn(TEST_API_USER_DETAILS);
+        when(apiUserService.loadApiPrincipal("testApiKey", "testApiSecret")).thenReturn(TEST_API_USER_DETAILS);
+    }
+
+    private static final Date NOW = new Date(15_000_000L);
+
+    private static final DeployJob TEST_DEPLOY_JOB = DeployJob.from(
+            5L, 1L, "me", null, COMPLETED, 1,
+            DeployResponse.from(of("RSS_20", from("testTransportUrl", "testUserIdentUrl", emptyList(), NOW))),
+            null, NOW, NOW, NOW
+    );
+
+    @Test
+    void test_getDeployJob() throws Exception {
+        when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
+        when(deployJobDao.findById("me", 1L, 5L)).thenReturn(TEST_DEPLOY_JOB);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues/1/deploys/5")
+                        .servletPath("/v1/queues/1/deploys/5")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                )
+                .andExpect(result -> {
+                    String responseContent = result.getResponse().getContentAsString();
+                    assertEquals(GSON.fromJson("{\"id\":5,\"status\":\"COMPLETED\",\"attempts\":1,\"created\":\"1970-01-01T04:10:00.000+00:00\",\"started\":\"1970-01-01T04:10:00.000+00:00\",\"completed\":\"1970-01-01T04:10:00.000+00:00\",\"deployResponses\":{\"RSS_20\":{\"timestamp\":\"1970-01-01T04:10:00.000+00:00\",\"publisherIdent\":\"RSS_20\",\"urls\":[\"testTransportUrl\",\"testUserIdentUrl\"]}}}", JsonObject.class), GSON.fromJson(responseContent, JsonObject.class));
+                })
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void test_getDeployJob_notFound() throws Exception {
+        when(queueDefinitionService.resolveQueueId("me", "1")).thenReturn(1L);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/v1/queues/1/deploys/6")
+                        .servletPath("/v1/queues/1/deploys/6")
+                        .header(API_KEY_HEADER_NAME, "testApiKey")
+                        .header(API_SECRET_HEADER_NAME, "testApiSecret")
+                )
+                .andExpect(status().isNotFound());
     }
 }